@@ -1,6 +1,7 @@
 plugins {
     id("java")
     id("org.jetbrains.intellij.platform") version "2.5.0"
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "de.dp_coding"
@@ -27,10 +28,39 @@ dependencies {
     // HTTP client for REST API communication
     implementation("com.squareup.retrofit2:retrofit:2.9.0")
     implementation("com.squareup.retrofit2:converter-gson:2.9.0")
-    implementation("com.squareup.okhttp3:logging-interceptor:4.11.0")
+    implementation("com.squareup.okhttp3:okhttp:4.11.0")
 
     // JSON parsing
     implementation("com.google.code.gson:gson:2.10.1")
+
+    // Local stand-in for a Zammad instance in the benchmarks
+    jmhImplementation("com.squareup.okhttp3:mockwebserver:4.11.0")
+}
+
+// The benchmarks run outside the IDE, against the same platform jars the plugin is compiled with
+configurations.named("jmhImplementation") {
+    extendsFrom(configurations.compileOnly.get())
+}
+
+// Benchmarks of the plugin's hot paths, run with ./gradlew jmh
+// Read more: https://github.com/melix/jmh-gradle-plugin
+jmh {
+    jmhVersion = "1.37"
+    // Fixed forks and iterations, so that the results of different runs can be compared
+    fork = 2
+    warmupIterations = 5
+    iterations = 10
+    resultFormat = "JSON"
+    jvmArgsAppend.add("-Djava.awt.headless=true")
+    // Allocation per operation next to the times, in the same results file
+    profilers.add("gc")
+    // Run a subset with e.g. -PjmhIncludes=BranchNames
+    providers.gradleProperty("jmhIncludes").orNull?.let { includes.add(it) }
+    // Override parameters with e.g. -PjmhParams="latencyMillis=200;pageSize=50,500"
+    providers.gradleProperty("jmhParams").orNull?.split(';')?.forEach { param ->
+        val (name, values) = param.split('=', limit = 2)
+        benchmarkParameters.put(name.trim(), objects.listProperty(String::class.java).value(values.split(',').map { it.trim() }))
+    }
 }
 
 intellijPlatform {
@@ -58,6 +88,11 @@ tasks {
         systemProperty("intellij.headless.jdk.finder.enabled", "false")
     }
 
+    // Blocking HTTP calls on the EDT fail instead of only being reported
+    named<JavaExec>("runIde") {
+        systemProperty("zammad.failOnBlockingCalls", "true")
+    }
+
     // Skip searchable options tasks to avoid build errors
     named("buildSearchableOptions") {
         enabled = false
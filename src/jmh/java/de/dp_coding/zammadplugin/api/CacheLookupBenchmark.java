@@ -0,0 +1,100 @@
+package de.dp_coding.zammadplugin.api;
+
+import de.dp_coding.zammadplugin.benchmark.SyntheticData;
+import de.dp_coding.zammadplugin.model.Ticket;
+import de.dp_coding.zammadplugin.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups in the caches of {@link ZammadService}, e.g. the user cache that the ticket list reads for every
+ * painted row, and in the {@link TicketStore}. The caches are set up like the ones of the service and filled
+ * to their bound, so that every put evicts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CacheLookupBenchmark {
+    private static final int USER_CACHE_SIZE = 2000;
+    private static final int TICKET_COUNT = 10000;
+
+    private final ExpiringCache<Integer, User> userCache =
+        new ExpiringCache<>("users", USER_CACHE_SIZE, Duration.ofMinutes(30));
+    private final TicketStore ticketStore = new TicketStore();
+    private List<User> users;
+    private User extraUser;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SyntheticData data = new SyntheticData(SyntheticData.DEFAULT_SEED);
+        users = data.users(USER_CACHE_SIZE);
+        for (User user : users) {
+            userCache.put(user.getId(), user);
+        }
+        extraUser = data.users(1).get(0);
+        List<Ticket> tickets = data.tickets(TICKET_COUNT, USER_CACHE_SIZE);
+        ticketStore.upsert(tickets);
+    }
+
+    @Benchmark
+    public User userCacheHit() {
+        return userCache.get(1 + nextIndex(USER_CACHE_SIZE));
+    }
+
+    @Benchmark
+    public User userCacheMiss() {
+        return userCache.get(-1 - nextIndex(USER_CACHE_SIZE));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public User userCacheHitContended(Cursor cursor) {
+        return userCache.get(1 + cursor.nextIndex(USER_CACHE_SIZE));
+    }
+
+    @Benchmark
+    public void userCachePutEvicting() {
+        // Every key is new, so every put evicts the least recently used entry
+        userCache.put(USER_CACHE_SIZE + 1 + nextIndex(Integer.MAX_VALUE - USER_CACHE_SIZE - 1), extraUser);
+    }
+
+    @Benchmark
+    public Ticket ticketStoreLookup() {
+        return ticketStore.getTicket(1 + nextIndex(TICKET_COUNT));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Ticket> ticketStoreAllTickets() {
+        return ticketStore.getTickets();
+    }
+
+    private int nextIndex(int bound) {
+        next = next + 1 < bound ? next + 1 : 0;
+        return next;
+    }
+
+    /**
+     * Position of one benchmark thread in the keys.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int nextIndex(int bound) {
+            next = next + 1 < bound ? next + 1 : 0;
+            return next;
+        }
+    }
+}
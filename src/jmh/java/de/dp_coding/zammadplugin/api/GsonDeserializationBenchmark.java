@@ -0,0 +1,73 @@
+package de.dp_coding.zammadplugin.api;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import de.dp_coding.zammadplugin.benchmark.SyntheticData;
+import de.dp_coding.zammadplugin.model.Article;
+import de.dp_coding.zammadplugin.model.Ticket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserialization of large ticket and article responses, the way the Retrofit Gson converter reads them:
+ * through the type adapter, from a character stream. Compares Gson's reflective adapters with the streaming adapters
+ * of {@link ZammadJson}; run with {@code -prof gc} to compare the allocations as well.
+ * <p>
+ * Each variant reads JSON it wrote itself, since the reflective adapters use the field names of the model classes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GsonDeserializationBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int ticketCount;
+
+    @Param({"1000"})
+    public int averageBodyChars;
+
+    @Param({"reflective", "streaming"})
+    public String adapters;
+
+    private Gson gson;
+    private TypeAdapter<List<Ticket>> ticketsAdapter;
+    private TypeAdapter<List<Article>> articlesAdapter;
+    private String ticketsJson;
+    private String articlesJson;
+
+    @Setup
+    public void setUp() {
+        // Same configuration as ZammadHttpClient, with or without the model adapters
+        GsonBuilder builder = adapters.equals("streaming") ? ZammadJson.builder() : new GsonBuilder();
+        gson = builder.setLenient().create();
+        SyntheticData data = new SyntheticData(SyntheticData.DEFAULT_SEED);
+        ticketsAdapter = gson.getAdapter(new TypeToken<List<Ticket>>() {});
+        articlesAdapter = gson.getAdapter(new TypeToken<List<Article>>() {});
+        ticketsJson = gson.toJson(data.tickets(ticketCount, Math.max(1, ticketCount / 10)));
+        // A ticket has 10 articles on average
+        articlesJson = gson.toJson(data.articles(ticketCount * 10, ticketCount, averageBodyChars));
+    }
+
+    @Benchmark
+    public List<Ticket> tickets() throws IOException {
+        return ticketsAdapter.read(gson.newJsonReader(new StringReader(ticketsJson)));
+    }
+
+    @Benchmark
+    public List<Article> articles() throws IOException {
+        return articlesAdapter.read(gson.newJsonReader(new StringReader(articlesJson)));
+    }
+}
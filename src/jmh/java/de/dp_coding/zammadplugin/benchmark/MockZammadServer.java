@@ -0,0 +1,305 @@
+package de.dp_coding.zammadplugin.benchmark;
+
+import com.google.gson.Gson;
+import de.dp_coding.zammadplugin.api.ZammadJson;
+import de.dp_coding.zammadplugin.model.Article;
+import de.dp_coding.zammadplugin.model.Ticket;
+import de.dp_coding.zammadplugin.model.TimeAccountingEntry;
+import de.dp_coding.zammadplugin.model.User;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for a Zammad instance, serving the endpoints of {@code ZammadApi} from a synthetic dataset.
+ * <p>
+ * Every response can be delayed, and a share of the requests can fail with a server error or be rate limited
+ * with 429, to see how the plugin behaves on a slow or overloaded instance. The ticket search understands the
+ * queries the plugin sends: the open tickets of a user, and tickets updated since a point in time.
+ */
+public final class MockZammadServer implements Closeable {
+    /**
+     * The ID of the user the API token belongs to; all tickets are assigned to this user.
+     */
+    public static final int CURRENT_USER_ID = 1;
+    /**
+     * Any token is accepted.
+     */
+    public static final String API_TOKEN = "benchmark-token";
+
+    private static final Set<String> OPEN_STATE_IDS = Set.of("4", "1", "10");
+    private static final Pattern TICKET_ARTICLES = Pattern.compile("/api/v1/ticket_articles/by_ticket/(\\d+)");
+    private static final Pattern ARTICLE = Pattern.compile("/api/v1/ticket_articles/(\\d+)");
+    private static final Pattern TICKET_TAGS = Pattern.compile("/api/v1/tickets/(\\d+)/tags");
+    private static final Pattern TIME_ACCOUNTINGS = Pattern.compile("/api/v1/tickets/(\\d+)/time_accountings");
+    private static final Pattern USER = Pattern.compile("/api/v1/users/(\\d+)");
+    private static final Pattern UPDATED_SINCE = Pattern.compile("updated_at:\\[\"([^\"]+)\" TO \\*]");
+    private static final Pattern ID = Pattern.compile("\\d+");
+
+    /**
+     * Behaviour of the server.
+     */
+    public static final class Options {
+        private long latencyMillis;
+        private double errorRate;
+        private double rateLimitRate;
+
+        /**
+         * Delays every response, e.g. to emulate the round trip to a remote instance.
+         */
+        public Options latencyMillis(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+            return this;
+        }
+
+        /**
+         * Answers this share of the requests with 500.
+         */
+        public Options errorRate(double errorRate) {
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        /**
+         * Answers this share of the requests with 429 and a Retry-After header.
+         */
+        public Options rateLimitRate(double rateLimitRate) {
+            this.rateLimitRate = rateLimitRate;
+            return this;
+        }
+    }
+
+    // Writes the field names Zammad sends
+    private final Gson gson = ZammadJson.create();
+    private final MockWebServer server = new MockWebServer();
+    private final Options options;
+    private final User currentUser;
+    private final Map<Integer, User> users = new HashMap<>();
+    private final List<Ticket> ticketsById;
+    private final List<Ticket> ticketsByUpdatedAt;
+    private final Map<Integer, List<Article>> articlesByTicket = new HashMap<>();
+    private final Map<Integer, Article> articlesById = new HashMap<>();
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger errors = new AtomicInteger();
+    private final AtomicInteger rateLimited = new AtomicInteger();
+
+    /**
+     * Creates a server for a dataset.
+     *
+     * @param tickets The tickets of the instance
+     * @param articles The articles of the tickets
+     * @param users The users of the instance; the one with {@link #CURRENT_USER_ID} is the current user
+     * @param options The behaviour of the server
+     */
+    public MockZammadServer(@NotNull List<Ticket> tickets, @NotNull List<Article> articles,
+                            @NotNull List<User> users, @NotNull Options options) {
+        this.options = options;
+        for (User user : users) {
+            this.users.put(user.getId(), user);
+        }
+        this.currentUser = this.users.get(CURRENT_USER_ID);
+        this.ticketsById = new ArrayList<>(tickets);
+        this.ticketsById.sort(Comparator.comparingInt(Ticket::getId).reversed());
+        this.ticketsByUpdatedAt = new ArrayList<>(tickets);
+        this.ticketsByUpdatedAt.sort(Comparator.comparing(Ticket::getUpdated_at));
+        for (Article article : articles) {
+            articlesByTicket.computeIfAbsent(article.getTicketId(), id -> new ArrayList<>()).add(article);
+            articlesById.put(article.getId(), article);
+        }
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return respond(request);
+            }
+        });
+    }
+
+    /**
+     * Creates a server with a synthetic dataset.
+     *
+     * @param ticketCount The number of tickets
+     * @param articlesPerTicket The average number of articles per ticket
+     * @param averageBodyChars The average size of an article body
+     * @param options The behaviour of the server
+     */
+    public static MockZammadServer withSyntheticData(int ticketCount, int articlesPerTicket, int averageBodyChars,
+                                                     @NotNull Options options) {
+        SyntheticData data = new SyntheticData(SyntheticData.DEFAULT_SEED);
+        int customerCount = Math.max(1, ticketCount / 10);
+        return new MockZammadServer(data.tickets(ticketCount, customerCount),
+            data.articles(ticketCount * articlesPerTicket, ticketCount, averageBodyChars),
+            data.users(customerCount), options);
+    }
+
+    public void start() throws IOException {
+        server.start();
+    }
+
+    /**
+     * Gets the URL to configure the plugin with.
+     */
+    @NotNull
+    public String getUrl() {
+        return server.url("/").toString();
+    }
+
+    /**
+     * Gets the number of requests received, including failed ones.
+     */
+    public int getRequestCount() {
+        return requests.get();
+    }
+
+    public int getErrorCount() {
+        return errors.get();
+    }
+
+    public int getRateLimitedCount() {
+        return rateLimited.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+
+    private MockResponse respond(RecordedRequest request) {
+        requests.incrementAndGet();
+        MockResponse response = answer(request);
+        if (options.latencyMillis > 0) {
+            response.setHeadersDelay(options.latencyMillis, TimeUnit.MILLISECONDS);
+        }
+        return response;
+    }
+
+    private MockResponse answer(RecordedRequest request) {
+        double roll = ThreadLocalRandom.current().nextDouble();
+        if (roll < options.rateLimitRate) {
+            rateLimited.incrementAndGet();
+            return new MockResponse().setResponseCode(429).setHeader("Retry-After", 1)
+                .setBody("{\"error\":\"Too many requests\"}");
+        }
+        if (roll < options.rateLimitRate + options.errorRate) {
+            errors.incrementAndGet();
+            return new MockResponse().setResponseCode(500).setBody("{\"error\":\"Internal server error\"}");
+        }
+
+        HttpUrl url = request.getRequestUrl();
+        String path = url.encodedPath();
+        Matcher matcher;
+        if (path.equals("/api/v1/users/me")) {
+            return json(currentUser);
+        }
+        if (path.equals("/api/v1/tickets/search")) {
+            return json(searchTickets(url));
+        }
+        if (path.equals("/api/v1/users/search")) {
+            return json(searchUsers(url.queryParameter("query")));
+        }
+        if ((matcher = TICKET_ARTICLES.matcher(path)).matches()) {
+            return json(articlesByTicket.getOrDefault(Integer.parseInt(matcher.group(1)), Collections.emptyList()));
+        }
+        if ((matcher = ARTICLE.matcher(path)).matches()) {
+            Article article = articlesById.get(Integer.parseInt(matcher.group(1)));
+            return article != null ? json(article) : new MockResponse().setResponseCode(404).setBody("{\"error\":\"Not Found\"}");
+        }
+        if ((matcher = TICKET_TAGS.matcher(path)).matches()) {
+            return json(List.of("benchmark", "ticket-" + matcher.group(1)));
+        }
+        if ((matcher = TIME_ACCOUNTINGS.matcher(path)).matches()) {
+            if ("POST".equals(request.getMethod())) {
+                int ticketId = Integer.parseInt(matcher.group(1));
+                String now = Instant.now().toString();
+                return json(new TimeAccountingEntry(requests.get(), ticketId, "15", now, now, null,
+                    String.valueOf(CURRENT_USER_ID)));
+            }
+            return json(Collections.emptyList());
+        }
+        if ((matcher = USER.matcher(path)).matches()) {
+            User user = users.get(Integer.parseInt(matcher.group(1)));
+            return user != null ? json(user) : new MockResponse().setResponseCode(404).setBody("{\"error\":\"Not Found\"}");
+        }
+        return new MockResponse().setResponseCode(404).setBody("{\"error\":\"No route matches\"}");
+    }
+
+    /**
+     * Answers the open tickets query sorted by ID, or the delta query sorted by update time.
+     */
+    private List<Ticket> searchTickets(HttpUrl url) {
+        String query = url.queryParameter("query");
+        int page = parseInt(url.queryParameter("page"), 1);
+        int perPage = parseInt(url.queryParameter("per_page"), 50);
+
+        List<Ticket> matches = new ArrayList<>();
+        Matcher since = query != null ? UPDATED_SINCE.matcher(query) : null;
+        if (since != null && since.find()) {
+            String from = since.group(1);
+            for (Ticket ticket : ticketsByUpdatedAt) {
+                if (ticket.getUpdated_at().compareTo(from) >= 0) {
+                    matches.add(ticket);
+                }
+            }
+        } else {
+            for (Ticket ticket : ticketsById) {
+                if (OPEN_STATE_IDS.contains(ticket.getState_id())) {
+                    matches.add(ticket);
+                }
+            }
+        }
+
+        int from = Math.min((page - 1) * perPage, matches.size());
+        int to = Math.min(from + perPage, matches.size());
+        return matches.subList(from, to);
+    }
+
+    /**
+     * Answers a query like "id:(1 OR 2 OR 3)".
+     */
+    private List<User> searchUsers(String query) {
+        List<User> result = new ArrayList<>();
+        if (query != null) {
+            Matcher id = ID.matcher(query);
+            while (id.find()) {
+                User user = users.get(Integer.parseInt(id.group()));
+                if (user != null) {
+                    result.add(user);
+                }
+            }
+        }
+        return result;
+    }
+
+    private MockResponse json(Object body) {
+        return new MockResponse()
+            .setHeader("Content-Type", "application/json; charset=utf-8")
+            .setBody(gson.toJson(body));
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        try {
+            return value != null ? Integer.parseInt(value) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package de.dp_coding.zammadplugin.benchmark;
+
+import de.dp_coding.zammadplugin.model.Article;
+import de.dp_coding.zammadplugin.model.Ticket;
+import de.dp_coding.zammadplugin.model.User;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates tickets, articles and users that look like the ones of a real Zammad instance.
+ * The data only depends on the seed, so every run of a benchmark works on the same data.
+ */
+public final class SyntheticData {
+    public static final long DEFAULT_SEED = 42;
+
+    private static final String[] STATES = {"new", "open", "pending reminder", "pending close", "closed"};
+    private static final String[] PRIORITIES = {"1 low", "2 normal", "3 high"};
+    private static final String[] GROUPS = {"Users", "Support", "Development", "Sales"};
+    private static final String[] WORDS = {
+        "login", "fails", "after", "update", "invoice", "missing", "export", "to", "PDF", "slow", "dashboard",
+        "customer", "cannot", "reset", "password", "error", "500", "when", "saving", "order", "Übersicht", "café"
+    };
+    private static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+
+    private final Random random;
+
+    public SyntheticData(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Creates expanded tickets with IDs 1 to count, updated over the course of a year.
+     *
+     * @param count The number of tickets
+     * @param customerCount The number of distinct customers
+     */
+    public List<Ticket> tickets(int count, int customerCount) {
+        List<Ticket> tickets = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            String createdAt = timestamp(random.nextInt(365 * 24 * 3600));
+            String updatedAt = timestamp(random.nextInt(365 * 24 * 3600));
+            int customerId = 1 + random.nextInt(customerCount);
+            int state = random.nextInt(STATES.length);
+            tickets.add(new Ticket(id, sentence(3 + random.nextInt(8)), String.valueOf(10000 + id),
+                String.valueOf(state + 1), PRIORITIES[random.nextInt(PRIORITIES.length)],
+                GROUPS[random.nextInt(GROUPS.length)], String.valueOf(customerId), createdAt, updatedAt,
+                STATES[state], "1", "agent@example.com", "customer" + customerId + "@example.com"));
+        }
+        return tickets;
+    }
+
+    /**
+     * Creates articles spread over tickets 1 to ticketCount.
+     *
+     * @param count The number of articles
+     * @param ticketCount The number of tickets the articles belong to
+     * @param averageBodyChars The average length of an HTML body
+     */
+    public List<Article> articles(int count, int ticketCount, int averageBodyChars) {
+        List<Article> articles = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            String createdAt = timestamp(random.nextInt(365 * 24 * 3600));
+            int bodyChars = averageBodyChars / 2 + random.nextInt(averageBodyChars + 1);
+            articles.add(new Article(id, 1 + random.nextInt(ticketCount), random.nextBoolean() ? "email" : "note",
+                htmlBody(bodyChars), sentence(4), "text/html", random.nextInt(5) == 0 ? "true" : "false",
+                createdAt, createdAt, 1 + random.nextInt(50), "Customer <customer@example.com>"));
+        }
+        return articles;
+    }
+
+    /**
+     * Creates users with IDs 1 to count.
+     */
+    public List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            String createdAt = timestamp(random.nextInt(365 * 24 * 3600));
+            users.add(new User(id, "customer" + id + "@example.com", "First" + id, "Last" + id,
+                "customer" + id + "@example.com", null, createdAt, createdAt));
+        }
+        return users;
+    }
+
+    private String htmlBody(int chars) {
+        StringBuilder body = new StringBuilder(chars + 32);
+        body.append("<div>");
+        while (body.length() < chars) {
+            body.append("<p>").append(sentence(8 + random.nextInt(12))).append("</p>\n");
+        }
+        return body.append("</div>").toString();
+    }
+
+    private String sentence(int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sentence.toString();
+    }
+
+    private static String timestamp(int secondsAfterEpoch) {
+        return EPOCH.plusSeconds(secondsAfterEpoch).toString();
+    }
+}
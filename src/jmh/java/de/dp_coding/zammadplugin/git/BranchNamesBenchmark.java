@@ -0,0 +1,59 @@
+package de.dp_coding.zammadplugin.git;
+
+import de.dp_coding.zammadplugin.benchmark.SyntheticData;
+import de.dp_coding.zammadplugin.model.Ticket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Creating branch names from tickets and parsing ticket IDs from branch names, which the branch index
+ * does for every branch of a changed repository.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BranchNamesBenchmark {
+
+    private Ticket ticket;
+    private String ticketBranch;
+    private String otherBranch;
+
+    @Setup
+    public void setUp() {
+        ticket = new SyntheticData(SyntheticData.DEFAULT_SEED).tickets(1, 1).get(0);
+        ticketBranch = "origin/feature/" + BranchNames.forTicket(ticket);
+        otherBranch = "origin/release/2024.1";
+    }
+
+    @Benchmark
+    public String forTicket() {
+        return BranchNames.forTicket(ticket);
+    }
+
+    /**
+     * The way branch names were created before the pattern was precompiled, for comparison.
+     */
+    @Benchmark
+    public String forTicketCompilingPattern() {
+        String sanitizedTitle = Pattern.compile("[^a-zA-Z0-9-]").matcher(ticket.getTitle()).replaceAll("-").toLowerCase();
+        return ticket.getId() + "-" + sanitizedTitle;
+    }
+
+    @Benchmark
+    public int parseTicketBranch() {
+        return BranchNames.parseTicketId(ticketBranch);
+    }
+
+    @Benchmark
+    public int parseOtherBranch() {
+        return BranchNames.parseTicketId(otherBranch);
+    }
+}
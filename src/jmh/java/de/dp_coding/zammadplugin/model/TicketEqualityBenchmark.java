@@ -0,0 +1,65 @@
+package de.dp_coding.zammadplugin.model;
+
+import de.dp_coding.zammadplugin.benchmark.SyntheticData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Ticket#equals(Object)} and {@link Ticket#hashCode()}, which the ticket list model calls for every row
+ * of every refresh.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TicketEqualityBenchmark {
+
+    private Ticket ticket;
+    // Equal to ticket, but a different instance with different string instances
+    private Ticket equalCopy;
+    // Only differs in the last compared field
+    private Ticket otherCustomer;
+    private Ticket otherId;
+
+    @Setup
+    public void setUp() {
+        ticket = new SyntheticData(SyntheticData.DEFAULT_SEED).tickets(1, 1).get(0);
+        equalCopy = copy(ticket, ticket.getId(), ticket.getCustomer());
+        otherCustomer = copy(ticket, ticket.getId(), "someone-else@example.com");
+        otherId = copy(ticket, ticket.getId() + 1, ticket.getCustomer());
+    }
+
+    @Benchmark
+    public int hashCodeOf() {
+        return ticket.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsEqualCopy() {
+        return ticket.equals(equalCopy);
+    }
+
+    @Benchmark
+    public boolean equalsDifferentLastField() {
+        return ticket.equals(otherCustomer);
+    }
+
+    @Benchmark
+    public boolean equalsDifferentId() {
+        return ticket.equals(otherId);
+    }
+
+    private static Ticket copy(Ticket ticket, int id, String customer) {
+        return new Ticket(id, new String(ticket.getTitle()), new String(ticket.getNumber()),
+            new String(ticket.getState_id()), new String(ticket.getPriority()), new String(ticket.getGroup()),
+            new String(ticket.getCustomer_id()), new String(ticket.getCreated_at()),
+            new String(ticket.getUpdated_at()), new String(ticket.getState()), new String(ticket.getOwner_id()),
+            new String(ticket.getOwner()), new String(customer));
+    }
+}
@@ -0,0 +1,58 @@
+package de.dp_coding.zammadplugin.ui;
+
+import de.dp_coding.zammadplugin.benchmark.SyntheticData;
+import de.dp_coding.zammadplugin.model.Article;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converting the article bodies of a 300-article ticket to text, as the conversation view does in the background.
+ * Converting the first page, i.e. the newest messages, has to fit well within a frame (16 ms); the whole ticket
+ * shows what the view saves by converting only the rows in view.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ArticleTextBenchmark {
+    private static final int ARTICLE_COUNT = 300;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"2000", "20000"})
+    public int averageBodyChars;
+
+    private List<Article> articles;
+
+    @Setup
+    public void setUp() {
+        articles = new SyntheticData(SyntheticData.DEFAULT_SEED).articles(ARTICLE_COUNT, 1, averageBodyChars);
+    }
+
+    @Benchmark
+    public int convertFirstPage() {
+        return convert(PAGE_SIZE);
+    }
+
+    @Benchmark
+    public int convertWholeTicket() {
+        return convert(ARTICLE_COUNT);
+    }
+
+    private int convert(int count) {
+        int chars = 0;
+        for (int i = 0; i < count; i++) {
+            Article article = articles.get(i);
+            chars += ArticleText.convert(article.getBody(), article.getContentType(), ArticleCellRenderer.PREVIEW_LINES, 300)
+                .getText().length();
+        }
+        return chars;
+    }
+}
@@ -0,0 +1,247 @@
+package de.dp_coding.zammadplugin.ui;
+
+import de.dp_coding.zammadplugin.api.SettingsStore;
+import de.dp_coding.zammadplugin.api.ZammadService;
+import de.dp_coding.zammadplugin.benchmark.MockZammadServer;
+import de.dp_coding.zammadplugin.model.ArticleHeader;
+import de.dp_coding.zammadplugin.model.Ticket;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end refresh of the ticket list against a {@link MockZammadServer}: {@link ZammadService} syncs the
+ * tickets over HTTP into its store, and the list model of the view is updated from the store, the way the tool
+ * window loads. Every refresh is measured on its own, next to the number of requests it took. The heap it takes
+ * is reported by the {@code gc} profiler that the build enables, as the bytes allocated per refresh.
+ * <p>
+ * With an error or rate limit rate, some refreshes fail; they are counted instead of failing the benchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, batchSize = 1)
+@Measurement(iterations = 10, batchSize = 1)
+public class RefreshBenchmark {
+    // The tickets a user typically opens after a refresh
+    private static final int OPENED_TICKETS = 20;
+
+    @Param({"10000"})
+    public int ticketCount;
+
+    // 10 articles per ticket, i.e. 100k articles for 10k tickets
+    @Param({"10"})
+    public int articlesPerTicket;
+
+    @Param({"500"})
+    public int averageBodyChars;
+
+    @Param({"0", "50"})
+    public long latencyMillis;
+
+    @Param({"0"})
+    public double errorRate;
+
+    @Param({"0"})
+    public double rateLimitRate;
+
+    @Param({"50", "500"})
+    public int pageSize;
+
+    private Path systemDirectory;
+    private MockZammadServer server;
+
+    @Setup(Level.Trial)
+    public void startServer() throws IOException {
+        // Keeps the HTTP cache and the local state of the service out of the real IDE directories
+        systemDirectory = Files.createTempDirectory("zammad-benchmark");
+        System.setProperty("idea.system.path", systemDirectory.toString());
+
+        server = MockZammadServer.withSyntheticData(ticketCount, articlesPerTicket, averageBodyChars,
+            new MockZammadServer.Options()
+                .latencyMillis(latencyMillis)
+                .errorRate(errorRate)
+                .rateLimitRate(rateLimitRate));
+        server.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() throws IOException {
+        server.close();
+        deleteRecursively(systemDirectory);
+    }
+
+    /**
+     * A service without any local state or HTTP cache, as after installing the plugin.
+     */
+    @State(Scope.Benchmark)
+    public static class ColdService {
+        ZammadService service;
+        TicketListModel model;
+
+        @Setup(Level.Iteration)
+        public void setUp(RefreshBenchmark benchmark) throws IOException {
+            service = benchmark.createService();
+            model = new TicketListModel();
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            service.dispose();
+        }
+    }
+
+    /**
+     * A service that already synced the tickets, as after the first refresh of a session.
+     */
+    @State(Scope.Benchmark)
+    public static class SyncedService {
+        ZammadService service;
+        TicketListModel model;
+
+        @Setup(Level.Iteration)
+        public void setUp(RefreshBenchmark benchmark) throws IOException {
+            service = benchmark.createService();
+            model = new TicketListModel();
+            try {
+                service.syncTickets().join();
+                model.setTickets(service.getTicketStore().getTickets());
+            } catch (CompletionException e) {
+                // Measured anyway; the refresh then starts with a full sync
+            }
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            service.dispose();
+        }
+    }
+
+    /**
+     * Requests and failures of one refresh, reported next to its time.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Requests {
+        public long requests;
+        public long rateLimited;
+        public long failedRefreshes;
+        private int requestsBefore;
+        private int rateLimitedBefore;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            requests = 0;
+            rateLimited = 0;
+            failedRefreshes = 0;
+        }
+
+        // Not in the setup, which may run before the setup of the other states and their requests
+        void start(RefreshBenchmark benchmark) {
+            requestsBefore = benchmark.server.getRequestCount();
+            rateLimitedBefore = benchmark.server.getRateLimitedCount();
+        }
+
+        void record(RefreshBenchmark benchmark) {
+            requests = benchmark.server.getRequestCount() - requestsBefore;
+            rateLimited = benchmark.server.getRateLimitedCount() - rateLimitedBefore;
+        }
+    }
+
+    /**
+     * First refresh of a session: full sync, then the whole list is filled.
+     */
+    @Benchmark
+    public int coldRefresh(ColdService state, Requests requests) {
+        return refresh(state.service, state.model, requests);
+    }
+
+    /**
+     * Refresh of a list that is already shown: delta sync, then only changed rows are updated.
+     */
+    @Benchmark
+    public int warmRefresh(SyncedService state, Requests requests) {
+        return refresh(state.service, state.model, requests);
+    }
+
+    /**
+     * Loading the conversations of the most recent tickets after a refresh, concurrently as the view does.
+     */
+    @Benchmark
+    public int openTickets(SyncedService state, Requests requests) {
+        requests.start(this);
+        List<CompletableFuture<List<ArticleHeader>>> loads = new ArrayList<>();
+        for (Ticket ticket : state.service.getTicketStore().getTickets()) {
+            if (loads.size() == OPENED_TICKETS) {
+                break;
+            }
+            loads.add(state.service.getTicketArticlesAsync(ticket.getId()));
+        }
+        int articles = 0;
+        for (CompletableFuture<List<ArticleHeader>> load : loads) {
+            try {
+                articles += load.join().size();
+            } catch (CompletionException e) {
+                requests.failedRefreshes++;
+            }
+        }
+        requests.record(this);
+        return articles;
+    }
+
+    private int refresh(ZammadService service, TicketListModel model, Requests requests) {
+        requests.start(this);
+        try {
+            service.syncTickets().join();
+            model.setTickets(service.getTicketStore().getTickets());
+        } catch (CompletionException e) {
+            requests.failedRefreshes++;
+        }
+        requests.record(this);
+        return model.getSize();
+    }
+
+    private ZammadService createService() throws IOException {
+        // Start without HTTP cache and local state of earlier iterations
+        deleteRecursively(systemDirectory.resolve("zammad-plugin"));
+        ZammadService service = new ZammadService(SettingsStore.inMemory());
+        service.setTicketPageSize(pageSize);
+        service.setPreconnectEnabled(false);
+        service.initialize(server.getUrl(), MockZammadServer.API_TOKEN);
+        return service;
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package de.dp_coding.zammadplugin.ui;
+
+import com.intellij.ui.components.JBList;
+import de.dp_coding.zammadplugin.benchmark.SyntheticData;
+import de.dp_coding.zammadplugin.git.TicketBranch;
+import de.dp_coding.zammadplugin.model.Ticket;
+import de.dp_coding.zammadplugin.timetracking.TimeReport;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.awt.*;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering a row of the ticket list, which Swing does for every visible row on every repaint.
+ * The decorations return fixed data, so only the renderer itself is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TicketCellRendererBenchmark {
+    private static final int TICKET_COUNT = 1000;
+
+    @Param({"false", "true"})
+    public boolean selected;
+
+    private JBList<Ticket> list;
+    private TicketCellRenderer renderer;
+    private List<Ticket> tickets;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        tickets = new SyntheticData(SyntheticData.DEFAULT_SEED).tickets(TICKET_COUNT, 100);
+        list = new JBList<>();
+        Ticket recording = tickets.get(0);
+        renderer = new TicketCellRenderer(new TicketCellRenderer.TicketDecorations() {
+            @NotNull
+            @Override
+            public String getCustomerLabel(@NotNull Ticket ticket) {
+                return ticket.getCustomer();
+            }
+
+            @NotNull
+            @Override
+            public List<TicketBranch> getBranches(int ticketId) {
+                return Collections.emptyList();
+            }
+
+            @Nullable
+            @Override
+            public TimeReport getTimeReport() {
+                return null;
+            }
+
+            @Override
+            public boolean isRecording(@NotNull Ticket ticket) {
+                return ticket.equals(recording);
+            }
+        });
+    }
+
+    @Benchmark
+    public Component renderRow() {
+        next = next + 1 < TICKET_COUNT ? next + 1 : 0;
+        return renderer.getListCellRendererComponent(list, tickets.get(next), next, selected, selected);
+    }
+}
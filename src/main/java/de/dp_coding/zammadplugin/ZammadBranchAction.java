@@ -5,19 +5,19 @@ import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
 import de.dp_coding.zammadplugin.api.ZammadService;
+import de.dp_coding.zammadplugin.git.BranchNames;
+import de.dp_coding.zammadplugin.git.CreateTicketBranchTask;
+import de.dp_coding.zammadplugin.git.TicketBranchIndex;
 import de.dp_coding.zammadplugin.model.Ticket;
+import de.dp_coding.zammadplugin.ui.SelectRepositoriesDialog;
 import de.dp_coding.zammadplugin.ui.TicketSelectionView;
 import de.dp_coding.zammadplugin.ui.ZammadSettingsDialog;
 import git4idea.GitUtil;
-import git4idea.branch.GitBrancher;
 import git4idea.repo.GitRepository;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
-import java.util.Collections;
 import java.util.List;
-import java.util.regex.Pattern;
 
 /**
  * Action for creating a new Git branch based on a selected Zammad ticket.
@@ -32,8 +32,7 @@ public class ZammadBranchAction extends AnAction {
         }
 
         // Check if the project has Git enabled
-        GitRepository gitRepository = getGitRepository(project);
-        if (gitRepository == null) {
+        if (GitUtil.getRepositoryManager(project).getRepositories().isEmpty()) {
             Messages.showErrorDialog(
                 project,
                 "This project is not under Git version control.",
@@ -67,39 +66,27 @@ public class ZammadBranchAction extends AnAction {
 
         // Show ticket selection tool window
         de.dp_coding.zammadplugin.ui.ZammadToolWindowService.getInstance()
-            .showToolWindow(project, selectedTicket -> 
-                createBranchForTicket(project, gitRepository, selectedTicket));
+            .showToolWindow(project, selectedTicket ->
+                createBranchForTicket(project, selectedTicket));
     }
 
-    @Nullable
-    private GitRepository getGitRepository(Project project) {
+    /**
+     * Creates the branch for a ticket, in all or a chosen subset of the project's repositories.
+     */
+    private void createBranchForTicket(Project project, Ticket ticket) {
         List<GitRepository> repositories = GitUtil.getRepositoryManager(project).getRepositories();
-        return repositories.isEmpty() ? null : repositories.get(0);
-    }
-
-    private void createBranchForTicket(Project project, GitRepository repository, Ticket ticket) {
-        // Create a sanitized branch name from the ticket
-        String sanitizedTitle = Pattern.compile("[^a-zA-Z0-9-]").matcher(ticket.getTitle()).replaceAll("-").toLowerCase();
-        String branchName = ticket.getId() + "-" + sanitizedTitle;
-
-        // Check if we have a current branch
-        if (repository.getCurrentBranch() == null) {
-            Messages.showErrorDialog(
-                project,
-                "Could not determine the current branch.",
-                "Cannot Create Branch"
-            );
+        if (repositories.size() > 1) {
+            SelectRepositoriesDialog dialog = new SelectRepositoriesDialog(project, BranchNames.forTicket(ticket),
+                repositories, TicketBranchIndex.getInstance(project).getBranches(ticket.getId()));
+            if (!dialog.showAndGet()) {
+                return;
+            }
+            repositories = dialog.getSelectedRepositories();
+        }
+        if (repositories.isEmpty()) {
             return;
         }
 
-        // Create the branch
-        GitBrancher brancher = GitBrancher.getInstance(project);
-        brancher.checkoutNewBranch(branchName, Collections.singletonList(repository));
-
-        Messages.showInfoMessage(
-            project,
-            "Created and checked out branch '" + branchName + "' for ticket #" + ticket.getId() + ": " + ticket.getTitle(),
-            "Branch Created"
-        );
+        new CreateTicketBranchTask(project, ticket, repositories).queue();
     }
 }
@@ -0,0 +1,303 @@
+package de.dp_coding.zammadplugin.api;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.io.FileUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The bodies of ticket articles, kept apart from the article headers so that browsing many tickets does not keep
+ * their HTML on the heap.
+ * <p>
+ * Bodies are deflated and kept in memory, least recently used first out, up to a budget of compressed bytes. Bodies
+ * that no longer fit are spilled to one file each and read back into memory when they are needed again. When the
+ * files exceed their own budget, the oldest are deleted, and these bodies have to be fetched again.
+ * <p>
+ * Every body is stored with the {@code updated_at} of its article, and a lookup with another timestamp is a miss,
+ * so an edited article never shows its old body. The files only live as long as the session: left-over files are
+ * deleted before the first body is spilled, and all files are deleted by {@link #clear()}.
+ */
+final class ArticleBodyStore {
+    private static final Logger LOG = Logger.getInstance(ArticleBodyStore.class);
+
+    // Deflating short bodies costs more than it saves
+    private static final int MIN_DEFLATE_BYTES = 256;
+
+    private final File directory;
+    private final long maxMemoryBytes;
+    private final long maxDiskBytes;
+    // Access order, least recently used first
+    private final LinkedHashMap<Integer, Body> memory = new LinkedHashMap<>(16, 0.75f, true);
+    // Insertion order, least recently spilled first; the bytes are in the files
+    private final LinkedHashMap<Integer, Body> disk = new LinkedHashMap<>();
+    private long memoryBytes;
+    private long diskBytes;
+    private boolean directoryCleaned;
+
+    private long memoryHits;
+    private long memoryMisses;
+    private long diskHits;
+    private long diskMisses;
+    private long spills;
+    private long deletions;
+
+    /**
+     * @param directory The directory for spilled bodies; everything in it is deleted
+     * @param maxMemoryBytes The maximum compressed size of the bodies in memory
+     * @param maxDiskBytes The maximum compressed size of the spilled bodies
+     */
+    ArticleBodyStore(@NotNull File directory, long maxMemoryBytes, long maxDiskBytes) {
+        this.directory = directory;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.maxDiskBytes = maxDiskBytes;
+    }
+
+    /**
+     * Stores the body of an article, replacing any earlier version.
+     */
+    synchronized void put(int articleId, @Nullable String updatedAt, @NotNull String body) {
+        remove(articleId);
+        Body entry = Body.encode(updatedAt, body);
+        memory.put(articleId, entry);
+        memoryBytes += entry.size;
+        spillOverflow();
+    }
+
+    /**
+     * Gets the body of an article, reading it back from disk if it was spilled.
+     *
+     * @param articleId The ID of the article
+     * @param updatedAt The {@code updated_at} of the article the body must belong to
+     * @return The body, or null if it is not stored or belongs to another version of the article
+     */
+    @Nullable
+    synchronized String get(int articleId, @Nullable String updatedAt) {
+        Body entry = memory.get(articleId);
+        if (entry != null) {
+            if (Objects.equals(entry.updatedAt, updatedAt)) {
+                memoryHits++;
+                return entry.decode();
+            }
+            memoryMisses++;
+            remove(articleId);
+            return null;
+        }
+        memoryMisses++;
+
+        Body spilled = disk.remove(articleId);
+        if (spilled == null) {
+            diskMisses++;
+            return null;
+        }
+        diskBytes -= spilled.size;
+        File file = fileOf(articleId);
+        if (!Objects.equals(spilled.updatedAt, updatedAt)) {
+            diskMisses++;
+            deleteFile(file);
+            return null;
+        }
+        Body restored;
+        try {
+            restored = spilled.withData(Files.readAllBytes(file.toPath()));
+        } catch (IOException e) {
+            LOG.info("Cannot read spilled article body " + file, e);
+            diskMisses++;
+            return null;
+        } finally {
+            deleteFile(file);
+        }
+        diskHits++;
+        memory.put(articleId, restored);
+        memoryBytes += restored.size;
+        spillOverflow();
+        return restored.decode();
+    }
+
+    /**
+     * Forgets all bodies and deletes their files.
+     */
+    synchronized void clear() {
+        memory.clear();
+        disk.clear();
+        memoryBytes = 0;
+        diskBytes = 0;
+        if (directory.exists() && !FileUtil.delete(directory)) {
+            LOG.warn("Failed to delete spilled article bodies in " + directory);
+        }
+        directoryCleaned = true;
+    }
+
+    /**
+     * Gets the statistics of the bodies in memory and of the spilled bodies, weighed in compressed bytes.
+     * Evictions are the bodies spilled to disk and the spilled bodies deleted, respectively.
+     */
+    @NotNull
+    synchronized List<ExpiringCache.Stats> stats() {
+        return List.of(
+            new ExpiringCache.Stats("article bodies", memory.size(), memoryBytes, maxMemoryBytes,
+                memoryHits, memoryMisses, spills, 0),
+            new ExpiringCache.Stats("article bodies on disk", disk.size(), diskBytes, maxDiskBytes,
+                diskHits, diskMisses, deletions, 0));
+    }
+
+    private void remove(int articleId) {
+        Body entry = memory.remove(articleId);
+        if (entry != null) {
+            memoryBytes -= entry.size;
+        }
+        Body spilled = disk.remove(articleId);
+        if (spilled != null) {
+            diskBytes -= spilled.size;
+            deleteFile(fileOf(articleId));
+        }
+    }
+
+    private void spillOverflow() {
+        Iterator<Map.Entry<Integer, Body>> iterator = memory.entrySet().iterator();
+        while (memoryBytes > maxMemoryBytes && iterator.hasNext()) {
+            Map.Entry<Integer, Body> eldest = iterator.next();
+            iterator.remove();
+            Body entry = eldest.getValue();
+            memoryBytes -= entry.size;
+            spill(eldest.getKey(), entry);
+        }
+    }
+
+    private void spill(int articleId, Body entry) {
+        if (entry.size > maxDiskBytes) {
+            deletions++;
+            return;
+        }
+        File file = fileOf(articleId);
+        try {
+            if (!directoryCleaned) {
+                // Left over from an earlier session
+                FileUtil.delete(directory);
+                directoryCleaned = true;
+            }
+            Files.createDirectories(directory.toPath());
+            Files.write(file.toPath(), entry.data);
+        } catch (IOException e) {
+            LOG.info("Cannot spill article body to " + file, e);
+            deletions++;
+            return;
+        }
+        spills++;
+        disk.put(articleId, entry.withoutData());
+        diskBytes += entry.size;
+
+        Iterator<Map.Entry<Integer, Body>> iterator = disk.entrySet().iterator();
+        while (diskBytes > maxDiskBytes && iterator.hasNext()) {
+            Map.Entry<Integer, Body> eldest = iterator.next();
+            iterator.remove();
+            diskBytes -= eldest.getValue().size;
+            deletions++;
+            deleteFile(fileOf(eldest.getKey()));
+        }
+    }
+
+    private File fileOf(int articleId) {
+        return new File(directory, articleId + ".bin");
+    }
+
+    private static void deleteFile(File file) {
+        if (file.exists() && !file.delete()) {
+            LOG.info("Failed to delete spilled article body " + file);
+        }
+    }
+
+    /**
+     * One body as UTF-8, deflated unless it is short. Spilled bodies keep everything but the bytes.
+     */
+    private static final class Body {
+        @Nullable
+        private final String updatedAt;
+        private final boolean deflated;
+        private final int utf8Length;
+        private final int size;
+        @Nullable
+        private final byte[] data;
+
+        private Body(@Nullable String updatedAt, boolean deflated, int utf8Length, int size, @Nullable byte[] data) {
+            this.updatedAt = updatedAt;
+            this.deflated = deflated;
+            this.utf8Length = utf8Length;
+            this.size = size;
+            this.data = data;
+        }
+
+        static Body encode(@Nullable String updatedAt, String body) {
+            byte[] utf8 = body.getBytes(StandardCharsets.UTF_8);
+            if (utf8.length < MIN_DEFLATE_BYTES) {
+                return new Body(updatedAt, false, utf8.length, utf8.length, utf8);
+            }
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(utf8);
+                deflater.finish();
+                ByteArrayOutputStream out = new ByteArrayOutputStream(utf8.length / 4 + 64);
+                byte[] buffer = new byte[8192];
+                while (!deflater.finished()) {
+                    out.write(buffer, 0, deflater.deflate(buffer));
+                }
+                byte[] deflated = out.toByteArray();
+                if (deflated.length >= utf8.length) {
+                    return new Body(updatedAt, false, utf8.length, utf8.length, utf8);
+                }
+                return new Body(updatedAt, true, utf8.length, deflated.length, deflated);
+            } finally {
+                deflater.end();
+            }
+        }
+
+        String decode() {
+            Objects.requireNonNull(data, "Spilled body");
+            if (!deflated) {
+                return new String(data, StandardCharsets.UTF_8);
+            }
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(data);
+                byte[] utf8 = new byte[utf8Length];
+                int length = 0;
+                while (length < utf8Length && !inflater.finished()) {
+                    int inflated = inflater.inflate(utf8, length, utf8Length - length);
+                    if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    length += inflated;
+                }
+                return new String(utf8, 0, length, StandardCharsets.UTF_8);
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Corrupt article body", e);
+            } finally {
+                inflater.end();
+            }
+        }
+
+        Body withoutData() {
+            return new Body(updatedAt, deflated, utf8Length, size, null);
+        }
+
+        Body withData(byte[] bytes) throws IOException {
+            if (bytes.length != size) {
+                throw new IOException("Truncated article body: " + bytes.length + " of " + size + " bytes");
+            }
+            return new Body(updatedAt, deflated, utf8Length, size, bytes);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package de.dp_coding.zammadplugin.api;
+
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Application interceptor that detects HTTP calls blocking the event dispatch thread or a read action, which freeze
+ * the IDE for as long as Zammad takes to answer. Asynchronous calls run on OkHttp's own threads and are never
+ * affected; only synchronous calls made from the wrong thread are.
+ * <p>
+ * In tests, in internal mode and with the system property {@value #FAIL_PROPERTY} set, such a call fails with an
+ * {@link IllegalStateException} before it is sent, so the mistake shows up right away. Otherwise the call is made,
+ * and its call site and duration are kept for the Diagnostics tab and logged once per call site.
+ */
+public final class BlockingCallGuard implements Interceptor {
+    private static final Logger LOG = Logger.getInstance(BlockingCallGuard.class);
+
+    /**
+     * System property that makes blocking calls fail, set when running the plugin from the sources.
+     */
+    public static final String FAIL_PROPERTY = "zammad.failOnBlockingCalls";
+    public static final int DEFAULT_CAPACITY = 100;
+
+    // Frames of these packages are not the call site, they are on the way to the network
+    private static final List<String> INFRASTRUCTURE_PACKAGES = List.of(
+        "okhttp3.", "okio.", "retrofit2.", "java.", "jdk.", "kotlin.", "com.sun.",
+        BlockingCallGuard.class.getPackageName() + ".");
+
+    private final int capacity;
+    // Most recent first
+    private final ArrayDeque<BlockingCall> recentCalls = new ArrayDeque<>();
+    private final Set<String> loggedCallSites = ConcurrentHashMap.newKeySet();
+
+    public BlockingCallGuard() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity The number of blocking calls to keep
+     */
+    public BlockingCallGuard(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        String blockedContext = getBlockedContext();
+        if (blockedContext == null) {
+            return chain.proceed(chain.request());
+        }
+
+        Request request = chain.request();
+        String endpoint = HttpMetrics.endpointName(request);
+        StackTraceElement[] stack = new Throwable().getStackTrace();
+        if (isFailFast()) {
+            throw new IllegalStateException("Blocking HTTP call " + endpoint + " on the " + blockedContext + " at "
+                + findCallSite(stack) + "; use the asynchronous variant of the ZammadService method");
+        }
+
+        Instant startedAt = Instant.now();
+        long startNanos = System.nanoTime();
+        try {
+            return chain.proceed(request);
+        } finally {
+            record(new BlockingCall(endpoint, blockedContext, findCallSite(stack), startedAt,
+                (System.nanoTime() - startNanos) / 1e6), stack);
+        }
+    }
+
+    /**
+     * Gets the most recent blocking calls, newest first.
+     */
+    @NotNull
+    public synchronized List<BlockingCall> getRecentCalls() {
+        return new ArrayList<>(recentCalls);
+    }
+
+    /**
+     * Forgets the recent blocking calls.
+     */
+    public synchronized void clear() {
+        recentCalls.clear();
+    }
+
+    private void record(BlockingCall call, StackTraceElement[] stack) {
+        synchronized (this) {
+            recentCalls.addFirst(call);
+            while (recentCalls.size() > capacity) {
+                recentCalls.removeLast();
+            }
+        }
+        if (loggedCallSites.add(call.getCallSite())) {
+            Throwable trace = new Throwable("Call site");
+            trace.setStackTrace(stack);
+            LOG.warn("Blocking HTTP call on the " + call.getContext() + ": endpoint=" + call.getEndpoint()
+                + " call_site=" + call.getCallSite()
+                + " duration_ms=" + String.format("%.1f", call.getDurationMillis()), trace);
+        }
+    }
+
+    /**
+     * Gets the context the current thread must not block, or null if it may.
+     */
+    @Nullable
+    private static String getBlockedContext() {
+        Application application = ApplicationManager.getApplication();
+        if (application == null) {
+            // Running without an IDE, e.g. in a benchmark
+            return null;
+        }
+        if (application.isDispatchThread()) {
+            return "EDT";
+        }
+        if (application.isReadAccessAllowed()) {
+            return "read action";
+        }
+        return null;
+    }
+
+    private static boolean isFailFast() {
+        Application application = ApplicationManager.getApplication();
+        return application.isUnitTestMode() || application.isInternal() || Boolean.getBoolean(FAIL_PROPERTY);
+    }
+
+    /**
+     * Finds the first frame outside of the HTTP stack and this plugin's API package, i.e. the code that should
+     * not have made the call, followed by the outermost frame of the API package, i.e. the service method it called.
+     */
+    @NotNull
+    private static String findCallSite(StackTraceElement[] stack) {
+        String apiPackage = BlockingCallGuard.class.getPackageName() + ".";
+        StackTraceElement serviceMethod = null;
+        for (StackTraceElement frame : stack) {
+            String className = frame.getClassName();
+            if (INFRASTRUCTURE_PACKAGES.stream().noneMatch(className::startsWith)) {
+                return serviceMethod != null ? format(frame) + " via " + format(serviceMethod) : format(frame);
+            }
+            if (className.startsWith(apiPackage) && !className.equals(BlockingCallGuard.class.getName())) {
+                serviceMethod = frame;
+            }
+        }
+        return serviceMethod != null ? format(serviceMethod) : "unknown";
+    }
+
+    private static String format(StackTraceElement frame) {
+        String className = frame.getClassName();
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        return simpleName + "." + frame.getMethodName() + ":" + frame.getLineNumber();
+    }
+
+    /**
+     * An HTTP call made from a thread that must not block.
+     */
+    public static final class BlockingCall {
+        private final String endpoint;
+        private final String context;
+        private final String callSite;
+        private final Instant startedAt;
+        private final double durationMillis;
+
+        private BlockingCall(String endpoint, String context, String callSite, Instant startedAt, double durationMillis) {
+            this.endpoint = endpoint;
+            this.context = context;
+            this.callSite = callSite;
+            this.startedAt = startedAt;
+            this.durationMillis = durationMillis;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        /**
+         * Gets what was blocked: "EDT" or "read action".
+         */
+        public String getContext() {
+            return context;
+        }
+
+        /**
+         * Gets the method that made the call and the service method it went through, e.g.
+         * {@code TicketSelectionView.loadTickets:120 via ZammadService.getTicketsForCurrentUser:250}.
+         */
+        public String getCallSite() {
+            return callSite;
+        }
+
+        public Instant getStartedAt() {
+            return startedAt;
+        }
+
+        /**
+         * Gets the time until the response headers arrived; reading the body blocks a little longer.
+         */
+        public double getDurationMillis() {
+            return durationMillis;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package de.dp_coding.zammadplugin.api;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Timing breakdown of one HTTP call to Zammad, recorded by {@link CallTracer}.
+ * <p>
+ * Phases that happen more than once in a call, e.g. when a stale cached response is checked before going to the
+ * network, are summed. Phases that did not happen are 0; a reused connection has no DNS, connect or TLS time.
+ * The download overlaps with the deserialization, since Gson parses while the body is read.
+ */
+public final class CallTrace {
+    /**
+     * How the HTTP cache took part in a call.
+     */
+    public enum CacheOutcome {
+        /** The request is not cacheable, or the call failed before the cache was consulted. */
+        NONE,
+        /** Answered from the cache without going to the server. */
+        HIT,
+        /** The cached response was revalidated with the server and came back unchanged. */
+        CONDITIONAL_HIT,
+        /** Not in the cache, or changed on the server. */
+        MISS
+    }
+
+    private final String endpoint;
+    private final String method;
+    private final String path;
+    private final Instant startedAt;
+    private final int statusCode;
+    @Nullable
+    private final String failure;
+    private final CacheOutcome cacheOutcome;
+    private final boolean connectionReused;
+    private final long bytesSent;
+    private final long bytesReceived;
+    private final long dnsNanos;
+    private final long connectNanos;
+    private final long tlsNanos;
+    private final long requestNanos;
+    private final long serverWaitNanos;
+    private final long downloadNanos;
+    private final long deserializationNanos;
+    private final long totalNanos;
+
+    CallTrace(String endpoint, String method, String path, Instant startedAt, int statusCode,
+              @Nullable String failure, CacheOutcome cacheOutcome, boolean connectionReused,
+              long bytesSent, long bytesReceived, long dnsNanos, long connectNanos, long tlsNanos,
+              long requestNanos, long serverWaitNanos, long downloadNanos, long deserializationNanos,
+              long totalNanos) {
+        this.endpoint = endpoint;
+        this.method = method;
+        this.path = path;
+        this.startedAt = startedAt;
+        this.statusCode = statusCode;
+        this.failure = failure;
+        this.cacheOutcome = cacheOutcome;
+        this.connectionReused = connectionReused;
+        this.bytesSent = bytesSent;
+        this.bytesReceived = bytesReceived;
+        this.dnsNanos = dnsNanos;
+        this.connectNanos = connectNanos;
+        this.tlsNanos = tlsNanos;
+        this.requestNanos = requestNanos;
+        this.serverWaitNanos = serverWaitNanos;
+        this.downloadNanos = downloadNanos;
+        this.deserializationNanos = deserializationNanos;
+        this.totalNanos = totalNanos;
+    }
+
+    /**
+     * Gets the name of the endpoint, see {@link HttpMetrics}.
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * Gets the HTTP status of the response, or 0 if there was none.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Gets the message of the exception the call failed with, or null if it completed.
+     */
+    @Nullable
+    public String getFailure() {
+        return failure;
+    }
+
+    /**
+     * Checks whether the call failed with an exception or an HTTP status of 400 or above.
+     */
+    public boolean isFailed() {
+        return failure != null || statusCode >= 400;
+    }
+
+    public CacheOutcome getCacheOutcome() {
+        return cacheOutcome;
+    }
+
+    public boolean isConnectionReused() {
+        return connectionReused;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    /**
+     * Gets the bytes of the response body read from the network; responses from the cache are not counted.
+     */
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    public double getDnsMillis() {
+        return dnsNanos / 1e6;
+    }
+
+    /**
+     * Gets the time to open the TCP connection, without the TLS handshake.
+     */
+    public double getConnectMillis() {
+        return connectNanos / 1e6;
+    }
+
+    public double getTlsMillis() {
+        return tlsNanos / 1e6;
+    }
+
+    /**
+     * Gets the time to send the request headers and body.
+     */
+    public double getRequestMillis() {
+        return requestNanos / 1e6;
+    }
+
+    /**
+     * Gets the time between sending the request and receiving the first byte of the response headers.
+     */
+    public double getServerWaitMillis() {
+        return serverWaitNanos / 1e6;
+    }
+
+    /**
+     * Gets the time between the start and the end of reading the response body.
+     */
+    public double getDownloadMillis() {
+        return downloadNanos / 1e6;
+    }
+
+    /**
+     * Gets the time spent in the Retrofit converter, from the first byte it reads until the object is built.
+     */
+    public double getDeserializationMillis() {
+        return deserializationNanos / 1e6;
+    }
+
+    /**
+     * Gets the time from starting the call until the response is closed and, if it was converted, deserialized.
+     */
+    public double getTotalMillis() {
+        return totalNanos / 1e6;
+    }
+
+    long getServerWaitNanos() {
+        return serverWaitNanos;
+    }
+
+    long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Formats the trace as one line of key=value pairs, e.g. for the log.
+     */
+    @NotNull
+    public String toLogLine() {
+        StringBuilder line = new StringBuilder()
+            .append("endpoint=").append(endpoint)
+            .append(" method=").append(method)
+            .append(" path=").append(path)
+            .append(" status=").append(statusCode)
+            .append(" total_ms=").append(format(totalNanos))
+            .append(" dns_ms=").append(format(dnsNanos))
+            .append(" connect_ms=").append(format(connectNanos))
+            .append(" tls_ms=").append(format(tlsNanos))
+            .append(" request_ms=").append(format(requestNanos))
+            .append(" server_wait_ms=").append(format(serverWaitNanos))
+            .append(" download_ms=").append(format(downloadNanos))
+            .append(" deserialize_ms=").append(format(deserializationNanos))
+            .append(" bytes_sent=").append(bytesSent)
+            .append(" bytes_received=").append(bytesReceived)
+            .append(" cache=").append(cacheOutcome.name().toLowerCase(Locale.ROOT))
+            .append(" connection_reused=").append(connectionReused);
+        if (failure != null) {
+            line.append(" failure=\"").append(failure.replace("\"", "'")).append('"');
+        }
+        return line.toString();
+    }
+
+    private static String format(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1e6);
+    }
+
+    @Override
+    public String toString() {
+        return "CallTrace{" + toLogLine() + '}';
+    }
+}
@@ -0,0 +1,384 @@
+package de.dp_coding.zammadplugin.api;
+
+import com.intellij.openapi.diagnostic.Logger;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records a {@link CallTrace} for every HTTP call: an OkHttp {@link EventListener} times the connection phases,
+ * and a wrapper around the Retrofit converter times the deserialization. Completed traces are added to the
+ * {@link HttpMetrics}, the most recent ones are kept for the Diagnostics tab, and slow calls are logged as one line.
+ */
+public final class CallTracer {
+    private static final Logger LOG = Logger.getInstance(CallTracer.class);
+
+    public static final int DEFAULT_CAPACITY = 200;
+    private static final long SLOW_CALL_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    /**
+     * The call whose response is being handled on this thread. OkHttp reads the response and Retrofit converts it on
+     * the same thread, so the converter can find the call it belongs to here.
+     */
+    private static final ThreadLocal<TraceListener> RESPONSE_IN_PROGRESS = new ThreadLocal<>();
+
+    private final HttpMetrics metrics;
+    private final int capacity;
+    // Most recent first
+    private final ArrayDeque<CallTrace> recentCalls = new ArrayDeque<>();
+
+    public CallTracer(@NotNull HttpMetrics metrics) {
+        this(metrics, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param metrics Where completed calls are aggregated
+     * @param capacity The number of recent calls to keep
+     */
+    public CallTracer(@NotNull HttpMetrics metrics, int capacity) {
+        this.metrics = metrics;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Gets the factory for the event listener to install in the OkHttp client.
+     */
+    @NotNull
+    public EventListener.Factory listenerFactory() {
+        return call -> new TraceListener(call.request());
+    }
+
+    /**
+     * Wraps a converter factory, so that the time spent converting response bodies is added to the traces.
+     *
+     * @param delegate The factory doing the actual conversion
+     * @return A factory to register with Retrofit instead of the delegate
+     */
+    @NotNull
+    public Converter.Factory converterFactory(@NotNull Converter.Factory delegate) {
+        return new TimingConverterFactory(delegate);
+    }
+
+    /**
+     * Gets the most recent calls, newest first.
+     */
+    @NotNull
+    public synchronized List<CallTrace> getRecentCalls() {
+        return new ArrayList<>(recentCalls);
+    }
+
+    /**
+     * Forgets the recent calls.
+     */
+    public synchronized void clear() {
+        recentCalls.clear();
+    }
+
+    private void complete(CallTrace trace) {
+        metrics.record(trace);
+        synchronized (this) {
+            recentCalls.addFirst(trace);
+            while (recentCalls.size() > capacity) {
+                recentCalls.removeLast();
+            }
+        }
+        if (trace.getTotalNanos() >= SLOW_CALL_NANOS) {
+            LOG.warn("Slow Zammad call: " + trace.toLogLine());
+        }
+    }
+
+    /**
+     * Builds the trace of one call. OkHttp creates a listener per call and calls it from one thread at a time,
+     * handing the call over between threads with proper synchronization, so the fields need none.
+     */
+    private final class TraceListener extends EventListener {
+        private final String endpoint;
+        private final String method;
+        private final String path;
+        private final Instant startedAt = Instant.now();
+        private final long callStartNanos = System.nanoTime();
+
+        private long dnsStartNanos;
+        private long connectStartNanos;
+        private long tlsStartNanos;
+        private long requestStartNanos;
+        private long requestSentNanos;
+        private long downloadStartNanos;
+        private long deserializationStartNanos;
+
+        private long dnsNanos;
+        private long connectNanos;
+        private long tlsNanos;
+        private long requestNanos;
+        private long serverWaitNanos;
+        private long downloadNanos;
+        private long deserializationNanos;
+
+        private long bytesSent;
+        private long bytesReceived;
+        private int statusCode;
+        private String failure;
+        private CallTrace.CacheOutcome cacheOutcome = CallTrace.CacheOutcome.NONE;
+        private boolean connected;
+        private boolean acquired;
+        private boolean deserializing;
+        private boolean ended;
+        private boolean completed;
+
+        private TraceListener(Request request) {
+            this.endpoint = HttpMetrics.endpointName(request);
+            this.method = request.method();
+            this.path = request.url().encodedPath();
+        }
+
+        @Override
+        public void callStart(@NotNull Call call) {
+            // Left over from an earlier call on this thread whose response body was never closed
+            RESPONSE_IN_PROGRESS.remove();
+        }
+
+        @Override
+        public void dnsStart(@NotNull Call call, @NotNull String domainName) {
+            dnsStartNanos = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(@NotNull Call call, @NotNull String domainName, @NotNull List<InetAddress> inetAddressList) {
+            dnsNanos += System.nanoTime() - dnsStartNanos;
+        }
+
+        @Override
+        public void connectStart(@NotNull Call call, @NotNull InetSocketAddress inetSocketAddress, @NotNull Proxy proxy) {
+            connectStartNanos = System.nanoTime();
+            tlsStartNanos = 0;
+            connected = true;
+        }
+
+        @Override
+        public void secureConnectStart(@NotNull Call call) {
+            tlsStartNanos = System.nanoTime();
+            connectNanos += tlsStartNanos - connectStartNanos;
+        }
+
+        @Override
+        public void secureConnectEnd(@NotNull Call call, @Nullable Handshake handshake) {
+            tlsNanos += System.nanoTime() - tlsStartNanos;
+        }
+
+        @Override
+        public void connectEnd(@NotNull Call call, @NotNull InetSocketAddress inetSocketAddress, @NotNull Proxy proxy,
+                               @Nullable Protocol protocol) {
+            if (tlsStartNanos == 0) {
+                connectNanos += System.nanoTime() - connectStartNanos;
+            }
+        }
+
+        @Override
+        public void connectFailed(@NotNull Call call, @NotNull InetSocketAddress inetSocketAddress, @NotNull Proxy proxy,
+                                  @Nullable Protocol protocol, @NotNull IOException ioe) {
+            if (tlsStartNanos != 0) {
+                tlsNanos += System.nanoTime() - tlsStartNanos;
+            } else {
+                connectNanos += System.nanoTime() - connectStartNanos;
+            }
+        }
+
+        @Override
+        public void connectionAcquired(@NotNull Call call, @NotNull Connection connection) {
+            acquired = true;
+        }
+
+        @Override
+        public void requestHeadersStart(@NotNull Call call) {
+            requestStartNanos = System.nanoTime();
+        }
+
+        @Override
+        public void requestHeadersEnd(@NotNull Call call, @NotNull Request request) {
+            requestSent();
+        }
+
+        @Override
+        public void requestBodyEnd(@NotNull Call call, long byteCount) {
+            bytesSent += byteCount;
+            requestSent();
+        }
+
+        private void requestSent() {
+            long now = System.nanoTime();
+            // The body follows the headers; only count the time once
+            requestNanos += now - (requestSentNanos > requestStartNanos ? requestSentNanos : requestStartNanos);
+            requestSentNanos = now;
+        }
+
+        @Override
+        public void responseHeadersStart(@NotNull Call call) {
+            if (requestSentNanos != 0) {
+                serverWaitNanos += System.nanoTime() - requestSentNanos;
+            }
+        }
+
+        @Override
+        public void responseHeadersEnd(@NotNull Call call, @NotNull Response response) {
+            statusCode = response.code();
+            RESPONSE_IN_PROGRESS.set(this);
+        }
+
+        @Override
+        public void responseBodyStart(@NotNull Call call) {
+            downloadStartNanos = System.nanoTime();
+        }
+
+        @Override
+        public void responseBodyEnd(@NotNull Call call, long byteCount) {
+            bytesReceived += byteCount;
+            if (downloadStartNanos != 0) {
+                downloadNanos += System.nanoTime() - downloadStartNanos;
+            }
+        }
+
+        @Override
+        public void cacheHit(@NotNull Call call, @NotNull Response cachedResponse) {
+            cacheOutcome = CallTrace.CacheOutcome.HIT;
+            statusCode = cachedResponse.code();
+            RESPONSE_IN_PROGRESS.set(this);
+        }
+
+        @Override
+        public void cacheConditionalHit(@NotNull Call call, @NotNull Response cachedResponseWithNullBody) {
+            cacheOutcome = CallTrace.CacheOutcome.CONDITIONAL_HIT;
+            statusCode = cachedResponseWithNullBody.code();
+        }
+
+        @Override
+        public void cacheMiss(@NotNull Call call) {
+            cacheOutcome = CallTrace.CacheOutcome.MISS;
+        }
+
+        @Override
+        public void callEnd(@NotNull Call call) {
+            end(null);
+        }
+
+        @Override
+        public void callFailed(@NotNull Call call, @NotNull IOException ioe) {
+            end(ioe);
+        }
+
+        private boolean isConverting() {
+            return !completed && RESPONSE_IN_PROGRESS.get() == this;
+        }
+
+        private void deserializationStarted() {
+            deserializationStartNanos = System.nanoTime();
+            deserializing = true;
+        }
+
+        private void deserializationEnded() {
+            deserializationNanos += System.nanoTime() - deserializationStartNanos;
+            deserializing = false;
+            if (ended) {
+                complete();
+            }
+        }
+
+        // The converter closes the body, which ends the call, before it returns the object
+        private void end(@Nullable IOException e) {
+            if (e != null) {
+                failure = e.getClass().getSimpleName() + ": " + e.getMessage();
+            }
+            ended = true;
+            if (!deserializing) {
+                complete();
+            }
+        }
+
+        private void complete() {
+            if (completed) {
+                return;
+            }
+            completed = true;
+            if (RESPONSE_IN_PROGRESS.get() == this) {
+                RESPONSE_IN_PROGRESS.remove();
+            }
+            CallTracer.this.complete(new CallTrace(endpoint, method, path, startedAt, statusCode, failure,
+                cacheOutcome, acquired && !connected, bytesSent, bytesReceived, dnsNanos, connectNanos, tlsNanos,
+                requestNanos, serverWaitNanos, downloadNanos, deserializationNanos,
+                System.nanoTime() - callStartNanos));
+        }
+    }
+
+    /**
+     * Times the response body converters of the delegate; request body and string converters are passed through.
+     */
+    private static final class TimingConverterFactory extends Converter.Factory {
+        private final Converter.Factory delegate;
+
+        private TimingConverterFactory(Converter.Factory delegate) {
+            this.delegate = delegate;
+        }
+
+        @Nullable
+        @Override
+        public Converter<ResponseBody, ?> responseBodyConverter(@NotNull Type type, @NotNull Annotation[] annotations,
+                                                                @NotNull Retrofit retrofit) {
+            Converter<ResponseBody, ?> converter = delegate.responseBodyConverter(type, annotations, retrofit);
+            if (converter == null) {
+                return null;
+            }
+            return body -> {
+                TraceListener listener = RESPONSE_IN_PROGRESS.get();
+                if (listener == null || !listener.isConverting()) {
+                    return converter.convert(body);
+                }
+                listener.deserializationStarted();
+                try {
+                    return converter.convert(body);
+                } finally {
+                    listener.deserializationEnded();
+                    // Even if the converter left the body open, so the call did not end
+                    if (RESPONSE_IN_PROGRESS.get() == listener) {
+                        RESPONSE_IN_PROGRESS.remove();
+                    }
+                }
+            };
+        }
+
+        @Nullable
+        @Override
+        public Converter<?, RequestBody> requestBodyConverter(@NotNull Type type, @NotNull Annotation[] parameterAnnotations,
+                                                              @NotNull Annotation[] methodAnnotations,
+                                                              @NotNull Retrofit retrofit) {
+            return delegate.requestBodyConverter(type, parameterAnnotations, methodAnnotations, retrofit);
+        }
+
+        @Nullable
+        @Override
+        public Converter<?, String> stringConverter(@NotNull Type type, @NotNull Annotation[] annotations,
+                                                    @NotNull Retrofit retrofit) {
+            return delegate.stringConverter(type, annotations, retrofit);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package de.dp_coding.zammadplugin.api;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * Thread-safe, bounded LRU cache whose entries expire a fixed time after they were written.
+ * <p>
+ * The bound is a total weight: every entry weighs 1 by default, or whatever the weigher returns
+ * (e.g. the size of the cached text). When an insertion exceeds the bound, the least recently used
+ * entries are evicted. Hit, miss, eviction and expiration counts are available through {@link #stats()}.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public final class ExpiringCache<K, V> {
+    private final String name;
+    private final long maxWeight;
+    private final long ttlNanos;
+    private final ToLongFunction<V> weigher;
+
+    // Access-ordered, so iteration starts with the least recently used entry
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalWeight;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    /**
+     * Creates a cache bounded by a total weight.
+     *
+     * @param name the name shown in statistics
+     * @param maxWeight the maximum total weight of all entries
+     * @param ttl how long an entry stays valid after it was written
+     * @param weigher computes the weight of a value; must not change while the value is cached
+     */
+    public ExpiringCache(@NotNull String name, long maxWeight, @NotNull Duration ttl, @NotNull ToLongFunction<V> weigher) {
+        this.name = name;
+        this.maxWeight = maxWeight;
+        this.ttlNanos = ttl.toNanos();
+        this.weigher = weigher;
+    }
+
+    /**
+     * Creates a cache bounded by the number of entries.
+     *
+     * @param name the name shown in statistics
+     * @param maxEntries the maximum number of entries
+     * @param ttl how long an entry stays valid after it was written
+     */
+    public ExpiringCache(@NotNull String name, int maxEntries, @NotNull Duration ttl) {
+        this(name, maxEntries, ttl, value -> 1);
+    }
+
+    /**
+     * Gets a value if it is cached and not expired.
+     *
+     * @param key the key
+     * @return the value, or null if it is missing or expired
+     */
+    @Nullable
+    public synchronized V get(@NotNull K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            remove(key, entry);
+            expirations.incrementAndGet();
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.value;
+    }
+
+    /**
+     * Stores a value, replacing any previous value for the key, and evicts entries if the cache is over its bound.
+     * A value heavier than the whole bound is not stored.
+     *
+     * @param key the key
+     * @param value the value
+     */
+    public void put(@NotNull K key, @NotNull V value) {
+        put(key, value, ttlNanos);
+    }
+
+    /**
+     * Stores a value that expires earlier (or later) than the cache's default, e.g. because it was restored from
+     * disk and should be refreshed soon.
+     *
+     * @param key the key
+     * @param value the value
+     * @param ttl how long this entry stays valid
+     */
+    public void put(@NotNull K key, @NotNull V value, @NotNull Duration ttl) {
+        put(key, value, ttl.toNanos());
+    }
+
+    private synchronized void put(K key, V value, long entryTtlNanos) {
+        long weight = Math.max(0, weigher.applyAsLong(value));
+        Entry<V> previous = entries.remove(key);
+        if (previous != null) {
+            totalWeight -= previous.weight;
+        }
+        if (weight > maxWeight) {
+            return;
+        }
+
+        entries.put(key, new Entry<>(value, weight, System.nanoTime() + entryTtlNanos));
+        totalWeight += weight;
+        evictIfNeeded();
+    }
+
+    /**
+     * Removes the value for a key.
+     *
+     * @param key the key
+     */
+    public synchronized void invalidate(@NotNull K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            remove(key, entry);
+        }
+    }
+
+    /**
+     * Removes all values.
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+        totalWeight = 0;
+    }
+
+    /**
+     * Gets a copy of all values that are not expired, from the least to the most recently used.
+     * Does not count as an access and does not change the recency order.
+     */
+    @NotNull
+    public synchronized Map<K, V> snapshot() {
+        long now = System.nanoTime();
+        Map<K, V> result = new LinkedHashMap<>();
+        for (Map.Entry<K, Entry<V>> entry : entries.entrySet()) {
+            if (!entry.getValue().isExpired(now)) {
+                result.put(entry.getKey(), entry.getValue().value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of entries, including expired entries that were not cleaned up yet.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets a snapshot of the cache statistics.
+     */
+    @NotNull
+    public synchronized Stats stats() {
+        return new Stats(name, entries.size(), totalWeight, maxWeight,
+            hits.get(), misses.get(), evictions.get(), expirations.get());
+    }
+
+    private void evictIfNeeded() {
+        if (totalWeight <= maxWeight) {
+            return;
+        }
+        // Drop expired entries first, then the least recently used ones
+        long now = System.nanoTime();
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext() && totalWeight > maxWeight) {
+            Entry<V> entry = iterator.next().getValue();
+            if (entry.isExpired(now)) {
+                iterator.remove();
+                totalWeight -= entry.weight;
+                expirations.incrementAndGet();
+            }
+        }
+        iterator = entries.entrySet().iterator();
+        while (iterator.hasNext() && totalWeight > maxWeight) {
+            Entry<V> entry = iterator.next().getValue();
+            iterator.remove();
+            totalWeight -= entry.weight;
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void remove(K key, Entry<V> entry) {
+        entries.remove(key);
+        totalWeight -= entry.weight;
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long weight;
+        private final long expiresAtNanos;
+
+        private Entry(V value, long weight, long expiresAtNanos) {
+            this.value = value;
+            this.weight = weight;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+
+    /**
+     * Snapshot of the statistics of one cache.
+     */
+    public static final class Stats {
+        private final String name;
+        private final int size;
+        private final long weight;
+        private final long maxWeight;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expirations;
+
+        Stats(String name, int size, long weight, long maxWeight,
+              long hits, long misses, long evictions, long expirations) {
+            this.name = name;
+            this.size = size;
+            this.weight = weight;
+            this.maxWeight = maxWeight;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public long getWeight() {
+            return weight;
+        }
+
+        public long getMaxWeight() {
+            return maxWeight;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getExpirations() {
+            return expirations;
+        }
+
+        /**
+         * Returns the fraction of lookups that were hits, or 0 if there were no lookups.
+         */
+        public double getHitRatio() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{" +
+                    "name='" + name + '\'' +
+                    ", size=" + size +
+                    ", weight=" + weight + "/" + maxWeight +
+                    ", hits=" + hits +
+                    ", misses=" + misses +
+                    ", evictions=" + evictions +
+                    ", expirations=" + expirations +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package de.dp_coding.zammadplugin.api;
+
+import com.intellij.openapi.diagnostic.Logger;
+import okhttp3.Call;
+import okhttp3.CacheControl;
+import okhttp3.Callback;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * HTTP caching policy for the read endpoints of the Zammad API.
+ * <p>
+ * Responses are stored in the OkHttp disk cache. Zammad sends an ETag with every JSON response, so once a
+ * cached response is older than its max-age, OkHttp revalidates it with {@code If-None-Match} (or
+ * {@code If-Modified-Since}) and unchanged data comes back as a cheap 304.
+ * Within the stale-while-revalidate window, the stale response is returned immediately and revalidated
+ * in the background.
+ */
+public final class HttpCachePolicy {
+    private static final Logger LOG = Logger.getInstance(HttpCachePolicy.class);
+
+    private static final HttpCachePolicy NO_CACHE = new HttpCachePolicy("none", Pattern.compile(""), 0, 0);
+
+    // Ticket lists and time entries must always be revalidated; other data may be served slightly stale
+    private static final List<HttpCachePolicy> POLICIES = List.of(
+        new HttpCachePolicy("tickets/search", Pattern.compile("/api/v1/tickets/search$"), 0, 0),
+        new HttpCachePolicy("time_accountings", Pattern.compile("/api/v1/tickets/\\d+/time_accountings$"), 0, 0),
+        new HttpCachePolicy("tags", Pattern.compile("/api/v1/tickets/\\d+/tags$"), 60, 300),
+        new HttpCachePolicy("articles", Pattern.compile("/api/v1/ticket_articles/by_ticket/\\d+$"), 60, 600),
+        new HttpCachePolicy("article", Pattern.compile("/api/v1/ticket_articles/\\d+$"), 300, 3600),
+        new HttpCachePolicy("users/me", Pattern.compile("/api/v1/users/me$"), 300, 3600),
+        new HttpCachePolicy("users/search", Pattern.compile("/api/v1/users/search$"), 600, 3600),
+        new HttpCachePolicy("users", Pattern.compile("/api/v1/users/\\d+$"), 600, 3600)
+    );
+
+    private final String name;
+    private final Pattern pathPattern;
+    private final int maxAgeSeconds;
+    private final int staleWhileRevalidateSeconds;
+
+    private HttpCachePolicy(String name, Pattern pathPattern, int maxAgeSeconds, int staleWhileRevalidateSeconds) {
+        this.name = name;
+        this.pathPattern = pathPattern;
+        this.maxAgeSeconds = maxAgeSeconds;
+        this.staleWhileRevalidateSeconds = staleWhileRevalidateSeconds;
+    }
+
+    /**
+     * Gets the policy for a request. Requests other than GET are never cached.
+     *
+     * @param request The request
+     * @return The policy of the matching endpoint, or a policy that disables caching
+     */
+    @NotNull
+    public static HttpCachePolicy forRequest(@NotNull Request request) {
+        if (!"GET".equals(request.method())) {
+            return NO_CACHE;
+        }
+        String path = request.url().encodedPath();
+        for (HttpCachePolicy policy : POLICIES) {
+            if (policy.pathPattern.matcher(path).find()) {
+                return policy;
+            }
+        }
+        return NO_CACHE;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxAgeSeconds() {
+        return maxAgeSeconds;
+    }
+
+    public int getStaleWhileRevalidateSeconds() {
+        return staleWhileRevalidateSeconds;
+    }
+
+    private boolean isCacheable() {
+        return this != NO_CACHE;
+    }
+
+    /**
+     * Network interceptor that replaces the server's Cache-Control header with the endpoint policy.
+     * Zammad sends {@code max-age=0, must-revalidate}, which would forbid serving stale responses.
+     * The validators (ETag, Last-Modified) are kept, so revalidation still works.
+     */
+    static final class NetworkInterceptor implements Interceptor {
+        @NotNull
+        @Override
+        public Response intercept(@NotNull Chain chain) throws IOException {
+            Request request = chain.request();
+            Response response = chain.proceed(request);
+            HttpCachePolicy policy = forRequest(request);
+            if (!policy.isCacheable() || (!response.isSuccessful() && response.code() != 304)) {
+                return response;
+            }
+            return response.newBuilder()
+                .removeHeader("Pragma")
+                .header("Cache-Control", "private, max-age=" + policy.maxAgeSeconds)
+                .build();
+        }
+    }
+
+    /**
+     * Application interceptor implementing stale-while-revalidate, which OkHttp does not support itself.
+     * A response that is stale but within the window of its policy is returned from the cache, and a
+     * conditional request refreshes the cache in the background.
+     */
+    static final class StaleWhileRevalidateInterceptor implements Interceptor {
+        private final Supplier<Call.Factory> callFactory;
+
+        /**
+         * @param callFactory Supplies the client used for background revalidation
+         */
+        StaleWhileRevalidateInterceptor(@NotNull Supplier<Call.Factory> callFactory) {
+            this.callFactory = callFactory;
+        }
+
+        @NotNull
+        @Override
+        public Response intercept(@NotNull Chain chain) throws IOException {
+            Request request = chain.request();
+            HttpCachePolicy policy = forRequest(request);
+            if (policy.staleWhileRevalidateSeconds <= 0
+                    || request.tag(Revalidation.class) != null
+                    || request.cacheControl().noCache()) {
+                return chain.proceed(request);
+            }
+
+            Response cached = chain.proceed(request.newBuilder()
+                .cacheControl(new CacheControl.Builder()
+                    .onlyIfCached()
+                    .maxStale(policy.staleWhileRevalidateSeconds, TimeUnit.SECONDS)
+                    .build())
+                .build());
+            if (cached.code() == 504) {
+                // Not cached, or too stale: go to the network as usual
+                cached.close();
+                return chain.proceed(request);
+            }
+
+            if (isStale(cached)) {
+                revalidate(request, policy);
+            }
+            return cached;
+        }
+
+        private static boolean isStale(Response response) {
+            String warning = response.header("Warning");
+            return warning != null && warning.startsWith("110");
+        }
+
+        private void revalidate(Request request, HttpCachePolicy policy) {
+            Call.Factory factory = callFactory.get();
+            if (factory == null) {
+                return;
+            }
+            LOG.info("Revalidating stale " + policy.name + " response in the background: " + request.url().encodedPath());
+            Request revalidation = request.newBuilder()
+                .tag(Revalidation.class, Revalidation.INSTANCE)
+                .build();
+            factory.newCall(revalidation).enqueue(new Callback() {
+                @Override
+                public void onResponse(@NotNull Call call, @NotNull Response response) {
+                    // Reading the body completes the cache update
+                    try (response) {
+                        if (response.body() != null) {
+                            response.body().bytes();
+                        }
+                    } catch (IOException e) {
+                        onFailure(call, e);
+                    }
+                }
+
+                @Override
+                public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                    LOG.info("Background revalidation failed: " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * Request tag marking background revalidations, which must not be answered from the stale cache again.
+     */
+    private enum Revalidation {
+        INSTANCE
+    }
+}
@@ -0,0 +1,289 @@
+package de.dp_coding.zammadplugin.api;
+
+import okhttp3.Request;
+import org.jetbrains.annotations.NotNull;
+import retrofit2.Invocation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency, throughput, error and cache metrics of the HTTP calls, per {@link ZammadApi} endpoint.
+ * <p>
+ * The metrics are fed with the traces of the {@link CallTracer}, so every call is measured from the moment it is
+ * started until its response is deserialized, including cache lookups and retries. The time between sending a request
+ * and receiving the response headers is recorded separately as server wait: if most of the latency is server wait,
+ * the Zammad instance is slow; otherwise the time goes to the connection, the transfer or the plugin itself.
+ * <p>
+ * Recording is lock-free; snapshots may be taken at any time from any thread.
+ */
+public final class HttpMetrics {
+    // Upper bounds of the latency histogram buckets; the last bucket takes everything slower
+    private static final long[] BUCKET_BOUNDS_MILLIS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * Gets a snapshot of the metrics of every endpoint that was called, ordered by name.
+     */
+    @NotNull
+    public List<EndpointStats> snapshot() {
+        List<EndpointStats> result = new ArrayList<>();
+        for (Endpoint endpoint : endpoints.values()) {
+            result.add(endpoint.stats());
+        }
+        result.sort(Comparator.comparing(EndpointStats::getEndpoint));
+        return result;
+    }
+
+    /**
+     * Adds a completed call to the metrics of its endpoint.
+     */
+    void record(@NotNull CallTrace trace) {
+        endpoints.computeIfAbsent(trace.getEndpoint(), Endpoint::new).record(trace);
+    }
+
+    /**
+     * Forgets all recorded calls.
+     */
+    public void reset() {
+        endpoints.clear();
+    }
+
+    /**
+     * Gets the name a request is recorded under: the name of the {@link ZammadApi} method that created it, so that
+     * all tickets share one entry, or the HTTP method and path for requests that do not come from the API.
+     */
+    @NotNull
+    static String endpointName(@NotNull Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        if (invocation != null) {
+            return invocation.method().getName();
+        }
+        return request.method() + " " + request.url().encodedPath();
+    }
+
+    /**
+     * Upper bounds of the histogram buckets in milliseconds; the last bucket has no upper bound.
+     */
+    @NotNull
+    public static long[] getBucketBoundsMillis() {
+        return BUCKET_BOUNDS_MILLIS.clone();
+    }
+
+    private static final class Endpoint {
+        private final String name;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder bytesSent = new LongAdder();
+        private final LongAdder bytesReceived = new LongAdder();
+        private final LongAdder cacheHits = new LongAdder();
+        private final LongAdder conditionalCacheHits = new LongAdder();
+        private final LongAdder cacheMisses = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder serverWaitNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MILLIS.length + 1);
+
+        private Endpoint(String name) {
+            this.name = name;
+        }
+
+        private void record(CallTrace trace) {
+            long nanos = trace.getTotalNanos();
+            requests.increment();
+            if (trace.isFailed()) {
+                errors.increment();
+            }
+            bytesSent.add(trace.getBytesSent());
+            bytesReceived.add(trace.getBytesReceived());
+            switch (trace.getCacheOutcome()) {
+                case HIT -> cacheHits.increment();
+                case CONDITIONAL_HIT -> conditionalCacheHits.increment();
+                case MISS -> cacheMisses.increment();
+                case NONE -> {
+                }
+            }
+            totalNanos.add(nanos);
+            serverWaitNanos.add(trace.getServerWaitNanos());
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            buckets.incrementAndGet(bucketOf(TimeUnit.NANOSECONDS.toMillis(nanos)));
+        }
+
+        private static int bucketOf(long millis) {
+            for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+                if (millis <= BUCKET_BOUNDS_MILLIS[i]) {
+                    return i;
+                }
+            }
+            return BUCKET_BOUNDS_MILLIS.length;
+        }
+
+        private EndpointStats stats() {
+            long[] counts = new long[buckets.length()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(i);
+            }
+            return new EndpointStats(name, requests.sum(), errors.sum(), bytesSent.sum(), bytesReceived.sum(),
+                cacheHits.sum(), conditionalCacheHits.sum(), cacheMisses.sum(),
+                totalNanos.sum(), serverWaitNanos.sum(), maxNanos.get(), counts);
+        }
+    }
+
+    /**
+     * Snapshot of the metrics of one endpoint.
+     */
+    public static final class EndpointStats {
+        private final String endpoint;
+        private final long requests;
+        private final long errors;
+        private final long bytesSent;
+        private final long bytesReceived;
+        private final long cacheHits;
+        private final long conditionalCacheHits;
+        private final long cacheMisses;
+        private final long totalNanos;
+        private final long serverWaitNanos;
+        private final long maxNanos;
+        private final long[] bucketCounts;
+
+        private EndpointStats(String endpoint, long requests, long errors, long bytesSent, long bytesReceived,
+                              long cacheHits, long conditionalCacheHits, long cacheMisses,
+                              long totalNanos, long serverWaitNanos, long maxNanos, long[] bucketCounts) {
+            this.endpoint = endpoint;
+            this.requests = requests;
+            this.errors = errors;
+            this.bytesSent = bytesSent;
+            this.bytesReceived = bytesReceived;
+            this.cacheHits = cacheHits;
+            this.conditionalCacheHits = conditionalCacheHits;
+            this.cacheMisses = cacheMisses;
+            this.totalNanos = totalNanos;
+            this.serverWaitNanos = serverWaitNanos;
+            this.maxNanos = maxNanos;
+            this.bucketCounts = bucketCounts;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getBytesSent() {
+            return bytesSent;
+        }
+
+        /**
+         * Gets the bytes of the response bodies read from the network; responses from the cache are not counted.
+         */
+        public long getBytesReceived() {
+            return bytesReceived;
+        }
+
+        public long getCacheHits() {
+            return cacheHits;
+        }
+
+        /**
+         * Gets the number of cached responses that were revalidated with the server and came back unchanged.
+         */
+        public long getConditionalCacheHits() {
+            return conditionalCacheHits;
+        }
+
+        public long getCacheMisses() {
+            return cacheMisses;
+        }
+
+        /**
+         * Returns the fraction of failed calls, counting network errors and HTTP status 400 and above,
+         * or 0 if there were no calls.
+         */
+        public double getErrorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+
+        /**
+         * Returns the fraction of cache lookups answered from the cache, with or without revalidation,
+         * or 0 if there were no lookups.
+         */
+        public double getCacheHitRatio() {
+            long lookups = cacheHits + conditionalCacheHits + cacheMisses;
+            return lookups == 0 ? 0 : (double) (cacheHits + conditionalCacheHits) / lookups;
+        }
+
+        public double getMeanMillis() {
+            return requests == 0 ? 0 : totalNanos / 1e6 / requests;
+        }
+
+        /**
+         * Gets the mean time between sending the request and receiving the response headers.
+         */
+        public double getMeanServerWaitMillis() {
+            return requests == 0 ? 0 : serverWaitNanos / 1e6 / requests;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos / 1e6;
+        }
+
+        /**
+         * Estimates a latency percentile from the histogram: the upper bound of the bucket the percentile falls
+         * into, or the maximum for the last bucket.
+         *
+         * @param percentile The percentile, between 0 and 100
+         * @return The estimated latency in milliseconds, or 0 if there were no calls
+         */
+        public double getPercentileMillis(double percentile) {
+            long total = 0;
+            for (long count : bucketCounts) {
+                total += count;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(total * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+                seen += bucketCounts[i];
+                if (seen >= rank) {
+                    return Math.min(BUCKET_BOUNDS_MILLIS[i], getMaxMillis());
+                }
+            }
+            return getMaxMillis();
+        }
+
+        /**
+         * Gets the number of calls per histogram bucket, see {@link #getBucketBoundsMillis()}.
+         */
+        public long[] getBucketCounts() {
+            return bucketCounts.clone();
+        }
+
+        @Override
+        public String toString() {
+            return "EndpointStats{" +
+                    "endpoint='" + endpoint + '\'' +
+                    ", requests=" + requests +
+                    ", errors=" + errors +
+                    ", mean=" + String.format("%.1f", getMeanMillis()) + "ms" +
+                    ", serverWait=" + String.format("%.1f", getMeanServerWaitMillis()) + "ms" +
+                    ", cacheHitRatio=" + String.format("%.2f", getCacheHitRatio()) +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package de.dp_coding.zammadplugin.api;
+
+import de.dp_coding.zammadplugin.model.ArticleHeader;
+import de.dp_coding.zammadplugin.model.Ticket;
+import de.dp_coding.zammadplugin.model.User;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary file holding the last known state of one Zammad instance and user: the synced tickets with their
+ * sync state, and the cached users, tags and article headers. It is read when the IDE starts, so the ticket list can be
+ * shown before the first request returns.
+ * <p>
+ * The file starts with a magic number and a format version; files with another version are ignored.
+ * Strings are stored as length-prefixed UTF-8, so reading needs no parsing beyond decoding the strings.
+ * Files are written to a temporary file first and then moved into place, so a crash never leaves a torn file.
+ */
+final class LocalStateFile {
+    private static final int MAGIC = 0x5A4D4453; // "ZMDS"
+    private static final int FORMAT_VERSION = 2;
+    // Upper bound for a single string, to fail fast on corrupt files instead of allocating huge arrays
+    private static final int MAX_STRING_BYTES = 16 * 1024 * 1024;
+
+    private LocalStateFile() {
+    }
+
+    /**
+     * The state stored in the file.
+     */
+    static final class State {
+        final int userId;
+        @Nullable
+        final Instant highWaterMark;
+        @Nullable
+        final Instant lastFullSync;
+        final List<Ticket> tickets;
+        final List<User> users;
+        final Map<Integer, List<String>> tags;
+        final Map<Integer, List<ArticleHeader>> articles;
+
+        State(int userId, @Nullable Instant highWaterMark, @Nullable Instant lastFullSync, @NotNull List<Ticket> tickets,
+              @NotNull List<User> users, @NotNull Map<Integer, List<String>> tags,
+              @NotNull Map<Integer, List<ArticleHeader>> articles) {
+            this.userId = userId;
+            this.highWaterMark = highWaterMark;
+            this.lastFullSync = lastFullSync;
+            this.tickets = tickets;
+            this.users = users;
+            this.tags = tags;
+            this.articles = articles;
+        }
+    }
+
+    /**
+     * Reads a state file.
+     *
+     * @param file The file to read
+     * @return The state, or null if the file does not exist or was written with another format version
+     * @throws IOException If the file cannot be read or is corrupt
+     */
+    @Nullable
+    static State read(@NotNull File file) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath()), 64 * 1024))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+
+            int userId = in.readInt();
+            Instant highWaterMark = readInstant(in);
+            Instant lastFullSync = readInstant(in);
+
+            int ticketCount = readCount(in);
+            List<Ticket> tickets = new ArrayList<>(ticketCount);
+            for (int i = 0; i < ticketCount; i++) {
+                tickets.add(readTicket(in));
+            }
+
+            int userCount = readCount(in);
+            List<User> users = new ArrayList<>(userCount);
+            for (int i = 0; i < userCount; i++) {
+                users.add(readUser(in));
+            }
+
+            int tagEntries = readCount(in);
+            Map<Integer, List<String>> tags = new LinkedHashMap<>();
+            for (int i = 0; i < tagEntries; i++) {
+                int ticketId = in.readInt();
+                int tagCount = readCount(in);
+                List<String> ticketTags = new ArrayList<>(tagCount);
+                for (int j = 0; j < tagCount; j++) {
+                    ticketTags.add(readString(in));
+                }
+                tags.put(ticketId, Collections.unmodifiableList(ticketTags));
+            }
+
+            int articleEntries = readCount(in);
+            Map<Integer, List<ArticleHeader>> articles = new LinkedHashMap<>();
+            for (int i = 0; i < articleEntries; i++) {
+                int ticketId = in.readInt();
+                int articleCount = readCount(in);
+                List<ArticleHeader> ticketArticles = new ArrayList<>(articleCount);
+                for (int j = 0; j < articleCount; j++) {
+                    ticketArticles.add(readArticleHeader(in));
+                }
+                articles.put(ticketId, Collections.unmodifiableList(ticketArticles));
+            }
+
+            return new State(userId, highWaterMark, lastFullSync, tickets, users, tags, articles);
+        }
+    }
+
+    /**
+     * Writes a state file, replacing the previous one.
+     *
+     * @param file The file to write
+     * @param state The state to store
+     * @throws IOException If the file cannot be written
+     */
+    static void write(@NotNull File file, @NotNull State state) throws IOException {
+        File directory = file.getParentFile();
+        if (directory != null) {
+            Files.createDirectories(directory.toPath());
+        }
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile.toPath()), 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+
+            out.writeInt(state.userId);
+            writeInstant(out, state.highWaterMark);
+            writeInstant(out, state.lastFullSync);
+
+            out.writeInt(state.tickets.size());
+            for (Ticket ticket : state.tickets) {
+                writeTicket(out, ticket);
+            }
+
+            out.writeInt(state.users.size());
+            for (User user : state.users) {
+                writeUser(out, user);
+            }
+
+            out.writeInt(state.tags.size());
+            for (Map.Entry<Integer, List<String>> entry : state.tags.entrySet()) {
+                out.writeInt(entry.getKey());
+                out.writeInt(entry.getValue().size());
+                for (String tag : entry.getValue()) {
+                    writeString(out, tag);
+                }
+            }
+
+            out.writeInt(state.articles.size());
+            for (Map.Entry<Integer, List<ArticleHeader>> entry : state.articles.entrySet()) {
+                out.writeInt(entry.getKey());
+                out.writeInt(entry.getValue().size());
+                for (ArticleHeader article : entry.getValue()) {
+                    writeArticleHeader(out, article);
+                }
+            }
+        }
+
+        try {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static Ticket readTicket(DataInputStream in) throws IOException {
+        return new Ticket(in.readInt(), readString(in), readString(in), readString(in), readString(in),
+            readString(in), readString(in), readString(in), readString(in),
+            readString(in), readString(in), readString(in), readString(in));
+    }
+
+    private static void writeTicket(DataOutputStream out, Ticket ticket) throws IOException {
+        out.writeInt(ticket.getId());
+        writeString(out, ticket.getTitle());
+        writeString(out, ticket.getNumber());
+        writeString(out, ticket.getState_id());
+        writeString(out, ticket.getPriority());
+        writeString(out, ticket.getGroup());
+        writeString(out, ticket.getCustomer_id());
+        writeString(out, ticket.getCreated_at());
+        writeString(out, ticket.getUpdated_at());
+        writeString(out, ticket.getState());
+        writeString(out, ticket.getOwner_id());
+        writeString(out, ticket.getOwner());
+        writeString(out, ticket.getCustomer());
+    }
+
+    private static User readUser(DataInputStream in) throws IOException {
+        return new User(in.readInt(), readString(in), readString(in), readString(in), readString(in),
+            readString(in), readString(in), readString(in));
+    }
+
+    private static void writeUser(DataOutputStream out, User user) throws IOException {
+        out.writeInt(user.getId());
+        writeString(out, user.getLogin());
+        writeString(out, user.getFirstname());
+        writeString(out, user.getLastname());
+        writeString(out, user.getEmail());
+        writeString(out, user.getImage());
+        writeString(out, user.getCreated_at());
+        writeString(out, user.getUpdated_at());
+    }
+
+    private static ArticleHeader readArticleHeader(DataInputStream in) throws IOException {
+        int id = in.readInt();
+        int ticketId = in.readInt();
+        String type = readString(in);
+        String subject = readString(in);
+        String contentType = readString(in);
+        String internalNote = readString(in);
+        String createdAt = readString(in);
+        String updatedAt = readString(in);
+        int createdById = in.readInt();
+        String from = readString(in);
+        int bodyLength = in.readInt();
+        return new ArticleHeader(id, ticketId, type, subject, contentType, internalNote, createdAt, updatedAt,
+            createdById, from, bodyLength);
+    }
+
+    private static void writeArticleHeader(DataOutputStream out, ArticleHeader article) throws IOException {
+        out.writeInt(article.getId());
+        out.writeInt(article.getTicketId());
+        writeString(out, article.getType());
+        writeString(out, article.getSubject());
+        writeString(out, article.getContentType());
+        writeString(out, article.getInternalNote());
+        writeString(out, article.getCreatedAt());
+        writeString(out, article.getUpdatedAt());
+        out.writeInt(article.getCreatedById());
+        writeString(out, article.getFrom());
+        out.writeInt(article.getBodyLength());
+    }
+
+    @Nullable
+    private static Instant readInstant(DataInputStream in) throws IOException {
+        long epochMillis = in.readLong();
+        return epochMillis == Long.MIN_VALUE ? null : Instant.ofEpochMilli(epochMillis);
+    }
+
+    private static void writeInstant(DataOutputStream out, @Nullable Instant instant) throws IOException {
+        out.writeLong(instant == null ? Long.MIN_VALUE : instant.toEpochMilli());
+    }
+
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Corrupt local state file: negative count " + count);
+        }
+        return count;
+    }
+
+    /**
+     * Reads a string written by {@link #writeString}: the UTF-8 length (-1 for null) followed by the bytes.
+     * Unlike {@link DataInputStream#readUTF()}, this is not limited to 64 KB.
+     */
+    @Nullable
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0 || length > MAX_STRING_BYTES) {
+            throw new IOException("Corrupt local state file: string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, @Nullable String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,74 @@
+package de.dp_coding.zammadplugin.api;
+
+import com.intellij.ide.util.PropertiesComponent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Where {@link ZammadService} keeps its settings. In the IDE these are the application properties;
+ * benchmarks and other code running without an IDE keep them in memory.
+ */
+public interface SettingsStore {
+
+    /**
+     * Gets a value, or null if it is not set.
+     */
+    @Nullable
+    String getValue(@NotNull String key);
+
+    /**
+     * Sets a value; null removes it.
+     */
+    void setValue(@NotNull String key, @Nullable String value);
+
+    /**
+     * Settings stored in the IDE's application properties.
+     */
+    @NotNull
+    static SettingsStore applicationProperties() {
+        PropertiesComponent properties = PropertiesComponent.getInstance();
+        return new SettingsStore() {
+            @Nullable
+            @Override
+            public String getValue(@NotNull String key) {
+                return properties.getValue(key);
+            }
+
+            @Override
+            public void setValue(@NotNull String key, @Nullable String value) {
+                if (value == null) {
+                    properties.unsetValue(key);
+                } else {
+                    properties.setValue(key, value);
+                }
+            }
+        };
+    }
+
+    /**
+     * Settings that only live as long as the returned store.
+     */
+    @NotNull
+    static SettingsStore inMemory() {
+        Map<String, String> values = new ConcurrentHashMap<>();
+        return new SettingsStore() {
+            @Nullable
+            @Override
+            public String getValue(@NotNull String key) {
+                return values.get(key);
+            }
+
+            @Override
+            public void setValue(@NotNull String key, @Nullable String value) {
+                if (value == null) {
+                    values.remove(key);
+                } else {
+                    values.put(key, value);
+                }
+            }
+        };
+    }
+}
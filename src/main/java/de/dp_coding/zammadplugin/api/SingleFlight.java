@@ -0,0 +1,130 @@
+package de.dp_coding.zammadplugin.api;
+
+import de.dp_coding.zammadplugin.exception.ApiException;
+import de.dp_coding.zammadplugin.exception.ZammadException;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Coalesces concurrent identical API calls.
+ * The first caller for a key executes the call; callers arriving while it is in flight wait for it and
+ * receive the same result or exception instead of sending a duplicate request.
+ * Once the call has finished, the next caller for the key starts a new one.
+ * <p>
+ * Asynchronous callers use {@link #executeAsync}, which hands out the future of the call in flight instead of
+ * waiting for it, so duplicates never occupy a thread of the executor.
+ */
+final class SingleFlight {
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Executes the call, or joins the identical call already in flight.
+     *
+     * @param key identifies the endpoint and its parameters, e.g. "users/42"
+     * @param call the blocking call to execute
+     * @return the result of the call
+     * @throws ZammadException the exception thrown by the call
+     */
+    @SuppressWarnings("unchecked")
+    <T> T execute(@NotNull String key, @NotNull ZammadService.ApiCall<T> call) throws ZammadException {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return (T) await(existing);
+        }
+
+        try {
+            T result = call.execute();
+            future.complete(result);
+            return result;
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Starts the call on the executor, or joins the identical call already in flight without blocking.
+     * Every caller gets its own dependent future, so cancelling it does not affect the other callers.
+     *
+     * @param key identifies the endpoint and its parameters; calls started by {@link #execute} share these keys
+     * @param call the blocking call to execute
+     * @param executor runs the call if none is in flight
+     * @return future completed with the result of the call, or exceptionally with its exception
+     */
+    <T> CompletableFuture<T> executeAsync(@NotNull String key, @NotNull ZammadService.ApiCall<T> call,
+                                          @NotNull Executor executor) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return share(existing);
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(call.execute());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                } finally {
+                    inFlight.remove(key, future);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Rejected, e.g. after the executor was shut down
+            inFlight.remove(key, future);
+            future.completeExceptionally(e);
+        }
+        return share(future);
+    }
+
+    /**
+     * Gets a future completed like the given one, with its exception unwrapped, that can be cancelled on its own.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> CompletableFuture<T> share(CompletableFuture<Object> future) {
+        CompletableFuture<T> copy = new CompletableFuture<>();
+        future.whenComplete((result, error) -> {
+            if (error != null) {
+                copy.completeExceptionally(error);
+            } else {
+                copy.complete((T) result);
+            }
+        });
+        return copy;
+    }
+
+    /**
+     * Gets the number of distinct calls currently in flight.
+     */
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static Object await(CompletableFuture<Object> future) throws ZammadException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException("Interrupted while waiting for a request in flight", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ZammadException) {
+                throw (ZammadException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ZammadException(cause);
+        }
+    }
+}
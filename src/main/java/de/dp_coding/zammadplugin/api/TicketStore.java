@@ -0,0 +1,206 @@
+package de.dp_coding.zammadplugin.api;
+
+import de.dp_coding.zammadplugin.model.Ticket;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+
+/**
+ * Local store of the tickets assigned to the current user, kept up to date by {@link TicketSyncEngine}.
+ * The UI renders from this store instead of from individual API responses.
+ * <p>
+ * Besides the tickets, the store remembers the sync state: the user it belongs to, the high-water mark
+ * (the latest {@code updated_at} seen) and when the last full sync finished.
+ */
+public final class TicketStore {
+
+    /**
+     * Listener notified after the tickets in the store changed. Called on the thread that changed the store.
+     */
+    public interface Listener {
+        void ticketsChanged();
+    }
+
+    private final Map<Integer, Ticket> tickets = new HashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private int userId = -1;
+    @Nullable
+    private Instant highWaterMark;
+    @Nullable
+    private Instant lastFullSync;
+
+    /**
+     * Gets all tickets, sorted by ID in descending order.
+     */
+    @NotNull
+    public synchronized List<Ticket> getTickets() {
+        List<Ticket> result = new ArrayList<>(tickets.values());
+        result.sort((t1, t2) -> Integer.compare(t2.getId(), t1.getId()));
+        return result;
+    }
+
+    /**
+     * Gets a ticket by ID.
+     */
+    @Nullable
+    public synchronized Ticket getTicket(int ticketId) {
+        return tickets.get(ticketId);
+    }
+
+    public synchronized int size() {
+        return tickets.size();
+    }
+
+    /**
+     * Adds or replaces tickets.
+     *
+     * @param changed The tickets to store
+     */
+    public void upsert(@NotNull Collection<Ticket> changed) {
+        synchronized (this) {
+            for (Ticket ticket : changed) {
+                tickets.put(ticket.getId(), ticket);
+                advanceHighWaterMark(ticket);
+            }
+        }
+        fireChanged();
+    }
+
+    /**
+     * Applies changed tickets from a delta sync: tickets that still belong to the store are added or replaced,
+     * all others (e.g. tickets that were closed) are removed.
+     *
+     * @param changed The tickets changed since the last sync
+     * @param belongs Decides whether a ticket belongs to the store
+     */
+    public void applyDelta(@NotNull Collection<Ticket> changed, @NotNull Predicate<Ticket> belongs) {
+        synchronized (this) {
+            for (Ticket ticket : changed) {
+                if (belongs.test(ticket)) {
+                    tickets.put(ticket.getId(), ticket);
+                } else {
+                    tickets.remove(ticket.getId());
+                }
+                advanceHighWaterMark(ticket);
+            }
+        }
+        fireChanged();
+    }
+
+    /**
+     * Completes a full sync: removes all tickets that were not part of it and records the sync state.
+     *
+     * @param userId The user whose tickets were synced
+     * @param seenTicketIds The IDs of all tickets returned by the full sync
+     * @param syncStart When the full sync started
+     */
+    public void completeFullSync(int userId, @NotNull Set<Integer> seenTicketIds, @NotNull Instant syncStart) {
+        synchronized (this) {
+            tickets.keySet().retainAll(seenTicketIds);
+            this.userId = userId;
+            this.lastFullSync = syncStart;
+            if (highWaterMark == null) {
+                highWaterMark = syncStart;
+            }
+        }
+        fireChanged();
+    }
+
+    /**
+     * Replaces the tickets and the sync state with a previously saved state, e.g. from the local state file.
+     *
+     * @param userId The user the tickets belong to
+     * @param highWaterMark The saved high-water mark
+     * @param lastFullSync The start time of the last full sync before the state was saved
+     * @param restored The saved tickets
+     */
+    public void restore(int userId, @Nullable Instant highWaterMark, @Nullable Instant lastFullSync,
+                        @NotNull Collection<Ticket> restored) {
+        synchronized (this) {
+            tickets.clear();
+            for (Ticket ticket : restored) {
+                tickets.put(ticket.getId(), ticket);
+            }
+            this.userId = userId;
+            this.highWaterMark = highWaterMark;
+            this.lastFullSync = lastFullSync;
+        }
+        fireChanged();
+    }
+
+    /**
+     * Removes all tickets and the sync state, e.g. because another user logged in.
+     */
+    public void clear() {
+        synchronized (this) {
+            tickets.clear();
+            userId = -1;
+            highWaterMark = null;
+            lastFullSync = null;
+        }
+        fireChanged();
+    }
+
+    public synchronized int getUserId() {
+        return userId;
+    }
+
+    /**
+     * Gets the latest {@code updated_at} of all tickets seen so far, or null if nothing was synced yet.
+     */
+    @Nullable
+    public synchronized Instant getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    /**
+     * Gets the start time of the last completed full sync, or null if there was none.
+     */
+    @Nullable
+    public synchronized Instant getLastFullSync() {
+        return lastFullSync;
+    }
+
+    public void addListener(@NotNull Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(@NotNull Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private void advanceHighWaterMark(Ticket ticket) {
+        Instant updatedAt = parseInstant(ticket.getUpdated_at());
+        if (updatedAt != null && (highWaterMark == null || updatedAt.isAfter(highWaterMark))) {
+            highWaterMark = updatedAt;
+        }
+    }
+
+    @Nullable
+    static Instant parseInstant(@Nullable String timestamp) {
+        if (timestamp == null || timestamp.isEmpty()) {
+            return null;
+        }
+        try {
+            return Instant.parse(timestamp);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private void fireChanged() {
+        for (Listener listener : listeners) {
+            listener.ticketsChanged();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package de.dp_coding.zammadplugin.api;
+
+import com.intellij.openapi.diagnostic.Logger;
+import de.dp_coding.zammadplugin.exception.ZammadException;
+import de.dp_coding.zammadplugin.model.Ticket;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Keeps a {@link TicketStore} in sync with the open tickets of the current user.
+ * <p>
+ * The first sync, a change of user and a periodic reconciliation fetch all open tickets. All other syncs
+ * only ask for the tickets of the user changed since the high-water mark of the store, regardless of their
+ * state, so tickets that were closed in the meantime are removed. The cost of a steady-state refresh
+ * therefore scales with the number of changed tickets, not with the size of the backlog.
+ * The reconciliation also catches tickets that were reassigned to someone else, which the delta query
+ * cannot see.
+ */
+public final class TicketSyncEngine {
+    private static final Logger LOG = Logger.getInstance(TicketSyncEngine.class);
+
+    private static final Duration FULL_SYNC_INTERVAL = Duration.ofMinutes(30);
+
+    /**
+     * Fetches all pages of a ticket search, handing each page to the consumer as it arrives.
+     */
+    @FunctionalInterface
+    public interface PageFetcher {
+        int fetch(String query, String sortBy, String orderBy, Consumer<List<Ticket>> pageConsumer) throws ZammadException;
+    }
+
+    private final TicketStore store;
+
+    public TicketSyncEngine(@NotNull TicketStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Brings the store up to date.
+     *
+     * @param userId The ID of the current user
+     * @param fetcher Fetches ticket search results page by page
+     * @param cancelled Returns true once the sync was cancelled
+     * @return The number of tickets received from the server
+     * @throws ZammadException If fetching fails; the store keeps the pages merged so far
+     */
+    public int sync(int userId, @NotNull PageFetcher fetcher, @NotNull BooleanSupplier cancelled) throws ZammadException {
+        if (needsFullSync(userId)) {
+            return fullSync(userId, fetcher, cancelled);
+        }
+        return deltaSync(userId, fetcher);
+    }
+
+    private boolean needsFullSync(int userId) {
+        Instant lastFullSync = store.getLastFullSync();
+        return store.getUserId() != userId
+            || lastFullSync == null
+            || store.getHighWaterMark() == null
+            || lastFullSync.plus(FULL_SYNC_INTERVAL).isBefore(Instant.now());
+    }
+
+    private int fullSync(int userId, PageFetcher fetcher, BooleanSupplier cancelled) throws ZammadException {
+        LOG.info("Running full ticket sync for user ID: " + userId);
+        if (store.getUserId() != userId && store.getUserId() != -1) {
+            store.clear();
+        }
+
+        Instant syncStart = Instant.now();
+        Set<Integer> seen = new HashSet<>();
+        int total = fetcher.fetch(ZammadApi.openTicketsQuery(userId), "id", "desc", page -> {
+            store.upsert(page);
+            for (Ticket ticket : page) {
+                seen.add(ticket.getId());
+            }
+        });
+
+        // A cancelled full sync saw only part of the tickets; don't drop the others
+        if (!cancelled.getAsBoolean()) {
+            store.completeFullSync(userId, seen, syncStart);
+        }
+        return total;
+    }
+
+    private int deltaSync(int userId, PageFetcher fetcher) throws ZammadException {
+        Instant since = store.getHighWaterMark();
+        // The bound is inclusive, so tickets updated in the same instant as the high-water mark are not missed
+        String query = "owner_id:" + userId + " AND updated_at:[\"" + DateTimeFormatter.ISO_INSTANT.format(since) + "\" TO *]";
+        LOG.info("Running delta ticket sync since " + since);
+        int total = fetcher.fetch(query, "updated_at", "asc",
+            page -> store.applyDelta(page, ticket -> ZammadApi.isOpenState(ticket.getState_id())));
+        LOG.info("Delta ticket sync received " + total + " changed tickets");
+        return total;
+    }
+}
@@ -8,6 +8,7 @@ import de.dp_coding.zammadplugin.model.User;
 import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.GET;
+import retrofit2.http.Header;
 import retrofit2.http.POST;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
@@ -21,10 +22,30 @@ import java.util.Set;
 public interface ZammadApi {
     /**
      * Get open tickets assigned to the current user with default query "state_id:4".
+     * The tickets are expanded, so state, priority, group, owner and customer names are included.
      */
     @GET("api/v1/tickets/search")
     default Call<List<Ticket>> getTicketsForCurrentUser(int userId) {
-        return getTicketsForCurrentUser("(state_id:4 OR state_id:1 OR state_id:10) AND owner_id:" + userId);
+        return searchTickets(openTicketsQuery(userId), true);
+    }
+
+    /**
+     * The IDs of the ticket states that are shown as open.
+     */
+    Set<String> OPEN_STATE_IDS = Set.of("4", "1", "10");
+
+    /**
+     * Build the search query for the open tickets assigned to a user.
+     */
+    static String openTicketsQuery(int userId) {
+        return "(state_id:4 OR state_id:1 OR state_id:10) AND owner_id:" + userId;
+    }
+
+    /**
+     * Check whether a ticket state ID is one of the {@link #OPEN_STATE_IDS}.
+     */
+    static boolean isOpenState(String stateId) {
+        return stateId != null && OPEN_STATE_IDS.contains(stateId);
     }
 
     /**
@@ -33,6 +54,25 @@ public interface ZammadApi {
     @GET("api/v1/tickets/search")
     Call<List<Ticket>> getTicketsForCurrentUser(@Query("query") String query);
 
+    /**
+     * Search tickets. With {@code expand=true}, Zammad replaces the referenced objects by their names
+     * (state, priority, group, owner, customer) in the same response.
+     */
+    @GET("api/v1/tickets/search")
+    Call<List<Ticket>> searchTickets(@Query("query") String query, @Query("expand") boolean expand);
+
+    /**
+     * Search tickets page by page. Pages are 1-based; a page with fewer than {@code perPage} tickets is the last one.
+     */
+    @GET("api/v1/tickets/search")
+    Call<List<Ticket>> searchTickets(
+            @Query("query") String query,
+            @Query("expand") boolean expand,
+            @Query("page") int page,
+            @Query("per_page") int perPage,
+            @Query("sort_by") String sortBy,
+            @Query("order_by") String orderBy);
+
     /**
      * Get time accounting entries for a specific ticket.
      */
@@ -47,6 +87,16 @@ public interface ZammadApi {
             @Path("ticketId") int ticketId,
             @Body TimeAccountingRequest request);
 
+    /**
+     * Create a new time accounting entry for a ticket, sending an idempotency key that stays the same
+     * when the request is retried.
+     */
+    @POST("api/v1/tickets/{ticketId}/time_accountings")
+    Call<TimeAccountingEntry> createTimeAccountingEntry(
+            @Path("ticketId") int ticketId,
+            @Body TimeAccountingRequest request,
+            @Header("Idempotency-Key") String idempotencyKey);
+
     /**
      * Get the current authenticated user.
      */
@@ -59,6 +109,12 @@ public interface ZammadApi {
     @GET("api/v1/users/{userId}")
     Call<User> getUserById(@Path("userId") int userId);
 
+    /**
+     * Search users. Used to fetch several users at once with a query like "id:(1 OR 2 OR 3)".
+     */
+    @GET("api/v1/users/search")
+    Call<List<User>> searchUsers(@Query("query") String query, @Query("limit") int limit);
+
     /**
      * Get tags for a specific ticket.
      */
@@ -70,4 +126,10 @@ public interface ZammadApi {
      */
     @GET("api/v1/ticket_articles/by_ticket/{ticketId}")
     Call<List<Article>> getTicketArticles(@Path("ticketId") int ticketId);
+
+    /**
+     * Get a single article, including its body.
+     */
+    @GET("api/v1/ticket_articles/{articleId}")
+    Call<Article> getArticle(@Path("articleId") int articleId);
 }
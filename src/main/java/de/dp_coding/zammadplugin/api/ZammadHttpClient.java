@@ -0,0 +1,177 @@
+package de.dp_coding.zammadplugin.api;
+
+import com.google.gson.Gson;
+import com.intellij.openapi.diagnostic.Logger;
+import okhttp3.Cache;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Long-lived HTTP client for one Zammad instance.
+ * All requests share one OkHttp connection pool and dispatcher, so connections (including negotiated
+ * TLS sessions and HTTP/2 streams) are reused across refreshes. Changing the API token only swaps the
+ * token used by the auth interceptor; the pool is not torn down.
+ * <p>
+ * GET responses are kept in an optional disk cache and revalidated according to {@link HttpCachePolicy}.
+ * Every call is traced by the {@link CallTracer} passed in, and synchronous calls from the EDT or a read action are
+ * caught by the {@link BlockingCallGuard}; bodies are not logged.
+ */
+public final class ZammadHttpClient {
+    private static final Logger LOG = Logger.getInstance(ZammadHttpClient.class);
+
+    // Zammad is a single host; a few idle connections are enough, HTTP/2 multiplexes over one of them
+    private static final int MAX_IDLE_CONNECTIONS = 5;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+    private static final int MAX_REQUESTS = 16;
+    private static final int MAX_REQUESTS_PER_HOST = 8;
+    private static final long DISK_CACHE_SIZE_BYTES = 20L * 1024 * 1024;
+
+    private final String baseUrl;
+    private final OkHttpClient httpClient;
+    @Nullable
+    private final Cache cache;
+    private final ZammadApi api;
+    private volatile String apiToken;
+
+    /**
+     * Creates a client for the given Zammad instance.
+     *
+     * @param baseUrl The URL of the Zammad instance, ending with a slash
+     * @param apiToken The API token used for authentication
+     * @param cacheDirectory Directory for the HTTP disk cache, or null to disable caching
+     * @param tracer Records the timing of every call and its deserialization
+     * @param blockingCallGuard Checks that no call blocks the UI
+     */
+    public ZammadHttpClient(@NotNull String baseUrl, @NotNull String apiToken, @Nullable File cacheDirectory,
+                            @NotNull CallTracer tracer, @NotNull BlockingCallGuard blockingCallGuard) {
+        this.baseUrl = baseUrl;
+        this.apiToken = apiToken;
+        this.cache = cacheDirectory != null ? new Cache(cacheDirectory, DISK_CACHE_SIZE_BYTES) : null;
+
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(MAX_REQUESTS);
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+
+        AtomicReference<OkHttpClient> self = new AtomicReference<>();
+        httpClient = new OkHttpClient.Builder()
+            .cache(cache)
+            .addInterceptor(blockingCallGuard)
+            .addInterceptor(new HttpCachePolicy.StaleWhileRevalidateInterceptor(self::get))
+            .addInterceptor(chain -> {
+                Request request = chain.request().newBuilder()
+                    .header("Authorization", "Bearer " + this.apiToken)
+                    .build();
+                return chain.proceed(request);
+            })
+            .addNetworkInterceptor(new HttpCachePolicy.NetworkInterceptor())
+            .eventListenerFactory(tracer.listenerFactory())
+            .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+            .dispatcher(dispatcher)
+            .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+            .connectTimeout(30, TimeUnit.SECONDS)
+            .readTimeout(30, TimeUnit.SECONDS)
+            .build();
+        self.set(httpClient);
+
+        Gson gson = ZammadJson.builder()
+            .setLenient()
+            .create();
+
+        Retrofit retrofit = new Retrofit.Builder()
+            .baseUrl(baseUrl)
+            .client(httpClient)
+            .addConverterFactory(tracer.converterFactory(GsonConverterFactory.create(gson)))
+            .build();
+
+        api = retrofit.create(ZammadApi.class);
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public ZammadApi getApi() {
+        return api;
+    }
+
+    /**
+     * Replaces the API token for all subsequent requests. Existing connections are kept,
+     * but cached responses are dropped since they may belong to another user.
+     *
+     * @param apiToken The new API token
+     */
+    public void setApiToken(@NotNull String apiToken) {
+        if (!apiToken.equals(this.apiToken)) {
+            this.apiToken = apiToken;
+            evictCache();
+        }
+    }
+
+    /**
+     * Removes all responses from the HTTP disk cache.
+     */
+    public void evictCache() {
+        if (cache == null) {
+            return;
+        }
+        try {
+            cache.evictAll();
+        } catch (IOException e) {
+            LOG.warn("Failed to clear the HTTP cache", e);
+        }
+    }
+
+    /**
+     * Opens a connection to the Zammad instance in the background, so that DNS lookup, TCP and TLS
+     * handshakes are done before the first real request needs them.
+     */
+    public void warmUp() {
+        Request request = new Request.Builder()
+            .url(baseUrl)
+            .head()
+            .build();
+        httpClient.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onResponse(@NotNull Call call, @NotNull Response response) {
+                response.close();
+                LOG.info("Pre-connected to " + baseUrl);
+            }
+
+            @Override
+            public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                LOG.info("Pre-connect to " + baseUrl + " failed: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Cancels all running requests, closes the pooled connections and the disk cache.
+     */
+    public void shutdown() {
+        httpClient.dispatcher().cancelAll();
+        httpClient.connectionPool().evictAll();
+        if (cache != null) {
+            try {
+                cache.close();
+            } catch (IOException e) {
+                LOG.warn("Failed to close the HTTP cache", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package de.dp_coding.zammadplugin.api;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import de.dp_coding.zammadplugin.model.Article;
+import de.dp_coding.zammadplugin.model.Ticket;
+import de.dp_coding.zammadplugin.model.TimeAccountingEntry;
+import de.dp_coding.zammadplugin.model.TimeAccountingRequest;
+import de.dp_coding.zammadplugin.model.User;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JSON mapping of the model classes to the Zammad API.
+ * <p>
+ * Every model class has a hand-written streaming type adapter, so Gson neither reflects over the final fields nor
+ * allocates the objects through {@code Unsafe}. Fields the plugin does not use are skipped without building a tree.
+ * Strings with few distinct values, such as states, priorities and article types, are shared between all objects,
+ * so thousands of tickets do not each keep their own copy.
+ * <p>
+ * The adapters read the field names Zammad sends. For articles, the field names of the model are accepted as well.
+ */
+public final class ZammadJson {
+    private static final StringPool POOL = new StringPool();
+
+    private ZammadJson() {
+    }
+
+    /**
+     * Creates a Gson builder with the adapters of all model classes registered.
+     */
+    @NotNull
+    public static GsonBuilder builder() {
+        return new GsonBuilder()
+            .registerTypeAdapter(Ticket.class, new TicketAdapter().nullSafe())
+            .registerTypeAdapter(Article.class, new ArticleAdapter().nullSafe())
+            .registerTypeAdapter(User.class, new UserAdapter().nullSafe())
+            .registerTypeAdapter(TimeAccountingEntry.class, new TimeAccountingEntryAdapter().nullSafe())
+            .registerTypeAdapter(TimeAccountingRequest.class, new TimeAccountingRequestAdapter().nullSafe());
+    }
+
+    /**
+     * Creates a Gson instance with the adapters of all model classes registered.
+     */
+    @NotNull
+    public static Gson create() {
+        return builder().create();
+    }
+
+    static final class TicketAdapter extends TypeAdapter<Ticket> {
+        @Override
+        public void write(JsonWriter out, Ticket ticket) throws IOException {
+            out.beginObject();
+            out.name("id").value(ticket.getId());
+            out.name("title").value(ticket.getTitle());
+            out.name("number").value(ticket.getNumber());
+            out.name("state_id").value(ticket.getState_id());
+            out.name("priority").value(ticket.getPriority());
+            out.name("group").value(ticket.getGroup());
+            out.name("customer_id").value(ticket.getCustomer_id());
+            out.name("created_at").value(ticket.getCreated_at());
+            out.name("updated_at").value(ticket.getUpdated_at());
+            out.name("state").value(ticket.getState());
+            out.name("owner_id").value(ticket.getOwner_id());
+            out.name("owner").value(ticket.getOwner());
+            out.name("customer").value(ticket.getCustomer());
+            out.endObject();
+        }
+
+        @Override
+        public Ticket read(JsonReader in) throws IOException {
+            int id = 0;
+            String title = null;
+            String number = null;
+            String stateId = null;
+            String priority = null;
+            String group = null;
+            String customerId = null;
+            String createdAt = null;
+            String updatedAt = null;
+            String state = null;
+            String ownerId = null;
+            String owner = null;
+            String customer = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id" -> id = readInt(in);
+                    case "title" -> title = readString(in);
+                    case "number" -> number = readString(in);
+                    case "state_id" -> stateId = POOL.intern(readString(in));
+                    case "priority" -> priority = POOL.intern(readString(in));
+                    case "group" -> group = POOL.intern(readString(in));
+                    case "customer_id" -> customerId = readString(in);
+                    case "created_at" -> createdAt = readString(in);
+                    case "updated_at" -> updatedAt = readString(in);
+                    case "state" -> state = POOL.intern(readString(in));
+                    case "owner_id" -> ownerId = POOL.intern(readString(in));
+                    case "owner" -> owner = POOL.intern(readString(in));
+                    case "customer" -> customer = readString(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new Ticket(id, title, number, stateId, priority, group, customerId, createdAt, updatedAt,
+                state, ownerId, owner, customer);
+        }
+    }
+
+    static final class ArticleAdapter extends TypeAdapter<Article> {
+        @Override
+        public void write(JsonWriter out, Article article) throws IOException {
+            out.beginObject();
+            out.name("id").value(article.getId());
+            out.name("ticket_id").value(article.getTicketId());
+            out.name("type").value(article.getType());
+            out.name("body").value(article.getBody());
+            out.name("subject").value(article.getSubject());
+            out.name("content_type").value(article.getContentType());
+            out.name("internal");
+            if ("true".equals(article.getInternalNote()) || "false".equals(article.getInternalNote())) {
+                out.value(Boolean.parseBoolean(article.getInternalNote()));
+            } else {
+                out.value(article.getInternalNote());
+            }
+            out.name("created_at").value(article.getCreatedAt());
+            out.name("updated_at").value(article.getUpdatedAt());
+            out.name("created_by_id").value(article.getCreatedById());
+            out.name("from").value(article.getFrom());
+            out.endObject();
+        }
+
+        @Override
+        public Article read(JsonReader in) throws IOException {
+            int id = 0;
+            int ticketId = 0;
+            String type = null;
+            String body = null;
+            String subject = null;
+            String contentType = null;
+            String internal = null;
+            String createdAt = null;
+            String updatedAt = null;
+            int createdById = 0;
+            String from = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id" -> id = readInt(in);
+                    case "ticket_id", "ticketId" -> ticketId = readInt(in);
+                    case "type" -> type = POOL.intern(readString(in));
+                    case "body" -> body = readString(in);
+                    case "subject" -> subject = readString(in);
+                    case "content_type", "contentType" -> contentType = POOL.intern(readString(in));
+                    case "internal", "internalNote" -> internal = POOL.intern(readString(in));
+                    case "created_at", "createdAt" -> createdAt = readString(in);
+                    case "updated_at", "updatedAt" -> updatedAt = readString(in);
+                    case "created_by_id", "createdById" -> createdById = readInt(in);
+                    case "from" -> from = readString(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new Article(id, ticketId, type, body, subject, contentType, internal, createdAt, updatedAt,
+                createdById, from);
+        }
+    }
+
+    static final class UserAdapter extends TypeAdapter<User> {
+        @Override
+        public void write(JsonWriter out, User user) throws IOException {
+            out.beginObject();
+            out.name("id").value(user.getId());
+            out.name("login").value(user.getLogin());
+            out.name("firstname").value(user.getFirstname());
+            out.name("lastname").value(user.getLastname());
+            out.name("email").value(user.getEmail());
+            out.name("image").value(user.getImage());
+            out.name("created_at").value(user.getCreated_at());
+            out.name("updated_at").value(user.getUpdated_at());
+            out.endObject();
+        }
+
+        @Override
+        public User read(JsonReader in) throws IOException {
+            int id = 0;
+            String login = null;
+            String firstname = null;
+            String lastname = null;
+            String email = null;
+            String image = null;
+            String createdAt = null;
+            String updatedAt = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id" -> id = readInt(in);
+                    case "login" -> login = readString(in);
+                    case "firstname" -> firstname = readString(in);
+                    case "lastname" -> lastname = readString(in);
+                    case "email" -> email = readString(in);
+                    case "image" -> image = readString(in);
+                    case "created_at" -> createdAt = readString(in);
+                    case "updated_at" -> updatedAt = readString(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new User(id, login, firstname, lastname, email, image, createdAt, updatedAt);
+        }
+    }
+
+    static final class TimeAccountingEntryAdapter extends TypeAdapter<TimeAccountingEntry> {
+        @Override
+        public void write(JsonWriter out, TimeAccountingEntry entry) throws IOException {
+            out.beginObject();
+            out.name("id").value(entry.getId());
+            out.name("ticket_id").value(entry.getTicketId());
+            out.name("time_unit").value(entry.getTime());
+            out.name("created_at").value(entry.getCreatedAt());
+            out.name("updated_at").value(entry.getUpdatedAt());
+            out.name("note").value(entry.getNote());
+            out.name("created_by_id").value(entry.getCreatedBy());
+            out.endObject();
+        }
+
+        @Override
+        public TimeAccountingEntry read(JsonReader in) throws IOException {
+            int id = 0;
+            int ticketId = 0;
+            String time = null;
+            String createdAt = null;
+            String updatedAt = null;
+            String note = null;
+            String createdBy = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id" -> id = readInt(in);
+                    case "ticket_id" -> ticketId = readInt(in);
+                    case "time_unit" -> time = readString(in);
+                    case "created_at" -> createdAt = readString(in);
+                    case "updated_at" -> updatedAt = readString(in);
+                    case "note" -> note = readString(in);
+                    case "created_by_id" -> createdBy = POOL.intern(readString(in));
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new TimeAccountingEntry(id, ticketId, time, createdAt, updatedAt, note, createdBy);
+        }
+    }
+
+    static final class TimeAccountingRequestAdapter extends TypeAdapter<TimeAccountingRequest> {
+        @Override
+        public void write(JsonWriter out, TimeAccountingRequest request) throws IOException {
+            out.beginObject();
+            out.name("ticket_id").value(request.getTicketId());
+            out.name("time_unit").value(request.getTime());
+            out.endObject();
+        }
+
+        @Override
+        public TimeAccountingRequest read(JsonReader in) throws IOException {
+            int ticketId = 0;
+            String time = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "ticket_id" -> ticketId = readInt(in);
+                    case "time_unit" -> time = readString(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            // The request is created from "HH:MM:SS", but sends minutes
+            long seconds = 0;
+            if (time != null) {
+                try {
+                    seconds = Math.round(Double.parseDouble(time) * 60);
+                } catch (NumberFormatException e) {
+                    throw new JsonSyntaxException("Invalid time_unit: " + time, e);
+                }
+            }
+            return new TimeAccountingRequest(ticketId,
+                String.format("%02d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60));
+        }
+    }
+
+    /**
+     * Reads a string, number or boolean as a string. Objects and arrays, which Zammad sends for some fields
+     * depending on the query, are skipped.
+     */
+    @Nullable
+    private static String readString(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        switch (token) {
+            case NULL -> {
+                in.nextNull();
+                return null;
+            }
+            case BOOLEAN -> {
+                return in.nextBoolean() ? "true" : "false";
+            }
+            case BEGIN_OBJECT, BEGIN_ARRAY -> {
+                in.skipValue();
+                return null;
+            }
+            default -> {
+                return in.nextString();
+            }
+        }
+    }
+
+    private static int readInt(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NUMBER || token == JsonToken.STRING) {
+            try {
+                return in.nextInt();
+            } catch (NumberFormatException e) {
+                throw new JsonSyntaxException(e);
+            }
+        }
+        in.skipValue();
+        return 0;
+    }
+
+    /**
+     * Canonical instances of strings with few distinct values. The pool stops growing at a fixed size, so fields
+     * that turn out to have many values cost a lookup, but no memory.
+     */
+    private static final class StringPool {
+        private static final int MAX_SIZE = 4096;
+
+        private final ConcurrentHashMap<String, String> strings = new ConcurrentHashMap<>();
+
+        @Nullable
+        String intern(@Nullable String value) {
+            if (value == null) {
+                return null;
+            }
+            String pooled = strings.get(value);
+            if (pooled != null) {
+                return pooled;
+            }
+            if (strings.size() >= MAX_SIZE) {
+                return value;
+            }
+            pooled = strings.putIfAbsent(value, value);
+            return pooled != null ? pooled : value;
+        }
+    }
+}
@@ -1,50 +1,147 @@
 package de.dp_coding.zammadplugin.api;
 
-import com.google.gson.GsonBuilder;
-import com.intellij.ide.util.PropertiesComponent;
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
 import com.intellij.openapi.components.Service;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.serviceContainer.NonInjectable;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import de.dp_coding.zammadplugin.exception.ApiException;
 import de.dp_coding.zammadplugin.exception.ConfigurationException;
+import de.dp_coding.zammadplugin.exception.ErrorHandler;
 import de.dp_coding.zammadplugin.exception.FeatureNotEnabledException;
 import de.dp_coding.zammadplugin.exception.ZammadException;
 import de.dp_coding.zammadplugin.model.Article;
+import de.dp_coding.zammadplugin.model.ArticleHeader;
 import de.dp_coding.zammadplugin.model.Ticket;
 import de.dp_coding.zammadplugin.model.TimeAccountingEntry;
 import de.dp_coding.zammadplugin.model.TimeAccountingRequest;
 import de.dp_coding.zammadplugin.model.User;
-import okhttp3.OkHttpClient;
-import okhttp3.logging.HttpLoggingInterceptor;
-import retrofit2.Retrofit;
-import retrofit2.converter.gson.GsonConverterFactory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
-import java.util.ArrayList;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 /**
  * Service for communicating with the Zammad API.
+ * <p>
+ * Every endpoint is available as a blocking method and as an {@code ...Async} variant returning a
+ * {@link CompletableFuture}. The blocking methods must not be called on the EDT; UI code should use
+ * the async variants, which run the request on a dedicated bounded executor.
+ * Concurrent identical read requests are coalesced into a single HTTP call.
  */
 @Service
-public final class ZammadService {
+public final class ZammadService implements Disposable {
     private static final Logger LOG = Logger.getInstance(ZammadService.class);
 
-    private ZammadApi zammadApi;
-    private final PropertiesComponent propertiesComponent = PropertiesComponent.getInstance();
+    private static final int MAX_CONCURRENT_REQUESTS = 4;
+    // Upper bound for the article header cache, in characters of article metadata
+    private static final long ARTICLE_CACHE_MAX_CHARS = 2L * 1024 * 1024;
+    // Upper bounds for the article bodies, in compressed bytes; bodies beyond them are fetched again when needed
+    private static final long ARTICLE_BODY_MEMORY_MAX_BYTES = 4L * 1024 * 1024;
+    private static final long ARTICLE_BODY_DISK_MAX_BYTES = 64L * 1024 * 1024;
+    // Maximum number of user IDs per users/search query, keeping the query string reasonably short
+    private static final int USER_BATCH_SIZE = 50;
+    // Upper bound for the article headers saved in the local state file, in characters of article metadata
+    private static final long PERSISTED_ARTICLES_MAX_CHARS = 512L * 1024;
+    // Tags and articles restored from disk are shown right away, but refreshed soon after
+    private static final Duration RESTORED_ENTRY_TTL = Duration.ofMinutes(1);
+
+    private volatile ZammadHttpClient httpClient;
+    private volatile ZammadApi zammadApi;
+    private final SettingsStore settings;
+    // Outlive the HTTP client, which is recreated when the URL changes
+    private final HttpMetrics httpMetrics = new HttpMetrics();
+    private final CallTracer callTracer = new CallTracer(httpMetrics);
+    private final BlockingCallGuard blockingCallGuard = new BlockingCallGuard();
+    // Open tickets of the current user, kept up to date by the sync engine
+    private final TicketStore ticketStore = new TicketStore();
+    private final TicketSyncEngine ticketSyncEngine = new TicketSyncEngine(ticketStore);
+    // Lets concurrent identical read requests share one HTTP call
+    private final SingleFlight singleFlight = new SingleFlight();
+    // Executor backing the async API, so that slow Zammad responses never block the calling thread
+    private final ExecutorService apiExecutor =
+        AppExecutorUtil.createBoundedApplicationPoolExecutor("Zammad API", MAX_CONCURRENT_REQUESTS);
     // Cache for user information to avoid unnecessary API calls
-    private final Map<Integer, User> userCache = new HashMap<>();
-    // Cache for ticket tags to avoid unnecessary API calls
-    private final Map<Integer, List<String>> tagCache = new HashMap<>();
-    // Cache for ticket articles to avoid unnecessary API calls
-    private final Map<Integer, List<Article>> articleCache = new HashMap<>();
+    private final ExpiringCache<Integer, User> userCache =
+        new ExpiringCache<>("users", 2000, Duration.ofMinutes(30));
+    // Cache for ticket tags to avoid unnecessary API calls; tags change often, so they expire quickly
+    private final ExpiringCache<Integer, List<String>> tagCache =
+        new ExpiringCache<>("tags", 1000, Duration.ofMinutes(5));
+    // Cache for the article headers of tickets to avoid unnecessary API calls; the bodies are kept separately
+    private final ExpiringCache<Integer, List<ArticleHeader>> articleCache =
+        new ExpiringCache<>("articles", ARTICLE_CACHE_MAX_CHARS, Duration.ofMinutes(10), ZammadService::weighArticles);
+    // Article bodies, compressed in memory and spilled to disk, loaded on demand
+    private final ArticleBodyStore articleBodies = new ArticleBodyStore(getArticleBodyDirectory(),
+        ARTICLE_BODY_MEMORY_MAX_BYTES, ARTICLE_BODY_DISK_MAX_BYTES);
+    // Tickets whose bodies were fetched in this session; the bodies of the others are fetched together
+    private final Set<Integer> ticketsWithBodies = ConcurrentHashMap.newKeySet();
+    // Time accounting entries per ticket, valid as long as the ticket's updated_at is unchanged. Not bounded by an
+    // LRU, which would evict every entry before its reuse once a refresh covers more tickets than it holds; entries
+    // of tickets that left the store are dropped instead
+    private final Map<Integer, TicketTimeAccountings> timeAccountingCache = new ConcurrentHashMap<>();
+    private final AtomicLong timeAccountingHits = new AtomicLong();
+    private final AtomicLong timeAccountingMisses = new AtomicLong();
+    // Set once Zammad reports time accounting as disabled, so that refreshes stop asking until the settings change
+    private volatile FeatureNotEnabledException timeAccountingDisabled;
+    // Last known state from the previous session, loaded in the background, and loaded again for another instance
+    // or token; syncs wait for it
+    private volatile CompletableFuture<Void> localStateLoaded;
+    // Serializes the writes of the local state file, which share one temporary file
+    private final Object localStateLock = new Object();
 
     private static final String ZAMMAD_URL_KEY = "de.dp_coding.zammadplugin.zammadUrl";
     private static final String ZAMMAD_TOKEN_KEY = "de.dp_coding.zammadplugin.zammadToken";
+    private static final String TICKET_PAGE_SIZE_KEY = "de.dp_coding.zammadplugin.ticketPageSize";
+    private static final String PRECONNECT_KEY = "de.dp_coding.zammadplugin.preconnect";
+
+    public static final int DEFAULT_TICKET_PAGE_SIZE = 50;
+    public static final int MIN_TICKET_PAGE_SIZE = 10;
+    public static final int MAX_TICKET_PAGE_SIZE = 500;
+
+    public ZammadService() {
+        this(SettingsStore.applicationProperties());
+    }
+
+    /**
+     * Creates a service with its own settings, e.g. to run it against a local server without an IDE.
+     * The service is then not registered anywhere and must be disposed by the caller.
+     *
+     * @param settings Where the service keeps its URL, token and other settings
+     */
+    @NonInjectable
+    public ZammadService(@NotNull SettingsStore settings) {
+        this.settings = settings;
+        File file = getLocalStateFile();
+        this.localStateLoaded = CompletableFuture.runAsync(() -> loadLocalState(file), apiExecutor);
+    }
 
     public static ZammadService getInstance() {
         return ApplicationManager.getApplication().getService(ZammadService.class);
@@ -52,28 +149,96 @@ public final class ZammadService {
 
     /**
      * Initialize the Zammad API client with the provided URL and token.
+     * If the instance or token changed, the synced tickets and caches of the previous one are saved and replaced by
+     * the local state of the new one in the background; syncs wait for that.
      */
     public void initialize(String zammadUrl, String apiToken) {
+        // Synced tickets belong to the previous instance or user
+        if (!zammadUrl.equals(getZammadUrl()) || !apiToken.equals(getApiToken())) {
+            File previousFile = getLocalStateFile();
+            File newFile = getLocalStateFile(zammadUrl, apiToken);
+            // After the load in progress, which would otherwise restore the previous state after it was cleared
+            localStateLoaded = localStateLoaded.handleAsync((ignored, error) -> {
+                switchLocalState(previousFile, newFile);
+                return null;
+            }, apiExecutor);
+        }
+
+        // The administrator may have enabled time accounting in the meantime
+        timeAccountingDisabled = null;
+
         // Save settings
-        propertiesComponent.setValue(ZAMMAD_URL_KEY, zammadUrl);
-        propertiesComponent.setValue(ZAMMAD_TOKEN_KEY, apiToken);
+        settings.setValue(ZAMMAD_URL_KEY, zammadUrl);
+        settings.setValue(ZAMMAD_TOKEN_KEY, apiToken);
 
         // Create API client
         createApiClient(zammadUrl, apiToken);
     }
 
+    /**
+     * Saves the state of the previous instance or token to its own file, so switching back starts where it left
+     * off, and restores the state of the new one.
+     */
+    private void switchLocalState(@Nullable File previousFile, @Nullable File newFile) {
+        saveLocalState(previousFile);
+        ticketStore.clear();
+        userCache.invalidateAll();
+        tagCache.invalidateAll();
+        timeAccountingCache.clear();
+        clearArticleCache();
+        loadLocalState(newFile);
+    }
+
     /**
      * Get the Zammad URL from settings.
      */
     public String getZammadUrl() {
-        return propertiesComponent.getValue(ZAMMAD_URL_KEY, "");
+        return Objects.requireNonNullElse(settings.getValue(ZAMMAD_URL_KEY), "");
     }
 
     /**
      * Get the API token from settings.
      */
     public String getApiToken() {
-        return propertiesComponent.getValue(ZAMMAD_TOKEN_KEY, "");
+        return Objects.requireNonNullElse(settings.getValue(ZAMMAD_TOKEN_KEY), "");
+    }
+
+    /**
+     * Get the number of tickets fetched per request when streaming the ticket list.
+     */
+    public int getTicketPageSize() {
+        int pageSize = DEFAULT_TICKET_PAGE_SIZE;
+        String value = settings.getValue(TICKET_PAGE_SIZE_KEY);
+        if (value != null) {
+            try {
+                pageSize = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                LOG.warn("Ignoring invalid ticket page size: " + value);
+            }
+        }
+        return Math.max(MIN_TICKET_PAGE_SIZE, Math.min(MAX_TICKET_PAGE_SIZE, pageSize));
+    }
+
+    /**
+     * Set the number of tickets fetched per request when streaming the ticket list.
+     */
+    public void setTicketPageSize(int pageSize) {
+        settings.setValue(TICKET_PAGE_SIZE_KEY, pageSize == DEFAULT_TICKET_PAGE_SIZE ? null : String.valueOf(pageSize));
+    }
+
+    /**
+     * Check if a connection should be opened in advance when the tool window is shown.
+     */
+    public boolean isPreconnectEnabled() {
+        String value = settings.getValue(PRECONNECT_KEY);
+        return value == null || Boolean.parseBoolean(value);
+    }
+
+    /**
+     * Enable or disable opening a connection in advance when the tool window is shown.
+     */
+    public void setPreconnectEnabled(boolean enabled) {
+        settings.setValue(PRECONNECT_KEY, enabled ? null : "false");
     }
 
     /**
@@ -94,6 +259,10 @@ public final class ZammadService {
      * @throws ZammadException If there is another error
      */
     public List<Ticket> getTicketsForCurrentUser() throws ZammadException {
+        return singleFlight.execute("tickets/search/open", this::fetchTicketsForCurrentUser);
+    }
+
+    private List<Ticket> fetchTicketsForCurrentUser() throws ZammadException {
         if (!isConfigured()) {
             LOG.warn("Zammad service is not configured");
             throw new ConfigurationException("Zammad service is not configured. Please set the Zammad URL and API token.");
@@ -145,6 +314,64 @@ public final class ZammadService {
         }
     }
 
+    /**
+     * Fetch all pages of a ticket search.
+     * Each page is handed to the consumer as soon as it arrives and is not retained by the service,
+     * so memory use does not grow with the number of tickets.
+     *
+     * @param query The search query
+     * @param sortBy The field to sort by
+     * @param orderBy "asc" or "desc"
+     * @param pageSize Number of tickets per request
+     * @param pageConsumer Called with every page, on the calling thread
+     * @param cancelled Checked before every page; fetching stops once it returns true
+     * @param inFlight Receives the currently executing call, so that it can be cancelled from another thread
+     * @return Total number of tickets delivered
+     * @throws ConfigurationException If the service is not configured
+     * @throws ApiException If there is an error communicating with the API
+     * @throws ZammadException If there is another error
+     */
+    private int fetchTicketPages(String query, String sortBy, String orderBy, int pageSize,
+                                 Consumer<List<Ticket>> pageConsumer, BooleanSupplier cancelled,
+                                 AtomicReference<retrofit2.Call<?>> inFlight) throws ZammadException {
+        int total = 0;
+        try {
+            for (int page = 1; !cancelled.getAsBoolean(); page++) {
+                LOG.info("Fetching ticket page " + page);
+                retrofit2.Call<List<Ticket>> call = zammadApi.searchTickets(query, true, page, pageSize, sortBy, orderBy);
+                inFlight.set(call);
+                retrofit2.Response<List<Ticket>> response = call.execute();
+
+                if (!response.isSuccessful()) {
+                    String errorBody = response.errorBody() != null ? response.errorBody().string() : "Unknown error";
+                    LOG.warn("Failed to fetch tickets: " + errorBody);
+                    throw new ApiException("Failed to fetch tickets: " + errorBody, response.code());
+                }
+
+                List<Ticket> tickets = response.body();
+                if (tickets == null || tickets.isEmpty()) {
+                    break;
+                }
+                total += tickets.size();
+                pageConsumer.accept(tickets);
+                if (tickets.size() < pageSize) {
+                    break;
+                }
+            }
+            LOG.info("Fetched " + total + " tickets");
+            return total;
+        } catch (IOException e) {
+            if (cancelled.getAsBoolean()) {
+                LOG.info("Ticket fetch cancelled after " + total + " tickets");
+                return total;
+            }
+            LOG.warn("IO error while fetching tickets", e);
+            throw new ApiException("Network error while fetching tickets", e);
+        } finally {
+            inFlight.set(null);
+        }
+    }
+
     /**
      * Get time accounting entries for a specific ticket.
      *
@@ -156,6 +383,10 @@ public final class ZammadService {
      * @throws ZammadException If there is another error
      */
     public List<TimeAccountingEntry> getTimeAccountingEntries(int ticketId) throws ZammadException {
+        return singleFlight.execute("tickets/" + ticketId + "/time_accountings", () -> fetchTimeAccountingEntries(ticketId));
+    }
+
+    private List<TimeAccountingEntry> fetchTimeAccountingEntries(int ticketId) throws ZammadException {
         if (!isConfigured()) {
             LOG.warn("Zammad service is not configured");
             throw new ConfigurationException("Zammad service is not configured. Please set the Zammad URL and API token.");
@@ -212,6 +443,23 @@ public final class ZammadService {
      * @throws ZammadException If there is another error
      */
     public TimeAccountingEntry createTimeAccountingEntry(int ticketId, String time) throws ZammadException {
+        return createTimeAccountingEntry(ticketId, time, null);
+    }
+
+    /**
+     * Create a new time accounting entry for a ticket.
+     *
+     * @param ticketId The ID of the ticket to create a time entry for
+     * @param time The time to record in the format "HH:MM:SS"
+     * @param idempotencyKey Key identifying this entry across retries, sent as {@code Idempotency-Key} header, or null
+     * @return The created time accounting entry
+     * @throws ConfigurationException If the service is not configured
+     * @throws FeatureNotEnabledException If time accounting is not enabled in the Zammad instance
+     * @throws ApiException If there is an error communicating with the API
+     * @throws ZammadException If there is another error
+     */
+    public TimeAccountingEntry createTimeAccountingEntry(int ticketId, String time, @Nullable String idempotencyKey)
+            throws ZammadException {
         if (!isConfigured()) {
             LOG.warn("Zammad service is not configured");
             throw new ConfigurationException("Zammad service is not configured. Please set the Zammad URL and API token.");
@@ -230,7 +478,7 @@ public final class ZammadService {
         try {
             LOG.info("Creating time accounting entry for ticket ID: " + ticketId + " with time: " + time);
             TimeAccountingRequest request = new TimeAccountingRequest(ticketId, time);
-            retrofit2.Call<TimeAccountingEntry> call = zammadApi.createTimeAccountingEntry(ticketId, request);
+            retrofit2.Call<TimeAccountingEntry> call = zammadApi.createTimeAccountingEntry(ticketId, request, idempotencyKey);
             retrofit2.Response<TimeAccountingEntry> response = call.execute();
 
             if (!response.isSuccessful()) {
@@ -255,6 +503,7 @@ public final class ZammadService {
             }
 
             LOG.info("Created time accounting entry with ID: " + entry.getId());
+            timeAccountingCache.remove(ticketId);
             return entry;
         } catch (IOException e) {
             LOG.warn("IO error while creating time accounting entry", e);
@@ -271,6 +520,10 @@ public final class ZammadService {
      * @throws ZammadException If there is another error
      */
     public User getCurrentUser() throws ZammadException {
+        return singleFlight.execute("users/me", this::fetchCurrentUser);
+    }
+
+    private User fetchCurrentUser() throws ZammadException {
         if (!isConfigured()) {
             LOG.warn("Zammad service is not configured");
             throw new ConfigurationException("Zammad service is not configured. Please set the Zammad URL and API token.");
@@ -321,6 +574,10 @@ public final class ZammadService {
      * @throws ZammadException If there is another error
      */
     public User getUserById(int userId) throws ZammadException {
+        return singleFlight.execute("users/" + userId, () -> fetchUserById(userId));
+    }
+
+    private User fetchUserById(int userId) throws ZammadException {
         // Check cache first
         User cachedUser = userCache.get(userId);
         if (cachedUser != null) {
@@ -371,12 +628,118 @@ public final class ZammadService {
         }
     }
 
+    /**
+     * Get several users by ID with as few requests as possible.
+     * Users that are not cached yet are fetched in chunks through a single users/search query per chunk,
+     * and all results are put into the user cache.
+     * Users that the search does not return (e.g. because the search index is unavailable) are
+     * simply missing from the result; callers can fall back to {@link #getUserById(int)} for them.
+     *
+     * @param userIds The IDs of the users to get
+     * @return Map from user ID to user for all users that could be found
+     * @throws ConfigurationException If the service is not configured
+     * @throws ApiException If there is an error communicating with the API
+     * @throws ZammadException If there is another error
+     */
+    public Map<Integer, User> getUsersByIds(Collection<Integer> userIds) throws ZammadException {
+        return singleFlight.execute("users/search/" + new TreeSet<>(userIds), () -> fetchUsersByIds(userIds));
+    }
+
+    private Map<Integer, User> fetchUsersByIds(Collection<Integer> userIds) throws ZammadException {
+        Map<Integer, User> result = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer userId : new LinkedHashSet<>(userIds)) {
+            User cachedUser = userCache.get(userId);
+            if (cachedUser != null) {
+                result.put(userId, cachedUser);
+            } else {
+                missing.add(userId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        if (!isConfigured()) {
+            LOG.warn("Zammad service is not configured");
+            throw new ConfigurationException("Zammad service is not configured. Please set the Zammad URL and API token.");
+        }
+
+        if (zammadApi == null) {
+            createApiClient(getZammadUrl(), getApiToken());
+        }
+
+        // Call the Zammad API to search the users by ID
+        if (zammadApi == null) {
+            LOG.warn("Zammad API client is not initialized");
+            throw new ConfigurationException("Zammad API client is not initialized.");
+        }
+
+        try {
+            for (int from = 0; from < missing.size(); from += USER_BATCH_SIZE) {
+                List<Integer> chunk = missing.subList(from, Math.min(from + USER_BATCH_SIZE, missing.size()));
+                LOG.info("Fetching " + chunk.size() + " users in one request");
+                retrofit2.Call<List<User>> call = zammadApi.searchUsers(buildIdQuery(chunk), chunk.size());
+                retrofit2.Response<List<User>> response = call.execute();
+
+                if (!response.isSuccessful()) {
+                    String errorBody = response.errorBody() != null ? response.errorBody().string() : "Unknown error";
+                    LOG.warn("Failed to fetch users: " + errorBody);
+                    throw new ApiException("Failed to fetch users: " + errorBody, response.code());
+                }
+
+                List<User> users = response.body();
+                if (users == null) {
+                    LOG.warn("Users response body is null");
+                    continue;
+                }
+
+                // Cache the users for future requests; the search may return other matches, so filter by ID
+                Set<Integer> requested = new HashSet<>(chunk);
+                for (User user : users) {
+                    if (requested.contains(user.getId())) {
+                        userCache.put(user.getId(), user);
+                        result.put(user.getId(), user);
+                    }
+                }
+            }
+            LOG.info("Resolved " + result.size() + " of " + userIds.size() + " requested users");
+            return result;
+        } catch (IOException e) {
+            LOG.warn("IO error while fetching users", e);
+            throw new ApiException("Network error while fetching users", e);
+        }
+    }
+
+    private static String buildIdQuery(List<Integer> userIds) {
+        StringBuilder query = new StringBuilder("id:(");
+        for (int i = 0; i < userIds.size(); i++) {
+            if (i > 0) {
+                query.append(" OR ");
+            }
+            query.append(userIds.get(i));
+        }
+        return query.append(')').toString();
+    }
+
+    /**
+     * Get a user from the cache without contacting the API.
+     * This is safe to call from the EDT, e.g. while rendering.
+     *
+     * @param userId The ID of the user to get
+     * @return The cached user, or null if the user has not been fetched yet
+     */
+    @Nullable
+    public User getCachedUser(int userId) {
+        return userCache.get(userId);
+    }
+
     /**
      * Clear the user cache.
      * This can be useful in scenarios where you want to force a refresh of user data.
      */
     public void clearUserCache() {
-        userCache.clear();
+        userCache.invalidateAll();
     }
 
     /**
@@ -390,6 +753,10 @@ public final class ZammadService {
      * @throws ZammadException If there is another error
      */
     public List<String> getTicketTags(int ticketId) throws ZammadException {
+        return singleFlight.execute("tickets/" + ticketId + "/tags", () -> fetchTicketTags(ticketId));
+    }
+
+    private List<String> fetchTicketTags(int ticketId) throws ZammadException {
         // Check cache first
         List<String> cachedTags = tagCache.get(ticketId);
         if (cachedTags != null) {
@@ -446,27 +813,38 @@ public final class ZammadService {
      * This can be useful in scenarios where you want to force a refresh of tag data.
      */
     public void clearTagCache() {
-        tagCache.clear();
+        tagCache.invalidateAll();
     }
 
     /**
-     * Get articles (comments/messages) for a specific ticket.
-     * This method uses a cache to avoid unnecessary API calls.
+     * Get the articles (comments/messages) of a specific ticket, without their bodies.
+     * This method uses a cache to avoid unnecessary API calls. The bodies are kept aside when the articles are
+     * fetched, and are loaded with {@link #getArticleBody(ArticleHeader)}.
      *
      * @param ticketId The ID of the ticket to get articles for
-     * @return List of articles for the ticket
+     * @return List of article headers for the ticket
      * @throws ConfigurationException If the service is not configured
      * @throws ApiException If there is an error communicating with the API
      * @throws ZammadException If there is another error
      */
-    public List<Article> getTicketArticles(int ticketId) throws ZammadException {
+    public List<ArticleHeader> getTicketArticles(int ticketId) throws ZammadException {
+        return singleFlight.execute("tickets/" + ticketId + "/articles", () -> fetchTicketArticles(ticketId));
+    }
+
+    private List<ArticleHeader> fetchTicketArticles(int ticketId) throws ZammadException {
         // Check cache first
-        List<Article> cachedArticles = articleCache.get(ticketId);
+        List<ArticleHeader> cachedArticles = articleCache.get(ticketId);
         if (cachedArticles != null) {
             LOG.info("Using cached articles for ticket ID: " + ticketId);
             return cachedArticles;
         }
+        return downloadTicketArticles(ticketId);
+    }
 
+    /**
+     * Fetches the articles of a ticket, caches their headers and keeps their bodies in the body store.
+     */
+    private List<ArticleHeader> downloadTicketArticles(int ticketId) throws ZammadException {
         if (!isConfigured()) {
             LOG.warn("Zammad service is not configured");
             throw new ConfigurationException("Zammad service is not configured. Please set the Zammad URL and API token.");
@@ -494,17 +872,22 @@ public final class ZammadService {
             }
 
             List<Article> articles = response.body();
-
-            // Cache the articles for future requests
-            if (articles != null) {
-                LOG.info("Caching articles for ticket ID: " + ticketId + ", count: " + articles.size());
-                articleCache.put(ticketId, articles);
-            } else {
+            if (articles == null) {
                 LOG.warn("Ticket articles response body is null for ticket ID: " + ticketId);
-                articles = Collections.emptyList();
+                return Collections.emptyList();
             }
 
-            return articles;
+            // Cache the headers for future requests and keep the bodies aside
+            List<ArticleHeader> headers = new ArrayList<>(articles.size());
+            for (Article article : articles) {
+                headers.add(ArticleHeader.of(article));
+                articleBodies.put(article.getId(), article.getUpdatedAt(), Objects.requireNonNullElse(article.getBody(), ""));
+            }
+            headers = Collections.unmodifiableList(headers);
+            ticketsWithBodies.add(ticketId);
+            LOG.info("Caching articles for ticket ID: " + ticketId + ", count: " + headers.size());
+            articleCache.put(ticketId, headers);
+            return headers;
         } catch (IOException e) {
             LOG.warn("IO error while fetching articles for ticket ID: " + ticketId, e);
             throw new ApiException("Network error while fetching ticket articles", e);
@@ -512,39 +895,640 @@ public final class ZammadService {
     }
 
     /**
-     * Clear the article cache.
+     * Get the body of an article. Bodies of recently viewed tickets are taken from memory or disk. Others are
+     * fetched from Zammad: together with the rest of the ticket if its bodies were not fetched in this session,
+     * e.g. because its headers were restored from disk, and one article at a time otherwise.
+     *
+     * @param article The header of the article, as returned by {@link #getTicketArticles(int)}
+     * @return The body of the article, empty if it has none
+     * @throws ConfigurationException If the service is not configured
+     * @throws ApiException If there is an error communicating with the API
+     * @throws ZammadException If there is another error
+     */
+    public String getArticleBody(@NotNull ArticleHeader article) throws ZammadException {
+        String body = articleBodies.get(article.getId(), article.getUpdatedAt());
+        if (body != null) {
+            return body;
+        }
+        int ticketId = article.getTicketId();
+        if (!ticketsWithBodies.contains(ticketId)) {
+            // Only the headers were restored from the previous session; one request brings all bodies of the ticket
+            singleFlight.execute("tickets/" + ticketId + "/articles/bodies", () -> downloadTicketArticles(ticketId));
+            body = articleBodies.get(article.getId(), article.getUpdatedAt());
+            if (body != null) {
+                return body;
+            }
+        }
+        return singleFlight.execute("ticket_articles/" + article.getId(), () -> fetchArticleBody(article));
+    }
+
+    private String fetchArticleBody(ArticleHeader header) throws ZammadException {
+        if (!isConfigured()) {
+            LOG.warn("Zammad service is not configured");
+            throw new ConfigurationException("Zammad service is not configured. Please set the Zammad URL and API token.");
+        }
+
+        if (zammadApi == null) {
+            createApiClient(getZammadUrl(), getApiToken());
+        }
+
+        if (zammadApi == null) {
+            LOG.warn("Zammad API client is not initialized");
+            throw new ConfigurationException("Zammad API client is not initialized.");
+        }
+
+        try {
+            LOG.info("Fetching body of article ID: " + header.getId());
+            retrofit2.Call<Article> call = zammadApi.getArticle(header.getId());
+            retrofit2.Response<Article> response = call.execute();
+
+            if (!response.isSuccessful()) {
+                String errorBody = response.errorBody() != null ? response.errorBody().string() : "Unknown error";
+                LOG.warn("Failed to fetch article: " + errorBody);
+                throw new ApiException("Failed to fetch article: " + errorBody, response.code());
+            }
+
+            Article article = response.body();
+            if (article == null) {
+                LOG.warn("Article response body is null for article ID: " + header.getId());
+                return "";
+            }
+
+            String body = Objects.requireNonNullElse(article.getBody(), "");
+            articleBodies.put(article.getId(), article.getUpdatedAt(), body);
+            if (!Objects.equals(article.getUpdatedAt(), header.getUpdatedAt())) {
+                // Edited since the headers were fetched; the next lookup refreshes them
+                articleCache.invalidate(header.getTicketId());
+            }
+            return body;
+        } catch (IOException e) {
+            LOG.warn("IO error while fetching article ID: " + header.getId(), e);
+            throw new ApiException("Network error while fetching article", e);
+        }
+    }
+
+    /**
+     * Forget the cached articles of one ticket, e.g. because the ticket was updated and may have new ones.
+     * The bodies stay cached, since they are only used for articles with the same update time.
+     *
+     * @param ticketId The ID of the ticket
+     */
+    public void invalidateTicketArticles(int ticketId) {
+        articleCache.invalidate(ticketId);
+    }
+
+    /**
+     * Clear the article cache, headers and bodies.
      * This can be useful in scenarios where you want to force a refresh of article data.
      */
     public void clearArticleCache() {
-        articleCache.clear();
-    }
-
-    private void createApiClient(String zammadUrl, String apiToken) {
-        HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor();
-        loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
-
-        OkHttpClient httpClient = new OkHttpClient.Builder()
-            .addInterceptor(loggingInterceptor)
-            .addInterceptor(chain -> {
-                okhttp3.Request request = chain.request().newBuilder()
-                    .addHeader("Authorization", "Bearer " + apiToken)
-                    .build();
-                return chain.proceed(request);
-            })
-            .connectTimeout(30, TimeUnit.SECONDS)
-            .readTimeout(30, TimeUnit.SECONDS)
-            .build();
-
-        com.google.gson.Gson gson = new GsonBuilder()
-            .setLenient()
-            .create();
-
-        Retrofit retrofit = new Retrofit.Builder()
-            .baseUrl(zammadUrl)
-            .client(httpClient)
-            .addConverterFactory(GsonConverterFactory.create(gson))
-            .build();
-
-        zammadApi = retrofit.create(ZammadApi.class);
+        articleCache.invalidateAll();
+        articleBodies.clear();
+        ticketsWithBodies.clear();
+    }
+
+    /**
+     * Get the hit/miss/eviction statistics of the in-memory caches.
+     *
+     * @return One statistics snapshot per cache
+     */
+    public List<ExpiringCache.Stats> getCacheStats() {
+        List<ExpiringCache.Stats> stats = new ArrayList<>(List.of(userCache.stats(), tagCache.stats(), articleCache.stats()));
+        stats.addAll(articleBodies.stats());
+        stats.add(new ExpiringCache.Stats("time accountings", timeAccountingCache.size(), timeAccountingCache.size(),
+            ticketStore.size(), timeAccountingHits.get(), timeAccountingMisses.get(), 0, 0));
+        return stats;
+    }
+
+    /**
+     * Get the latency, throughput, error and cache metrics of the HTTP calls to Zammad.
+     */
+    public HttpMetrics getHttpMetrics() {
+        return httpMetrics;
+    }
+
+    /**
+     * Get the tracer holding the timing breakdown of the most recent HTTP calls.
+     */
+    public CallTracer getCallTracer() {
+        return callTracer;
+    }
+
+    /**
+     * Get the guard holding the HTTP calls that blocked the EDT or a read action.
+     */
+    public BlockingCallGuard getBlockingCallGuard() {
+        return blockingCallGuard;
+    }
+
+    private static long weighArticles(List<ArticleHeader> articles) {
+        long weight = 0;
+        for (ArticleHeader article : articles) {
+            // Fixed overhead for the short fields plus the subject and sender
+            weight += 128;
+            if (article.getSubject() != null) {
+                weight += article.getSubject().length();
+            }
+            if (article.getFrom() != null) {
+                weight += article.getFrom().length();
+            }
+        }
+        return weight;
+    }
+
+    /**
+     * Asynchronous variant of {@link #getTicketsForCurrentUser()}.
+     *
+     * @return Future completed with the tickets, or exceptionally with a {@link ZammadException}
+     */
+    public CompletableFuture<List<Ticket>> getTicketsForCurrentUserAsync() {
+        return supplyAsync("tickets/search/open", this::getTicketsForCurrentUser);
+    }
+
+    /**
+     * Bring the {@link #getTicketStore() ticket store} up to date with the server.
+     * Only tickets changed since the last sync are fetched, except for the first sync and periodic
+     * reconciliations; see {@link TicketSyncEngine}. Store listeners are notified as pages are merged.
+     * Cancelling the returned future stops the sync and aborts the request in flight.
+     * A sync requested while another one is running, e.g. from another project window, joins the running one,
+     * since both would merge into the same store.
+     *
+     * @return Future completed with the number of tickets received, or exceptionally with a {@link ZammadException}
+     */
+    public CompletableFuture<Integer> syncTickets() {
+        return supplyCancellableAsync((cancelled, inFlight) -> singleFlight.execute("tickets/sync", () -> {
+            // Continue from the saved sync state instead of starting over with a full sync
+            localStateLoaded.join();
+            File file = getLocalStateFile();
+
+            int userId = getCurrentUser().getId();
+            int pageSize = getTicketPageSize();
+            int received = ticketSyncEngine.sync(userId,
+                (query, sortBy, orderBy, pageConsumer) ->
+                    fetchTicketPages(query, sortBy, orderBy, pageSize, pageConsumer, cancelled, inFlight),
+                cancelled);
+            // Not if the instance or token changed meanwhile, whose state replaced the synced one
+            if (!cancelled.getAsBoolean() && Objects.equals(file, getLocalStateFile())) {
+                saveLocalState(file);
+            }
+            return received;
+        }));
+    }
+
+    /**
+     * Get the local store of the current user's open tickets, filled by {@link #syncTickets()}.
+     */
+    public TicketStore getTicketStore() {
+        return ticketStore;
+    }
+
+    /**
+     * Asynchronous variant of {@link #getTimeAccountingEntries(int)}.
+     *
+     * @param ticketId The ID of the ticket to get time entries for
+     * @return Future completed with the time accounting entries, or exceptionally with a {@link ZammadException}
+     */
+    public CompletableFuture<List<TimeAccountingEntry>> getTimeAccountingEntriesAsync(int ticketId) {
+        return supplyAsync("tickets/" + ticketId + "/time_accountings", () -> getTimeAccountingEntries(ticketId));
+    }
+
+    /**
+     * Get the time accounting entries of several tickets concurrently. The requests share the API executor,
+     * so at most {@value #MAX_CONCURRENT_REQUESTS} of them run at the same time. Entries of a ticket are cached
+     * until the ticket's {@code updated_at} changes, which Zammad bumps whenever time is accounted on it, so after
+     * a sync only the changed tickets are fetched. Cached entries of tickets no longer in the store are dropped.
+     * Once Zammad reported time accounting as disabled, the future fails right away until the next
+     * {@link #initialize(String, String)}.
+     * <p>
+     * A ticket whose entries cannot be fetched, e.g. because it was deleted since the sync or the server failed
+     * once, is logged and left out of the result. Only errors that every request would run into, a disabled time
+     * accounting, a missing configuration or rejected credentials, fail the whole batch.
+     *
+     * @param tickets The tickets to get time entries for, usually all tickets of the {@link #getTicketStore() store}
+     * @return Future completed with the time accounting entries by ticket ID, or exceptionally with the first
+     * {@link ZammadException} that fails the batch
+     */
+    public CompletableFuture<Map<Integer, List<TimeAccountingEntry>>> getTimeAccountingEntriesAsync(Collection<Ticket> tickets) {
+        FeatureNotEnabledException disabled = timeAccountingDisabled;
+        if (disabled != null) {
+            return CompletableFuture.failedFuture(disabled);
+        }
+
+        Map<Integer, CompletableFuture<List<TimeAccountingEntry>>> futures = new HashMap<>();
+        for (Ticket ticket : tickets) {
+            TicketTimeAccountings cached = timeAccountingCache.get(ticket.getId());
+            if (cached != null && Objects.equals(cached.updatedAt, ticket.getUpdated_at())) {
+                timeAccountingHits.incrementAndGet();
+                futures.put(ticket.getId(), CompletableFuture.completedFuture(cached.entries));
+                continue;
+            }
+            timeAccountingMisses.incrementAndGet();
+            String key = "tickets/" + ticket.getId() + "/time_accountings@" + ticket.getUpdated_at();
+            futures.put(ticket.getId(), supplyAsync(key, () -> {
+                FeatureNotEnabledException disabledMeanwhile = timeAccountingDisabled;
+                if (disabledMeanwhile != null) {
+                    // Another request of this batch found out
+                    throw disabledMeanwhile;
+                }
+                List<TimeAccountingEntry> entries;
+                try {
+                    entries = getTimeAccountingEntries(ticket.getId());
+                } catch (FeatureNotEnabledException e) {
+                    timeAccountingDisabled = e;
+                    throw e;
+                }
+                timeAccountingCache.put(ticket.getId(), new TicketTimeAccountings(ticket.getUpdated_at(), entries));
+                return entries;
+            }));
+        }
+        timeAccountingCache.keySet().retainAll(futures.keySet());
+
+        Map<Integer, CompletableFuture<List<TimeAccountingEntry>>> settled = new HashMap<>();
+        futures.forEach((ticketId, future) -> settled.put(ticketId, future.handle((entries, error) -> {
+            if (error == null) {
+                return entries;
+            }
+            Throwable cause = ErrorHandler.unwrap(error);
+            if (failsTimeAccountingBatch(cause)) {
+                throw new CompletionException(cause);
+            }
+            LOG.info("Leaving out the time accounting entries of ticket " + ticketId + ": " + cause.getMessage());
+            return null;
+        })));
+
+        CompletableFuture<Map<Integer, List<TimeAccountingEntry>>> result = new CompletableFuture<>();
+        CompletableFuture.allOf(settled.values().toArray(new CompletableFuture[0])).whenComplete((ignored, error) -> {
+            if (error != null) {
+                result.completeExceptionally(ErrorHandler.unwrap(error));
+                return;
+            }
+            Map<Integer, List<TimeAccountingEntry>> entriesByTicket = new HashMap<>();
+            settled.forEach((ticketId, future) -> {
+                List<TimeAccountingEntry> entries = future.join();
+                if (entries != null) {
+                    entriesByTicket.put(ticketId, entries);
+                }
+            });
+            result.complete(entriesByTicket);
+        });
+        return result;
+    }
+
+    /**
+     * Checks whether an error fetching the time accounting entries of one ticket would hit every other ticket too.
+     */
+    private static boolean failsTimeAccountingBatch(Throwable error) {
+        if (error instanceof FeatureNotEnabledException || error instanceof ConfigurationException) {
+            return true;
+        }
+        if (error instanceof ApiException) {
+            int status = ((ApiException) error).getStatusCode();
+            return status == 401 || status == 403;
+        }
+        return false;
+    }
+
+    /**
+     * Asynchronous variant of {@link #createTimeAccountingEntry(int, String)}.
+     *
+     * @param ticketId The ID of the ticket to create a time entry for
+     * @param time The time to record in the format "HH:MM:SS"
+     * @return Future completed with the created entry, or exceptionally with a {@link ZammadException}
+     */
+    public CompletableFuture<TimeAccountingEntry> createTimeAccountingEntryAsync(int ticketId, String time) {
+        return supplyAsync(() -> createTimeAccountingEntry(ticketId, time));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getCurrentUser()}.
+     *
+     * @return Future completed with the current user, or exceptionally with a {@link ZammadException}
+     */
+    public CompletableFuture<User> getCurrentUserAsync() {
+        return supplyAsync("users/me", this::getCurrentUser);
+    }
+
+    /**
+     * Asynchronous variant of {@link #getUserById(int)}.
+     *
+     * @param userId The ID of the user to get
+     * @return Future completed with the user, or exceptionally with a {@link ZammadException}
+     */
+    public CompletableFuture<User> getUserByIdAsync(int userId) {
+        return supplyAsync("users/" + userId, () -> getUserById(userId));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getUsersByIds(Collection)}.
+     *
+     * @param userIds The IDs of the users to get
+     * @return Future completed with the found users by ID, or exceptionally with a {@link ZammadException}
+     */
+    public CompletableFuture<Map<Integer, User>> getUsersByIdsAsync(Collection<Integer> userIds) {
+        return supplyAsync("users/search/" + new TreeSet<>(userIds), () -> getUsersByIds(userIds));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getTicketTags(int)}.
+     *
+     * @param ticketId The ID of the ticket to get tags for
+     * @return Future completed with the tags, or exceptionally with a {@link ZammadException}
+     */
+    public CompletableFuture<List<String>> getTicketTagsAsync(int ticketId) {
+        return supplyAsync("tickets/" + ticketId + "/tags", () -> getTicketTags(ticketId));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getTicketArticles(int)}.
+     *
+     * @param ticketId The ID of the ticket to get articles for
+     * @return Future completed with the article headers, or exceptionally with a {@link ZammadException}
+     */
+    public CompletableFuture<List<ArticleHeader>> getTicketArticlesAsync(int ticketId) {
+        return supplyAsync("tickets/" + ticketId + "/articles", () -> getTicketArticles(ticketId));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getArticleBody(ArticleHeader)}.
+     *
+     * @param article The header of the article
+     * @return Future completed with the body, or exceptionally with a {@link ZammadException}
+     */
+    public CompletableFuture<String> getArticleBodyAsync(@NotNull ArticleHeader article) {
+        return supplyAsync("ticket_articles/" + article.getId() + "@" + article.getUpdatedAt(),
+            () -> getArticleBody(article));
+    }
+
+    /**
+     * Runs a blocking read on the API executor, or joins the identical asynchronous read in flight without
+     * occupying a thread. The keys are kept apart from those of the blocking reads, which the call goes through.
+     * The returned future is completed with the original exception, as by {@link #supplyAsync(ApiCall)}.
+     *
+     * @param key identifies the endpoint and its parameters, as in {@link SingleFlight#execute}
+     */
+    private <T> CompletableFuture<T> supplyAsync(String key, ApiCall<T> apiCall) {
+        return singleFlight.executeAsync("async/" + key, apiCall, apiExecutor);
+    }
+
+    /**
+     * Runs a blocking API call on the API executor.
+     * The returned future is completed with the original exception (not wrapped), so completion
+     * handlers attached directly to it can distinguish the {@link ZammadException} subtypes.
+     */
+    private <T> CompletableFuture<T> supplyAsync(ApiCall<T> apiCall) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        apiExecutor.execute(() -> {
+            if (future.isCancelled()) {
+                return;
+            }
+            try {
+                future.complete(apiCall.execute());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Runs a cancellable blocking API call on the API executor.
+     * Cancelling the returned future makes {@code cancelled} return true and cancels the call in flight.
+     */
+    private <T> CompletableFuture<T> supplyCancellableAsync(CancellableApiCall<T> apiCall) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        AtomicReference<retrofit2.Call<?>> inFlight = new AtomicReference<>();
+        future.whenComplete((result, error) -> {
+            retrofit2.Call<?> call = inFlight.get();
+            if (future.isCancelled() && call != null) {
+                call.cancel();
+            }
+        });
+        apiExecutor.execute(() -> {
+            if (future.isCancelled()) {
+                return;
+            }
+            try {
+                checkConfiguredClient();
+                future.complete(apiCall.execute(future::isCancelled, inFlight));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    private void checkConfiguredClient() throws ConfigurationException {
+        if (!isConfigured()) {
+            LOG.warn("Zammad service is not configured");
+            throw new ConfigurationException("Zammad service is not configured. Please set the Zammad URL and API token.");
+        }
+
+        if (zammadApi == null) {
+            createApiClient(getZammadUrl(), getApiToken());
+        }
+
+        if (zammadApi == null) {
+            LOG.warn("Zammad API client is not initialized");
+            throw new ConfigurationException("Zammad API client is not initialized.");
+        }
+    }
+
+    /**
+     * Time accounting entries of a ticket together with the ticket version they were fetched for.
+     */
+    private static final class TicketTimeAccountings {
+        private final String updatedAt;
+        private final List<TimeAccountingEntry> entries;
+
+        private TicketTimeAccountings(String updatedAt, List<TimeAccountingEntry> entries) {
+            this.updatedAt = updatedAt;
+            this.entries = entries;
+        }
+    }
+
+    /**
+     * A blocking call against the Zammad API.
+     */
+    @FunctionalInterface
+    interface ApiCall<T> {
+        T execute() throws ZammadException;
+    }
+
+    /**
+     * A blocking call against the Zammad API that can be cancelled from another thread.
+     */
+    @FunctionalInterface
+    private interface CancellableApiCall<T> {
+        T execute(BooleanSupplier cancelled, AtomicReference<retrofit2.Call<?>> inFlight) throws ZammadException;
+    }
+
+    /**
+     * Opens a connection to the Zammad instance in the background if pre-connecting is enabled,
+     * so that the first request does not pay for the TCP and TLS handshakes.
+     */
+    public void warmUpConnection() {
+        if (!isConfigured() || !isPreconnectEnabled()) {
+            return;
+        }
+        if (zammadApi == null) {
+            createApiClient(getZammadUrl(), getApiToken());
+        }
+        ZammadHttpClient client = httpClient;
+        if (client != null) {
+            client.warmUp();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        if (localStateLoaded.isDone()) {
+            saveLocalState(getLocalStateFile());
+        }
+        ZammadHttpClient client = httpClient;
+        if (client != null) {
+            client.shutdown();
+        }
+        articleBodies.clear();
+    }
+
+    private static File getHttpCacheDirectory() {
+        return new File(PathManager.getSystemPath(), "zammad-plugin/http-cache");
+    }
+
+    private static File getArticleBodyDirectory() {
+        return new File(PathManager.getSystemPath(), "zammad-plugin/article-bodies");
+    }
+
+    /**
+     * Gets the local state file of the configured instance and token. Every instance and token has its own file,
+     * so tickets are never shown to another user.
+     */
+    @Nullable
+    private File getLocalStateFile() {
+        return getLocalStateFile(getZammadUrl(), getApiToken());
+    }
+
+    @Nullable
+    private static File getLocalStateFile(String zammadUrl, String apiToken) {
+        if (zammadUrl.isEmpty() || apiToken.isEmpty()) {
+            return null;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((zammadUrl + "\n" + apiToken).getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder();
+            for (int i = 0; i < 16; i++) {
+                name.append(String.format("%02x", hash[i]));
+            }
+            return new File(PathManager.getSystemPath(), "zammad-plugin/state/" + name + ".bin");
+        } catch (NoSuchAlgorithmException e) {
+            LOG.warn("Cannot name the local state file", e);
+            return null;
+        }
+    }
+
+    /**
+     * Restores the tickets, users, tags and article headers saved by the previous session.
+     * A missing, outdated or corrupt file only means that the first sync starts from scratch.
+     */
+    private void loadLocalState(@Nullable File file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            LocalStateFile.State state = LocalStateFile.read(file);
+            if (state == null) {
+                return;
+            }
+            for (User user : state.users) {
+                userCache.put(user.getId(), user);
+            }
+            for (Map.Entry<Integer, List<String>> entry : state.tags.entrySet()) {
+                tagCache.put(entry.getKey(), entry.getValue(), RESTORED_ENTRY_TTL);
+            }
+            for (Map.Entry<Integer, List<ArticleHeader>> entry : state.articles.entrySet()) {
+                articleCache.put(entry.getKey(), entry.getValue(), RESTORED_ENTRY_TTL);
+            }
+            ticketStore.restore(state.userId, state.highWaterMark, state.lastFullSync, state.tickets);
+            LOG.info("Restored " + state.tickets.size() + " tickets from " + file);
+        } catch (IOException | RuntimeException e) {
+            LOG.info("Ignoring unreadable local state file " + file, e);
+            if (file.exists() && !file.delete()) {
+                LOG.warn("Failed to delete local state file " + file);
+            }
+        }
+    }
+
+    /**
+     * Saves the synced tickets and the cached users, tags and article headers of these tickets for the next session.
+     * Article bodies are not saved; they are fetched again when they are shown.
+     */
+    private void saveLocalState(@Nullable File file) {
+        if (file == null || ticketStore.getUserId() == -1) {
+            return;
+        }
+        // A sync and the disposal of the service may save at the same time
+        synchronized (localStateLock) {
+            writeLocalState(file);
+        }
+    }
+
+    private void writeLocalState(File file) {
+        // Read the sync state before the tickets: tickets newer than the high-water mark are fetched again, but
+        // a high-water mark newer than the saved tickets would skip their changes
+        int userId = ticketStore.getUserId();
+        Instant highWaterMark = ticketStore.getHighWaterMark();
+        Instant lastFullSync = ticketStore.getLastFullSync();
+        List<Ticket> tickets = ticketStore.getTickets();
+        Set<Integer> ticketIds = new HashSet<>();
+        for (Ticket ticket : tickets) {
+            ticketIds.add(ticket.getId());
+        }
+
+        Map<Integer, List<String>> tags = new HashMap<>(tagCache.snapshot());
+        tags.keySet().retainAll(ticketIds);
+
+        // Keep the most recently used articles
+        List<Map.Entry<Integer, List<ArticleHeader>>> articleEntries = new ArrayList<>(articleCache.snapshot().entrySet());
+        Collections.reverse(articleEntries);
+        Map<Integer, List<ArticleHeader>> articles = new LinkedHashMap<>();
+        long articleChars = 0;
+        for (Map.Entry<Integer, List<ArticleHeader>> entry : articleEntries) {
+            if (!ticketIds.contains(entry.getKey())) {
+                continue;
+            }
+            articleChars += weighArticles(entry.getValue());
+            if (articleChars > PERSISTED_ARTICLES_MAX_CHARS) {
+                break;
+            }
+            articles.put(entry.getKey(), entry.getValue());
+        }
+
+        List<User> users = new ArrayList<>(userCache.snapshot().values());
+        try {
+            LocalStateFile.write(file, new LocalStateFile.State(userId, highWaterMark, lastFullSync, tickets, users, tags, articles));
+        } catch (IOException e) {
+            LOG.warn("Failed to save local state to " + file, e);
+        }
+    }
+
+    /**
+     * Creates the API client, or reuses the existing one if only the token changed.
+     * The underlying HTTP client and its connection pool live as long as the Zammad URL stays the same.
+     * Every client reports its calls to the same {@link CallTracer} and {@link BlockingCallGuard}.
+     */
+    private synchronized void createApiClient(String zammadUrl, String apiToken) {
+        ZammadHttpClient client = httpClient;
+        if (client != null && client.getBaseUrl().equals(zammadUrl)) {
+            client.setApiToken(apiToken);
+        } else {
+            if (client != null) {
+                client.shutdown();
+            }
+            client = new ZammadHttpClient(zammadUrl, apiToken, getHttpCacheDirectory(), callTracer,
+                blockingCallGuard);
+            httpClient = client;
+        }
+        zammadApi = client.getApi();
     }
 }
@@ -5,6 +5,8 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
 
 import java.io.IOException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Centralized error handler for the Zammad plugin.
@@ -76,4 +78,21 @@ public class ErrorHandler {
             return new ZammadException(message, exception);
         }
     }
+    
+    /**
+     * Unwraps an exception delivered by a {@link java.util.concurrent.CompletableFuture}.
+     * Dependent stages wrap failures in a {@link CompletionException}, which would hide the
+     * plugin exception type from the handlers above.
+     *
+     * @param exception the exception passed to a completion handler
+     * @return the underlying cause, or the exception itself if it is not a wrapper
+     */
+    public static Throwable unwrap(Throwable exception) {
+        Throwable current = exception;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package de.dp_coding.zammadplugin.git;
+
+import de.dp_coding.zammadplugin.model.Ticket;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Naming scheme of ticket branches: the ticket ID, a dash and the sanitized ticket title, e.g. "1234-fix-login".
+ */
+public final class BranchNames {
+    private static final Pattern INVALID_CHARACTERS = Pattern.compile("[^a-zA-Z0-9-]");
+    // Longer numbers are not ticket IDs and would overflow an int
+    private static final int MAX_TICKET_ID_DIGITS = 9;
+
+    private BranchNames() {
+    }
+
+    /**
+     * Creates the branch name for a ticket.
+     *
+     * @param ticket The ticket
+     * @return The branch name
+     */
+    @NotNull
+    public static String forTicket(@NotNull Ticket ticket) {
+        String title = ticket.getTitle();
+        if (title == null || title.isEmpty()) {
+            return String.valueOf(ticket.getId());
+        }
+        return ticket.getId() + "-" + INVALID_CHARACTERS.matcher(title).replaceAll("-").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Gets the ticket ID a branch was created for. Only the last segment of the name is considered, so that
+     * prefixed branches like "feature/1234-fix-login" and remote branches like "origin/1234-fix-login" are found.
+     *
+     * @param branchName The name of a local or remote branch
+     * @return The ticket ID, or -1 if the branch does not follow the naming scheme
+     */
+    public static int parseTicketId(@NotNull String branchName) {
+        int start = branchName.lastIndexOf('/') + 1;
+        int end = start;
+        while (end < branchName.length() && end - start <= MAX_TICKET_ID_DIGITS && isDigit(branchName.charAt(end))) {
+            end++;
+        }
+        if (end == start || end - start > MAX_TICKET_ID_DIGITS) {
+            return -1;
+        }
+        if (end < branchName.length() && branchName.charAt(end) != '-') {
+            return -1;
+        }
+        return Integer.parseInt(branchName, start, end, 10);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,150 @@
+package de.dp_coding.zammadplugin.git;
+
+import com.intellij.dvcs.DvcsUtil;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import de.dp_coding.zammadplugin.model.Ticket;
+import git4idea.commands.Git;
+import git4idea.commands.GitCommandResult;
+import git4idea.repo.GitRepository;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates and checks out the branch of a ticket in several repositories.
+ * <p>
+ * The repositories are independent, so the checkouts run concurrently under this task's single progress
+ * indicator. A failure in one repository does not stop the others; the outcome of every repository is
+ * reported when all of them are done.
+ */
+public final class CreateTicketBranchTask extends Task.Backgroundable {
+    private static final Logger LOG = Logger.getInstance(CreateTicketBranchTask.class);
+
+    // Each checkout is a git process that also rewrites the working tree, so only a few run at once
+    private static final int MAX_CONCURRENT_CHECKOUTS = 4;
+    private static final ExecutorService CHECKOUT_EXECUTOR =
+        AppExecutorUtil.createBoundedApplicationPoolExecutor("Zammad Branch Checkout", MAX_CONCURRENT_CHECKOUTS);
+
+    private final Project project;
+    private final Ticket ticket;
+    private final String branchName;
+    private final List<GitRepository> repositories;
+    // Error per repository, null for the ones that succeeded; in the order of the repositories
+    private final Map<GitRepository, String> errors = new LinkedHashMap<>();
+
+    /**
+     * @param project The project
+     * @param ticket The ticket to create the branch for
+     * @param repositories The repositories to create the branch in
+     */
+    public CreateTicketBranchTask(@NotNull Project project, @NotNull Ticket ticket,
+                                  @NotNull List<GitRepository> repositories) {
+        super(project, "Creating branch for ticket #" + ticket.getId(), false);
+        this.project = project;
+        this.ticket = ticket;
+        this.branchName = BranchNames.forTicket(ticket);
+        this.repositories = List.copyOf(repositories);
+    }
+
+    @Override
+    public void run(@NotNull ProgressIndicator indicator) {
+        indicator.setIndeterminate(false);
+        indicator.setText("Creating branch '" + branchName + "'");
+        Git git = Git.getInstance();
+        AtomicInteger finished = new AtomicInteger();
+
+        List<CompletableFuture<String>> checkouts = new ArrayList<>(repositories.size());
+        for (GitRepository repository : repositories) {
+            checkouts.add(CompletableFuture.supplyAsync(() -> {
+                String error = createBranch(git, repository);
+                indicator.setText2(DvcsUtil.getShortRepositoryName(repository));
+                indicator.setFraction(finished.incrementAndGet() / (double) repositories.size());
+                return error;
+            }, CHECKOUT_EXECUTOR));
+        }
+
+        List<VirtualFile> roots = new ArrayList<>(repositories.size());
+        for (int i = 0; i < repositories.size(); i++) {
+            GitRepository repository = repositories.get(i);
+            String error;
+            try {
+                error = checkouts.get(i).join();
+            } catch (RuntimeException e) {
+                LOG.warn("Failed to create branch " + branchName + " in " + repository.getPresentableUrl(), e);
+                error = e.getMessage() != null ? e.getMessage() : e.toString();
+            }
+            errors.put(repository, error);
+            roots.add(repository.getRoot());
+        }
+
+        // The checkouts changed the working trees behind the IDE's back
+        VfsUtil.markDirtyAndRefresh(true, true, false, roots.toArray(new VirtualFile[0]));
+    }
+
+    /**
+     * Creates and checks out the branch in one repository.
+     *
+     * @return The error, or null if the branch was created
+     */
+    @Nullable
+    private String createBranch(Git git, GitRepository repository) {
+        if (repository.getBranches().findLocalBranch(branchName) != null) {
+            return "The branch already exists.";
+        }
+        if (repository.getCurrentBranch() == null) {
+            return "Could not determine the current branch.";
+        }
+
+        GitCommandResult result = git.checkoutNewBranch(repository, branchName, null);
+        // Updates the branches, which also updates the TicketBranchIndex
+        repository.update();
+        return result.success() ? null : result.getErrorOutputAsJoinedString();
+    }
+
+    @Override
+    public void onSuccess() {
+        List<String> created = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+        for (Map.Entry<GitRepository, String> entry : errors.entrySet()) {
+            String name = DvcsUtil.getShortRepositoryName(entry.getKey());
+            if (entry.getValue() == null) {
+                created.add(name);
+            } else {
+                failed.add(name + ": " + entry.getValue());
+            }
+        }
+
+        if (failed.isEmpty()) {
+            Messages.showInfoMessage(
+                project,
+                "Created and checked out branch '" + branchName + "' for ticket #" + ticket.getId() + ": " +
+                    ticket.getTitle() + (repositories.size() > 1 ? "\n\nRepositories: " + String.join(", ", created) : ""),
+                "Branch Created"
+            );
+            return;
+        }
+
+        StringBuilder message = new StringBuilder();
+        if (!created.isEmpty()) {
+            message.append("Created and checked out branch '").append(branchName).append("' in: ")
+                .append(String.join(", ", created)).append("\n\n");
+        }
+        message.append("Could not create branch '").append(branchName).append("' in:\n")
+            .append(String.join("\n", failed));
+        Messages.showErrorDialog(project, message.toString(), "Cannot Create Branch");
+    }
+}
@@ -0,0 +1,62 @@
+package de.dp_coding.zammadplugin.git;
+
+import git4idea.repo.GitRepository;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+/**
+ * A local or remote branch that was created for a ticket.
+ */
+public final class TicketBranch {
+    private final GitRepository repository;
+    private final String name;
+    private final boolean remote;
+    private final int ticketId;
+
+    TicketBranch(@NotNull GitRepository repository, @NotNull String name, boolean remote, int ticketId) {
+        this.repository = repository;
+        this.name = name;
+        this.remote = remote;
+        this.ticketId = ticketId;
+    }
+
+    @NotNull
+    public GitRepository getRepository() {
+        return repository;
+    }
+
+    /**
+     * Gets the name of the branch; remote branches include the remote, e.g. "origin/1234-fix-login".
+     */
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    public boolean isRemote() {
+        return remote;
+    }
+
+    public int getTicketId() {
+        return ticketId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TicketBranch that = (TicketBranch) o;
+        return remote == that.remote && repository.equals(that.repository) && name.equals(that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(repository, name, remote);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,195 @@
+package de.dp_coding.zammadplugin.git;
+
+import com.intellij.dvcs.repo.VcsRepositoryManager;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.messages.MessageBusConnection;
+import git4idea.GitLocalBranch;
+import git4idea.GitRemoteBranch;
+import git4idea.GitUtil;
+import git4idea.branch.GitBranchesCollection;
+import git4idea.repo.GitRepository;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Index from ticket ID to the local and remote branches created for the ticket, across all Git repositories
+ * of a project.
+ * <p>
+ * Git4Idea already keeps the branches of every repository in memory. The index listens to repository change
+ * events and only compares the branches of the changed repository with the ones it saw before, so a change
+ * updates just the affected tickets; lookups are a hash map access, however many branches there are.
+ */
+@Service(Service.Level.PROJECT)
+public final class TicketBranchIndex implements Disposable {
+
+    /**
+     * Listener notified after branches were added or removed. Called on the thread that delivered the Git event.
+     */
+    public interface Listener {
+        /**
+         * @param ticketIds The IDs of the tickets whose branches changed
+         */
+        void branchesChanged(@NotNull Set<Integer> ticketIds);
+    }
+
+    private final Project project;
+    // Ticket branches per repository as of the last event, to find out what an event changed
+    private final Map<GitRepository, Set<TicketBranch>> branchesByRepository = new HashMap<>();
+    private final Map<Integer, List<TicketBranch>> branchesByTicket = new HashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    public TicketBranchIndex(@NotNull Project project) {
+        this.project = project;
+        MessageBusConnection connection = project.getMessageBus().connect(this);
+        connection.subscribe(GitRepository.GIT_REPO_CHANGE, this::repositoryChanged);
+        connection.subscribe(VcsRepositoryManager.VCS_REPOSITORY_MAPPING_UPDATED, this::mappingChanged);
+        mappingChanged();
+    }
+
+    public static TicketBranchIndex getInstance(@NotNull Project project) {
+        return project.getService(TicketBranchIndex.class);
+    }
+
+    /**
+     * Gets the branches of a ticket, in all repositories.
+     *
+     * @param ticketId The ID of the ticket
+     * @return The local and remote branches; empty if there are none
+     */
+    @NotNull
+    public synchronized List<TicketBranch> getBranches(int ticketId) {
+        List<TicketBranch> branches = branchesByTicket.get(ticketId);
+        return branches == null ? Collections.emptyList() : List.copyOf(branches);
+    }
+
+    /**
+     * Checks whether there is a local or remote branch for a ticket in any repository.
+     */
+    public synchronized boolean hasBranch(int ticketId) {
+        return branchesByTicket.containsKey(ticketId);
+    }
+
+    public void addListener(@NotNull Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(@NotNull Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Indexes repositories that were added to the project and drops the ones that were removed.
+     */
+    private void mappingChanged() {
+        List<GitRepository> repositories = GitUtil.getRepositoryManager(project).getRepositories();
+        Set<Integer> changedTickets = new HashSet<>();
+        List<GitRepository> added = new ArrayList<>();
+        synchronized (this) {
+            List<GitRepository> removed = new ArrayList<>(branchesByRepository.keySet());
+            removed.removeAll(repositories);
+            for (GitRepository repository : removed) {
+                for (TicketBranch branch : branchesByRepository.remove(repository)) {
+                    removeFromTicket(branch);
+                    changedTickets.add(branch.getTicketId());
+                }
+            }
+            for (GitRepository repository : repositories) {
+                if (!branchesByRepository.containsKey(repository)) {
+                    added.add(repository);
+                }
+            }
+        }
+        fireChanged(changedTickets);
+        for (GitRepository repository : added) {
+            repositoryChanged(repository);
+        }
+    }
+
+    private void repositoryChanged(@NotNull GitRepository repository) {
+        if (project.isDisposed() || !GitUtil.getRepositoryManager(project).getRepositories().contains(repository)) {
+            // A late event of a repository that was removed from the project
+            return;
+        }
+        Set<TicketBranch> current = collectTicketBranches(repository);
+        Set<Integer> changedTickets = new HashSet<>();
+        synchronized (this) {
+            Set<TicketBranch> previous = branchesByRepository.put(repository, current);
+            if (previous == null) {
+                previous = Collections.emptySet();
+            }
+            for (TicketBranch branch : previous) {
+                if (!current.contains(branch)) {
+                    removeFromTicket(branch);
+                    changedTickets.add(branch.getTicketId());
+                }
+            }
+            for (TicketBranch branch : current) {
+                if (!previous.contains(branch)) {
+                    branchesByTicket.computeIfAbsent(branch.getTicketId(), id -> new ArrayList<>(1)).add(branch);
+                    changedTickets.add(branch.getTicketId());
+                }
+            }
+        }
+        fireChanged(changedTickets);
+    }
+
+    private void removeFromTicket(TicketBranch branch) {
+        List<TicketBranch> branches = branchesByTicket.get(branch.getTicketId());
+        if (branches != null) {
+            branches.remove(branch);
+            if (branches.isEmpty()) {
+                branchesByTicket.remove(branch.getTicketId());
+            }
+        }
+    }
+
+    /**
+     * Gets the branches of a repository that follow the naming scheme of {@link BranchNames}.
+     */
+    private static Set<TicketBranch> collectTicketBranches(GitRepository repository) {
+        Set<TicketBranch> result = new HashSet<>();
+        GitBranchesCollection branches = repository.getBranches();
+        for (GitLocalBranch branch : branches.getLocalBranches()) {
+            int ticketId = BranchNames.parseTicketId(branch.getName());
+            if (ticketId >= 0) {
+                result.add(new TicketBranch(repository, branch.getName(), false, ticketId));
+            }
+        }
+        for (GitRemoteBranch branch : branches.getRemoteBranches()) {
+            int ticketId = BranchNames.parseTicketId(branch.getNameForRemoteOperations());
+            if (ticketId >= 0) {
+                result.add(new TicketBranch(repository, branch.getName(), true, ticketId));
+            }
+        }
+        return result;
+    }
+
+    private void fireChanged(Set<Integer> ticketIds) {
+        if (ticketIds.isEmpty()) {
+            return;
+        }
+        Set<Integer> unmodifiable = Collections.unmodifiableSet(ticketIds);
+        for (Listener listener : listeners) {
+            listener.branchesChanged(unmodifiable);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        listeners.clear();
+        synchronized (this) {
+            branchesByRepository.clear();
+            branchesByTicket.clear();
+        }
+    }
+}
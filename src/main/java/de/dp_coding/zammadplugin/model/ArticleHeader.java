@@ -0,0 +1,128 @@
+package de.dp_coding.zammadplugin.model;
+
+import java.util.Objects;
+
+/**
+ * The metadata of an {@link Article} without its body, which can be large and is loaded separately when needed.
+ */
+public class ArticleHeader {
+    private final int id;
+    private final int ticketId;
+    private final String type;
+    private final String subject;
+    private final String contentType;
+    private final String internalNote;
+    private final String createdAt;
+    private final String updatedAt;
+    private final int createdById;
+    private final String from;
+    private final int bodyLength;
+
+    public ArticleHeader(int id, int ticketId, String type, String subject, String contentType,
+                         String internalNote, String createdAt, String updatedAt, int createdById,
+                         String from, int bodyLength) {
+        this.id = id;
+        this.ticketId = ticketId;
+        this.type = type;
+        this.subject = subject;
+        this.contentType = contentType;
+        this.internalNote = internalNote;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.createdById = createdById;
+        this.from = from;
+        this.bodyLength = bodyLength;
+    }
+
+    /**
+     * Creates the header of an article, dropping its body.
+     */
+    public static ArticleHeader of(Article article) {
+        return new ArticleHeader(article.getId(), article.getTicketId(), article.getType(), article.getSubject(),
+                article.getContentType(), article.getInternalNote(), article.getCreatedAt(), article.getUpdatedAt(),
+                article.getCreatedById(), article.getFrom(),
+                article.getBody() != null ? article.getBody().length() : 0);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getTicketId() {
+        return ticketId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getInternalNote() {
+        return internalNote;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public int getCreatedById() {
+        return createdById;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    /**
+     * Gets the length of the body in characters, as it was when the header was created.
+     */
+    public int getBodyLength() {
+        return bodyLength;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ArticleHeader header = (ArticleHeader) o;
+        return id == header.id &&
+                ticketId == header.ticketId &&
+                createdById == header.createdById &&
+                bodyLength == header.bodyLength &&
+                Objects.equals(type, header.type) &&
+                Objects.equals(subject, header.subject) &&
+                Objects.equals(contentType, header.contentType) &&
+                Objects.equals(internalNote, header.internalNote) &&
+                Objects.equals(createdAt, header.createdAt) &&
+                Objects.equals(updatedAt, header.updatedAt) &&
+                Objects.equals(from, header.from);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, ticketId, type, subject, contentType, internalNote, createdAt, updatedAt, createdById, from, bodyLength);
+    }
+
+    @Override
+    public String toString() {
+        return "ArticleHeader{" +
+                "id=" + id +
+                ", ticketId=" + ticketId +
+                ", type='" + type + '\'' +
+                ", subject='" + subject + '\'' +
+                ", createdAt='" + createdAt + '\'' +
+                ", bodyLength=" + bodyLength +
+                '}';
+    }
+}
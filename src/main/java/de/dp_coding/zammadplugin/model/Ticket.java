@@ -1,13 +1,12 @@
 package de.dp_coding.zammadplugin.model;
 
 import java.util.Objects;
-import java.util.List;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Represents a ticket from the Zammad ticketing system.
+ * <p>
+ * Tickets fetched with {@code expand=true} additionally carry the names of their state, priority, group,
+ * owner and customer, so they can be displayed without further requests. These fields are null otherwise.
  */
 public class Ticket {
     private final int id;
@@ -19,22 +18,33 @@ public class Ticket {
     private final String customer_id;
     private final String created_at;
     private final String updated_at;
-
-    // Cache for ticket tags to avoid unnecessary API calls
-    private static final Map<Integer, List<String>> tagCache = new HashMap<>();
-    private List<String> tags;
+    // Only set for expanded tickets
+    private final String state;
+    private final String owner_id;
+    private final String owner;
+    private final String customer;
 
     public Ticket(int id, String title, String number, String state, String priority, 
                   String group, String customer, String created_at, String updated_at) {
+        this(id, title, number, state, priority, group, customer, created_at, updated_at, null, null, null, null);
+    }
+
+    public Ticket(int id, String title, String number, String state_id, String priority,
+                  String group, String customer_id, String created_at, String updated_at,
+                  String state, String owner_id, String owner, String customer) {
         this.id = id;
         this.title = title;
         this.number = number;
-        this.state_id = state;
+        this.state_id = state_id;
         this.priority = priority;
         this.group = group;
-        this.customer_id = customer;
+        this.customer_id = customer_id;
         this.created_at = created_at;
         this.updated_at = updated_at;
+        this.state = state;
+        this.owner_id = owner_id;
+        this.owner = owner;
+        this.customer = customer;
     }
 
     public int getId() {
@@ -73,6 +83,28 @@ public class Ticket {
         return updated_at;
     }
 
+    public String getState() {
+        return state;
+    }
+
+    public String getOwner_id() {
+        return owner_id;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public String getCustomer() {
+        return customer;
+    }
+
+    /**
+     * Returns the state name if the ticket was fetched expanded, otherwise the raw state ID.
+     */
+    public String getStateDisplayName() {
+        return state != null && !state.isEmpty() ? state : state_id;
+    }
 
     @Override
     public String toString() {
@@ -92,11 +124,16 @@ public class Ticket {
                 Objects.equals(group, ticket.group) &&
                 Objects.equals(customer_id, ticket.customer_id) &&
                 Objects.equals(created_at, ticket.created_at) &&
-                Objects.equals(updated_at, ticket.updated_at);
+                Objects.equals(updated_at, ticket.updated_at) &&
+                Objects.equals(state, ticket.state) &&
+                Objects.equals(owner_id, ticket.owner_id) &&
+                Objects.equals(owner, ticket.owner) &&
+                Objects.equals(customer, ticket.customer);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, title, number, state_id, priority, group, customer_id, created_at, updated_at);
+        return Objects.hash(id, title, number, state_id, priority, group, customer_id, created_at, updated_at,
+                state, owner_id, owner, customer);
     }
 }
@@ -36,6 +36,10 @@ public class TimeAccountingRequest {
         return hours * 3600 + minutes * 60 + seconds;
     }
 
+    public int getTicketId() {
+        return ticket_id;
+    }
+
     public String getTime() {
         return time_unit;
     }
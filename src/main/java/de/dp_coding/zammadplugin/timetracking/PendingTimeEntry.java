@@ -0,0 +1,107 @@
+package de.dp_coding.zammadplugin.timetracking;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * A recorded time entry that was not confirmed by Zammad yet.
+ */
+public final class PendingTimeEntry {
+    private final String id;
+    private final String baseUrl;
+    private final int ticketId;
+    private final String time;
+    private final Instant recordedAt;
+    @Nullable
+    private final Instant firstAttemptAt;
+
+    /**
+     * Creates a pending time entry.
+     *
+     * @param id Unique ID of the entry, also used as idempotency key when sending it
+     * @param baseUrl The URL of the Zammad instance the entry belongs to
+     * @param ticketId The ID of the ticket to record time for
+     * @param time The time to record in the format "HH:MM:SS"
+     * @param recordedAt When the time was recorded
+     * @param firstAttemptAt When sending the entry was first attempted, or null if it was never sent
+     */
+    public PendingTimeEntry(@NotNull String id, @NotNull String baseUrl, int ticketId, @NotNull String time,
+                            @NotNull Instant recordedAt, @Nullable Instant firstAttemptAt) {
+        this.id = id;
+        this.baseUrl = baseUrl;
+        this.ticketId = ticketId;
+        this.time = time;
+        this.recordedAt = recordedAt;
+        this.firstAttemptAt = firstAttemptAt;
+    }
+
+    @NotNull
+    public String getId() {
+        return id;
+    }
+
+    @NotNull
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public int getTicketId() {
+        return ticketId;
+    }
+
+    @NotNull
+    public String getTime() {
+        return time;
+    }
+
+    @NotNull
+    public Instant getRecordedAt() {
+        return recordedAt;
+    }
+
+    /**
+     * Gets when sending the entry was first attempted. If set, an earlier attempt may have reached the server.
+     */
+    @Nullable
+    public Instant getFirstAttemptAt() {
+        return firstAttemptAt;
+    }
+
+    @NotNull
+    PendingTimeEntry withFirstAttemptAt(@NotNull Instant attemptAt) {
+        return new PendingTimeEntry(id, baseUrl, ticketId, time, recordedAt, attemptAt);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PendingTimeEntry that = (PendingTimeEntry) o;
+        return ticketId == that.ticketId &&
+                id.equals(that.id) &&
+                baseUrl.equals(that.baseUrl) &&
+                time.equals(that.time) &&
+                recordedAt.equals(that.recordedAt) &&
+                Objects.equals(firstAttemptAt, that.firstAttemptAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, baseUrl, ticketId, time, recordedAt, firstAttemptAt);
+    }
+
+    @Override
+    public String toString() {
+        return "PendingTimeEntry{" +
+                "id='" + id + '\'' +
+                ", baseUrl='" + baseUrl + '\'' +
+                ", ticketId=" + ticketId +
+                ", time='" + time + '\'' +
+                ", recordedAt=" + recordedAt +
+                ", firstAttemptAt=" + firstAttemptAt +
+                '}';
+    }
+}
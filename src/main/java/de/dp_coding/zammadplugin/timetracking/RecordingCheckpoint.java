@@ -0,0 +1,206 @@
+package de.dp_coding.zammadplugin.timetracking;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkpoint file of a running time recording, so that a recording survives an IDE crash or kill.
+ * <p>
+ * The file is written when the recording starts and then refreshed once a minute with the time the IDE was last
+ * known to be running. Each write replaces a few hundred bytes atomically. When the IDE did not shut down cleanly,
+ * the next session finds the checkpoint and can record the time up to the last checkpoint, which is at most one
+ * interval short, instead of losing the whole session.
+ */
+public final class RecordingCheckpoint {
+    private static final Logger LOG = Logger.getInstance(RecordingCheckpoint.class);
+
+    private static final Duration CHECKPOINT_INTERVAL = Duration.ofMinutes(1);
+
+    /**
+     * A recording restored from a checkpoint file.
+     */
+    public static final class Recording {
+        private final String baseUrl;
+        private final int ticketId;
+        private final String ticketTitle;
+        private final Instant startedAt;
+        private final Instant lastSeenAt;
+
+        Recording(String baseUrl, int ticketId, String ticketTitle, Instant startedAt, Instant lastSeenAt) {
+            this.baseUrl = baseUrl;
+            this.ticketId = ticketId;
+            this.ticketTitle = ticketTitle;
+            this.startedAt = startedAt;
+            this.lastSeenAt = lastSeenAt;
+        }
+
+        /**
+         * Gets the URL of the Zammad instance the recording belongs to.
+         */
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+
+        public int getTicketId() {
+            return ticketId;
+        }
+
+        public String getTicketTitle() {
+            return ticketTitle;
+        }
+
+        public Instant getStartedAt() {
+            return startedAt;
+        }
+
+        /**
+         * Gets the last time the IDE was known to be recording.
+         */
+        public Instant getLastSeenAt() {
+            return lastSeenAt;
+        }
+
+        /**
+         * Gets the recorded time up to the last checkpoint.
+         */
+        public Duration getRecordedDuration() {
+            return lastSeenAt.isAfter(startedAt) ? Duration.between(startedAt, lastSeenAt) : Duration.ZERO;
+        }
+    }
+
+    private final File file;
+    private final Gson gson = new Gson();
+    @Nullable
+    private Record current;
+    @Nullable
+    private ScheduledFuture<?> periodicWrite;
+
+    /**
+     * Creates a checkpoint stored in the given file.
+     *
+     * @param file The checkpoint file; one file per recording view
+     */
+    public RecordingCheckpoint(@NotNull File file) {
+        this.file = file;
+    }
+
+    /**
+     * Reads a recording left over from a previous session.
+     *
+     * @return The recording, or null if there is none or the file is unreadable
+     */
+    @Nullable
+    public synchronized Recording load() {
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            Record record = gson.fromJson(Files.readString(file.toPath(), StandardCharsets.UTF_8), Record.class);
+            return new Recording(record.url, record.ticket_id, record.title,
+                Instant.parse(record.started_at), Instant.parse(record.last_seen_at));
+        } catch (IOException | JsonParseException | DateTimeParseException | NullPointerException e) {
+            LOG.warn("Ignoring unreadable recording checkpoint " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Starts checkpointing a recording: writes the checkpoint now and refreshes it periodically until {@link #clear()}.
+     *
+     * @param baseUrl The URL of the Zammad instance
+     * @param ticketId The ID of the recorded ticket
+     * @param ticketTitle The title of the recorded ticket, shown when the recording is recovered
+     * @param startedAt When the recording started
+     */
+    public synchronized void start(@NotNull String baseUrl, int ticketId, @NotNull String ticketTitle,
+                                   @NotNull Instant startedAt) {
+        cancelPeriodicWrite();
+        Record record = new Record();
+        record.url = baseUrl;
+        record.ticket_id = ticketId;
+        record.title = ticketTitle;
+        record.started_at = startedAt.toString();
+        current = record;
+        write();
+
+        long intervalMillis = CHECKPOINT_INTERVAL.toMillis();
+        periodicWrite = AppExecutorUtil.getAppScheduledExecutorService()
+            .scheduleWithFixedDelay(this::checkpoint, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops checkpointing and deletes the checkpoint, after the recording was stopped or taken over.
+     */
+    public synchronized void clear() {
+        cancelPeriodicWrite();
+        current = null;
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            LOG.warn("Failed to delete recording checkpoint " + file, e);
+        }
+    }
+
+    private synchronized void checkpoint() {
+        if (current != null) {
+            write();
+        }
+    }
+
+    private void cancelPeriodicWrite() {
+        if (periodicWrite != null) {
+            periodicWrite.cancel(false);
+            periodicWrite = null;
+        }
+    }
+
+    private void write() {
+        current.last_seen_at = Instant.now().toString();
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            File directory = file.getParentFile();
+            if (directory != null) {
+                Files.createDirectories(directory.toPath());
+            }
+            try (FileOutputStream out = new FileOutputStream(tempFile)) {
+                out.write(gson.toJson(current).getBytes(StandardCharsets.UTF_8));
+                out.getFD().sync();
+            }
+            try {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to write recording checkpoint " + file, e);
+        }
+    }
+
+    /**
+     * Contents of the checkpoint file.
+     */
+    private static final class Record {
+        private String url;
+        private int ticket_id;
+        private String title;
+        private String started_at;
+        private String last_seen_at;
+    }
+}
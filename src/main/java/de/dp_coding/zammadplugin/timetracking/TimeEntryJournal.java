@@ -0,0 +1,269 @@
+package de.dp_coding.zammadplugin.timetracking;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.intellij.openapi.diagnostic.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only journal of time entries that were recorded but not confirmed by Zammad yet.
+ * <p>
+ * Every change is appended as one JSON line and synced to disk before the method returns, so a recorded entry
+ * survives a crash or kill right after it was recorded. On startup the journal is replayed to find the entries
+ * that are still pending; a torn last line from a crash is skipped. Once no entry is pending, the file is deleted;
+ * if it grows much larger than the pending entries, it is rewritten with just these entries.
+ */
+final class TimeEntryJournal {
+    private static final Logger LOG = Logger.getInstance(TimeEntryJournal.class);
+
+    private static final String OP_ADD = "add";
+    private static final String OP_ATTEMPT = "attempt";
+    private static final String OP_SENT = "sent";
+    private static final String OP_DISCARDED = "discarded";
+    // Rewrite the journal once it holds this many records more than there are pending entries
+    private static final int COMPACTION_THRESHOLD = 64;
+
+    private final File file;
+    private final Gson gson = new Gson();
+    // Pending entries by ID, in the order they were recorded
+    private final Map<String, PendingTimeEntry> pending = new LinkedHashMap<>();
+    private boolean loaded;
+    private int records;
+    // Set if the file ends with a torn line, which the next record must not be appended to
+    private boolean needsLineBreak;
+
+    TimeEntryJournal(@NotNull File file) {
+        this.file = file;
+    }
+
+    /**
+     * Gets the pending entries, oldest first.
+     */
+    @NotNull
+    synchronized List<PendingTimeEntry> getPending() {
+        ensureLoaded();
+        return new ArrayList<>(pending.values());
+    }
+
+    /**
+     * Adds a recorded entry.
+     *
+     * @param entry The entry to add
+     * @throws IOException If the entry cannot be written; it is still kept in memory
+     */
+    synchronized void add(@NotNull PendingTimeEntry entry) throws IOException {
+        ensureLoaded();
+        pending.put(entry.getId(), entry);
+        append(Record.of(OP_ADD, entry));
+    }
+
+    /**
+     * Records that sending an entry is attempted for the first time. From now on, the entry may exist on the server.
+     *
+     * @param entry The entry that is about to be sent
+     * @param attemptAt When the attempt starts
+     * @return The entry with the attempt time
+     */
+    @NotNull
+    synchronized PendingTimeEntry markAttempted(@NotNull PendingTimeEntry entry, @NotNull Instant attemptAt) {
+        ensureLoaded();
+        PendingTimeEntry attempted = entry.withFirstAttemptAt(attemptAt);
+        if (pending.containsKey(entry.getId())) {
+            pending.put(entry.getId(), attempted);
+            appendQuietly(Record.of(OP_ATTEMPT, attempted));
+        }
+        return attempted;
+    }
+
+    /**
+     * Removes an entry that was confirmed by Zammad.
+     */
+    synchronized void markSent(@NotNull PendingTimeEntry entry) {
+        remove(entry, OP_SENT);
+    }
+
+    /**
+     * Removes an entry that Zammad rejected and that will not be sent again.
+     */
+    synchronized void markDiscarded(@NotNull PendingTimeEntry entry) {
+        remove(entry, OP_DISCARDED);
+    }
+
+    private void remove(PendingTimeEntry entry, String op) {
+        ensureLoaded();
+        if (pending.remove(entry.getId()) == null) {
+            return;
+        }
+        if (pending.isEmpty()) {
+            // Nothing left to replay
+            deleteFile();
+        } else if (records - pending.size() > COMPACTION_THRESHOLD) {
+            compact();
+        } else {
+            appendQuietly(Record.of(op, entry));
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!file.isFile()) {
+            return;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                records++;
+                try {
+                    replay(gson.fromJson(line, Record.class));
+                } catch (JsonParseException | DateTimeParseException | NullPointerException e) {
+                    // Most likely the last line was torn by a crash while it was written
+                    LOG.warn("Skipping unreadable time entry journal record: " + line);
+                }
+            }
+            needsLineBreak = !endsWithLineBreak();
+        } catch (IOException e) {
+            LOG.warn("Failed to read time entry journal " + file, e);
+        }
+        LOG.info("Loaded " + pending.size() + " pending time entries from " + file);
+    }
+
+    private void replay(Record record) {
+        switch (record.op) {
+            case OP_ADD:
+            case OP_ATTEMPT:
+                pending.put(record.id, record.toEntry());
+                break;
+            case OP_SENT:
+            case OP_DISCARDED:
+                pending.remove(record.id);
+                break;
+            default:
+                LOG.warn("Skipping time entry journal record with unknown operation: " + record.op);
+        }
+    }
+
+    private void append(Record record) throws IOException {
+        File directory = file.getParentFile();
+        if (directory != null) {
+            Files.createDirectories(directory.toPath());
+        }
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            String line = gson.toJson(record) + "\n";
+            out.write((needsLineBreak ? "\n" + line : line).getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        }
+        needsLineBreak = false;
+        records++;
+    }
+
+    private boolean endsWithLineBreak() throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            long length = in.length();
+            if (length == 0) {
+                return true;
+            }
+            in.seek(length - 1);
+            return in.read() == '\n';
+        }
+    }
+
+    private void appendQuietly(Record record) {
+        try {
+            append(record);
+        } catch (IOException e) {
+            LOG.warn("Failed to write to time entry journal " + file, e);
+        }
+    }
+
+    /**
+     * Rewrites the journal with only the pending entries, replacing the old file atomically.
+     */
+    private void compact() {
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            try (FileOutputStream out = new FileOutputStream(tempFile);
+                 Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+                for (PendingTimeEntry entry : pending.values()) {
+                    writer.write(gson.toJson(Record.of(entry.getFirstAttemptAt() != null ? OP_ATTEMPT : OP_ADD, entry)));
+                    writer.write('\n');
+                }
+                writer.flush();
+                out.getFD().sync();
+            }
+            try {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            records = pending.size();
+            needsLineBreak = false;
+        } catch (IOException e) {
+            LOG.warn("Failed to compact time entry journal " + file, e);
+        }
+    }
+
+    private void deleteFile() {
+        try {
+            Files.deleteIfExists(file.toPath());
+            records = 0;
+            needsLineBreak = false;
+        } catch (IOException e) {
+            LOG.warn("Failed to delete time entry journal " + file, e);
+        }
+    }
+
+    /**
+     * One line of the journal.
+     */
+    private static final class Record {
+        private String op;
+        private String id;
+        private String url;
+        private int ticket_id;
+        private String time;
+        private String recorded_at;
+        private String attempted_at;
+
+        static Record of(String op, PendingTimeEntry entry) {
+            Record record = new Record();
+            record.op = op;
+            record.id = entry.getId();
+            record.url = entry.getBaseUrl();
+            record.ticket_id = entry.getTicketId();
+            record.time = entry.getTime();
+            record.recorded_at = entry.getRecordedAt().toString();
+            record.attempted_at = entry.getFirstAttemptAt() != null ? entry.getFirstAttemptAt().toString() : null;
+            return record;
+        }
+
+        PendingTimeEntry toEntry() {
+            return new PendingTimeEntry(id, url, ticket_id, time, Instant.parse(recorded_at),
+                attempted_at != null ? Instant.parse(attempted_at) : null);
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package de.dp_coding.zammadplugin.timetracking;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import de.dp_coding.zammadplugin.api.ZammadService;
+import de.dp_coding.zammadplugin.exception.ApiException;
+import de.dp_coding.zammadplugin.exception.ConfigurationException;
+import de.dp_coding.zammadplugin.exception.ZammadException;
+import de.dp_coding.zammadplugin.model.TimeAccountingEntry;
+import de.dp_coding.zammadplugin.model.TimeAccountingRequest;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends recorded time entries to Zammad in the background.
+ * <p>
+ * {@link #enqueue(int, String)} only writes the entry to the local {@link TimeEntryJournal} and returns, so
+ * stopping a recording never waits for the network. A single background thread sends the pending entries in
+ * the order they were recorded. Network errors, server errors and rate limiting are retried with exponential
+ * backoff; entries that Zammad rejects for good are dropped and reported to the listeners. Entries survive
+ * offline periods and IDE restarts in the journal.
+ * <p>
+ * Every entry carries an ID that is sent as idempotency key. Because Zammad may ignore that header, an entry
+ * whose earlier attempt may have reached the server is first looked up among the ticket's time accounting
+ * entries, so that a retry does not record the time twice.
+ */
+@Service
+public final class TimeEntrySender implements Disposable {
+    private static final Logger LOG = Logger.getInstance(TimeEntrySender.class);
+
+    private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(5);
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(15);
+    // Tolerance for clock differences between the IDE and the Zammad server when looking for an earlier attempt
+    private static final Duration CLOCK_SKEW = Duration.ofMinutes(2);
+
+    /**
+     * Listener notified about the outcome of sending an entry. Called on the sender thread.
+     */
+    public interface Listener {
+        /**
+         * Called after Zammad confirmed an entry.
+         */
+        default void entrySent(@NotNull PendingTimeEntry entry) {
+        }
+
+        /**
+         * Called after Zammad rejected an entry, which is then dropped.
+         */
+        default void entryRejected(@NotNull PendingTimeEntry entry, @NotNull ZammadException error) {
+        }
+    }
+
+    private final TimeEntryJournal journal =
+        new TimeEntryJournal(new File(PathManager.getSystemPath(), "zammad-plugin/time-entries.journal"));
+    // One thread, so that entries are sent one after another in the order they were recorded
+    private final ScheduledExecutorService executor =
+        AppExecutorUtil.createBoundedScheduledExecutorService("Zammad Time Entries", 1);
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private Duration backoff = INITIAL_BACKOFF;
+    private volatile boolean disposed;
+
+    public static TimeEntrySender getInstance() {
+        return ApplicationManager.getApplication().getService(TimeEntrySender.class);
+    }
+
+    /**
+     * Records a time entry for the configured Zammad instance and schedules sending it.
+     * Only writes to the local journal, so this can be called on the EDT and while the IDE is closing.
+     *
+     * @param ticketId The ID of the ticket to record time for
+     * @param time The time to record in the format "HH:MM:SS"
+     * @return The pending entry
+     */
+    @NotNull
+    public PendingTimeEntry enqueue(int ticketId, @NotNull String time) {
+        return enqueue(ZammadService.getInstance().getZammadUrl(), ticketId, time);
+    }
+
+    /**
+     * Records a time entry for a specific Zammad instance, e.g. for a recording recovered from a previous session,
+     * and schedules sending it.
+     *
+     * @param baseUrl The URL of the Zammad instance the time was recorded for
+     * @param ticketId The ID of the ticket to record time for
+     * @param time The time to record in the format "HH:MM:SS"
+     * @return The pending entry
+     */
+    @NotNull
+    public PendingTimeEntry enqueue(@NotNull String baseUrl, int ticketId, @NotNull String time) {
+        PendingTimeEntry entry = record(baseUrl, ticketId, time);
+        flushSoon();
+        return entry;
+    }
+
+    /**
+     * Records a time entry in the local journal without scheduling sending it, e.g. while the IDE is closing.
+     * The entry is sent by the next flush, at the latest in the next session.
+     *
+     * @param baseUrl The URL of the Zammad instance the time was recorded for
+     * @param ticketId The ID of the ticket to record time for
+     * @param time The time to record in the format "HH:MM:SS"
+     * @return The pending entry
+     */
+    @NotNull
+    public PendingTimeEntry record(@NotNull String baseUrl, int ticketId, @NotNull String time) {
+        PendingTimeEntry entry = new PendingTimeEntry(UUID.randomUUID().toString(),
+            baseUrl, ticketId, time, Instant.now(), null);
+        try {
+            journal.add(entry);
+            LOG.info("Queued time entry " + entry.getId() + " for ticket ID: " + ticketId + " with time: " + time);
+        } catch (IOException e) {
+            // Still try to send it, it is only lost if this session ends before that succeeds
+            LOG.warn("Failed to write time entry " + entry.getId() + " to the journal", e);
+        }
+        return entry;
+    }
+
+    /**
+     * Gets the entries that were not confirmed by Zammad yet, oldest first.
+     */
+    @NotNull
+    public List<PendingTimeEntry> getPendingEntries() {
+        return journal.getPending();
+    }
+
+    /**
+     * Sends the pending entries as soon as possible, e.g. after the settings were changed,
+     * instead of waiting for the next retry.
+     */
+    public void flushSoon() {
+        schedule(Duration.ZERO, true);
+    }
+
+    public void addListener(@NotNull Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(@NotNull Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private synchronized void schedule(Duration delay, boolean resetBackoff) {
+        if (disposed) {
+            return;
+        }
+        if (resetBackoff) {
+            backoff = INITIAL_BACKOFF;
+        }
+        if (scheduledFlush != null && !scheduledFlush.isDone()) {
+            if (scheduledFlush.getDelay(TimeUnit.MILLISECONDS) <= delay.toMillis()) {
+                return;
+            }
+            scheduledFlush.cancel(false);
+        }
+        scheduledFlush = executor.schedule(this::flush, delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized Duration nextBackoff() {
+        Duration delay = backoff;
+        backoff = backoff.multipliedBy(2).compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff.multipliedBy(2);
+        // Add up to 20% jitter, so that several IDEs coming back online do not retry in lockstep
+        long jitterMillis = (long) (delay.toMillis() * 0.2 * ThreadLocalRandom.current().nextDouble());
+        return delay.plusMillis(jitterMillis);
+    }
+
+    /**
+     * Sends all pending entries of the configured instance. Stops at the first error that is worth retrying
+     * and schedules the next attempt with backoff.
+     */
+    private void flush() {
+        synchronized (this) {
+            // Entries queued from now on need another run
+            scheduledFlush = null;
+        }
+        ZammadService zammadService = ZammadService.getInstance();
+        String baseUrl = zammadService.getZammadUrl();
+        for (PendingTimeEntry entry : journal.getPending()) {
+            if (disposed) {
+                return;
+            }
+            if (!entry.getBaseUrl().equals(baseUrl)) {
+                // Recorded for another instance; kept until that instance is configured again
+                continue;
+            }
+
+            try {
+                send(zammadService, entry);
+            } catch (ZammadException e) {
+                if (isRetryable(e)) {
+                    Duration delay = nextBackoff();
+                    LOG.info("Failed to send time entry " + entry.getId() + ", retrying in " + delay.toSeconds() + "s: " + e.getMessage());
+                    schedule(delay, false);
+                    return;
+                }
+                LOG.warn("Zammad rejected time entry " + entry.getId() + ", dropping it", e);
+                journal.markDiscarded(entry);
+                for (Listener listener : listeners) {
+                    listener.entryRejected(entry, e);
+                }
+                continue;
+            }
+
+            journal.markSent(entry);
+            for (Listener listener : listeners) {
+                listener.entrySent(entry);
+            }
+        }
+        synchronized (this) {
+            backoff = INITIAL_BACKOFF;
+        }
+    }
+
+    private void send(ZammadService zammadService, PendingTimeEntry entry) throws ZammadException {
+        if (entry.getFirstAttemptAt() != null && isAlreadyRecorded(zammadService, entry)) {
+            LOG.info("Time entry " + entry.getId() + " was already recorded by an earlier attempt");
+            return;
+        }
+
+        PendingTimeEntry attempted = entry.getFirstAttemptAt() != null
+            ? entry
+            : journal.markAttempted(entry, Instant.now());
+        TimeAccountingEntry created =
+            zammadService.createTimeAccountingEntry(attempted.getTicketId(), attempted.getTime(), attempted.getId());
+        LOG.info("Sent time entry " + entry.getId() + " as time accounting entry " + created.getId());
+    }
+
+    /**
+     * Checks whether an earlier attempt to send an entry reached the server after all: the ticket has an entry
+     * by the current user with the same time, created after that attempt started.
+     */
+    private static boolean isAlreadyRecorded(ZammadService zammadService, PendingTimeEntry entry) throws ZammadException {
+        String userId = String.valueOf(zammadService.getCurrentUser().getId());
+        String minutes = new TimeAccountingRequest(entry.getTicketId(), entry.getTime()).getTime();
+        Instant notBefore = entry.getFirstAttemptAt().minus(CLOCK_SKEW);
+        for (TimeAccountingEntry existing : zammadService.getTimeAccountingEntries(entry.getTicketId())) {
+            Instant createdAt = parseInstant(existing.getCreatedAt());
+            if (userId.equals(existing.getCreatedBy())
+                    && isSameTime(minutes, existing.getTime())
+                    && createdAt != null && !createdAt.isBefore(notBefore)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSameTime(String minutes, @Nullable String timeUnit) {
+        if (timeUnit == null) {
+            return false;
+        }
+        try {
+            return Double.parseDouble(minutes) == Double.parseDouble(timeUnit);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    @Nullable
+    private static Instant parseInstant(@Nullable String timestamp) {
+        if (timestamp == null) {
+            return null;
+        }
+        try {
+            return Instant.parse(timestamp);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Network errors, a missing configuration, authentication problems (the token may be fixed later),
+     * timeouts, rate limiting and server errors are retried; every other rejection is final.
+     */
+    private static boolean isRetryable(ZammadException e) {
+        if (e instanceof ConfigurationException) {
+            return true;
+        }
+        if (e instanceof ApiException) {
+            int status = ((ApiException) e).getStatusCode();
+            return status == 0 || status == 401 || status == 408 || status == 429 || status >= 500;
+        }
+        return false;
+    }
+
+    @Override
+    public void dispose() {
+        disposed = true;
+        synchronized (this) {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+            }
+        }
+        // Pending entries stay in the journal and are sent in the next session
+        executor.shutdownNow();
+    }
+}
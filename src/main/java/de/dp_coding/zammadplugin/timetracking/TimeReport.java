@@ -0,0 +1,172 @@
+package de.dp_coding.zammadplugin.timetracking;
+
+import de.dp_coding.zammadplugin.model.Ticket;
+import de.dp_coding.zammadplugin.model.TimeAccountingEntry;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Time accounted by one user on a set of tickets, summed up per ticket, per day and per week.
+ * Zammad stores the time of an entry in minutes; all totals are in minutes as well.
+ * Entries without a valid creation time cannot be assigned to a day and are left out altogether, so that
+ * the totals per ticket, per day and per week all add up to the same total.
+ */
+public final class TimeReport {
+    private final List<Ticket> tickets;
+    private final Map<Integer, Double> minutesByTicket;
+    private final SortedMap<LocalDate, Double> minutesByDay;
+    private final SortedMap<LocalDate, Double> minutesByWeek;
+    private final double totalMinutes;
+
+    private TimeReport(List<Ticket> tickets, Map<Integer, Double> minutesByTicket,
+                       SortedMap<LocalDate, Double> minutesByDay, SortedMap<LocalDate, Double> minutesByWeek,
+                       double totalMinutes) {
+        this.tickets = tickets;
+        this.minutesByTicket = minutesByTicket;
+        this.minutesByDay = minutesByDay;
+        this.minutesByWeek = minutesByWeek;
+        this.totalMinutes = totalMinutes;
+    }
+
+    /**
+     * Aggregates the time accounting entries a user booked on tickets.
+     *
+     * @param tickets The tickets of the report
+     * @param entriesByTicket The time accounting entries by ticket ID; tickets without entries may be missing
+     * @param userId The ID of the user whose time is reported; entries booked by others on the same tickets are skipped
+     * @param zone The time zone that decides which day an entry belongs to
+     * @return The report
+     */
+    @NotNull
+    public static TimeReport create(@NotNull List<Ticket> tickets,
+                                    @NotNull Map<Integer, List<TimeAccountingEntry>> entriesByTicket,
+                                    int userId,
+                                    @NotNull ZoneId zone) {
+        String createdBy = String.valueOf(userId);
+        Map<Integer, Double> minutesByTicket = new HashMap<>();
+        SortedMap<LocalDate, Double> minutesByDay = new TreeMap<>();
+        SortedMap<LocalDate, Double> minutesByWeek = new TreeMap<>();
+        double totalMinutes = 0;
+
+        for (Ticket ticket : tickets) {
+            List<TimeAccountingEntry> entries = entriesByTicket.get(ticket.getId());
+            if (entries == null) {
+                continue;
+            }
+            for (TimeAccountingEntry entry : entries) {
+                if (!createdBy.equals(entry.getCreatedBy())) {
+                    continue;
+                }
+                double minutes = parseMinutes(entry.getTime());
+                Instant createdAt = parseInstant(entry.getCreatedAt());
+                if (minutes == 0 || createdAt == null) {
+                    continue;
+                }
+                totalMinutes += minutes;
+                minutesByTicket.merge(ticket.getId(), minutes, Double::sum);
+
+                LocalDate day = createdAt.atZone(zone).toLocalDate();
+                minutesByDay.merge(day, minutes, Double::sum);
+                minutesByWeek.merge(startOfWeek(day), minutes, Double::sum);
+            }
+        }
+
+        return new TimeReport(Collections.unmodifiableList(new ArrayList<>(tickets)),
+            Collections.unmodifiableMap(minutesByTicket),
+            Collections.unmodifiableSortedMap(minutesByDay),
+            Collections.unmodifiableSortedMap(minutesByWeek),
+            totalMinutes);
+    }
+
+    /**
+     * Gets the tickets of the report.
+     */
+    @NotNull
+    public List<Ticket> getTickets() {
+        return tickets;
+    }
+
+    /**
+     * Gets the time accounted on a ticket, or 0 if there is none.
+     */
+    public double getTicketMinutes(int ticketId) {
+        return minutesByTicket.getOrDefault(ticketId, 0.0);
+    }
+
+    /**
+     * Gets the time accounted per day, in the order of the days.
+     */
+    @NotNull
+    public SortedMap<LocalDate, Double> getMinutesByDay() {
+        return minutesByDay;
+    }
+
+    /**
+     * Gets the time accounted per week, keyed by the Monday the week starts with.
+     */
+    @NotNull
+    public SortedMap<LocalDate, Double> getMinutesByWeek() {
+        return minutesByWeek;
+    }
+
+    /**
+     * Gets the time accounted on all tickets of the report.
+     */
+    public double getTotalMinutes() {
+        return totalMinutes;
+    }
+
+    /**
+     * Gets the Monday of the ISO week a day belongs to.
+     */
+    @NotNull
+    public static LocalDate startOfWeek(@NotNull LocalDate day) {
+        return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    /**
+     * Formats minutes as hours and minutes, e.g. "2h 05m".
+     */
+    @NotNull
+    public static String formatMinutes(double minutes) {
+        long rounded = Math.round(minutes);
+        return String.format("%dh %02dm", rounded / 60, rounded % 60);
+    }
+
+    private static double parseMinutes(@Nullable String timeUnit) {
+        if (timeUnit == null || timeUnit.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(timeUnit);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    @Nullable
+    private static Instant parseInstant(@Nullable String timestamp) {
+        if (timestamp == null || timestamp.isEmpty()) {
+            return null;
+        }
+        try {
+            return Instant.parse(timestamp);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
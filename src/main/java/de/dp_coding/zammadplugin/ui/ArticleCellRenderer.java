@@ -0,0 +1,123 @@
+package de.dp_coding.zammadplugin.ui;
+
+import com.intellij.ui.JBColor;
+import com.intellij.ui.SimpleColoredComponent;
+import com.intellij.ui.SimpleTextAttributes;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.util.ui.JBUI;
+import com.intellij.util.ui.UIUtil;
+import de.dp_coding.zammadplugin.model.ArticleHeader;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Renders an article of the conversation: sender, time and kind on the first line, followed by the first lines
+ * of its text. All rows have the same height, see {@link #getRowHeight(JList)}, and long lines are cut off, so the
+ * list never measures a row.
+ */
+class ArticleCellRenderer extends JPanel implements ListCellRenderer<ArticleHeader> {
+    static final int PREVIEW_LINES = 2;
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")
+        .withZone(ZoneId.systemDefault());
+
+    /**
+     * The texts of the articles. Called on the EDT for every painted row, so implementations must not do any I/O.
+     */
+    interface ArticleTexts {
+        /**
+         * Gets the text of an article, or null if it is not converted yet.
+         */
+        @Nullable
+        ArticleText.Converted getText(@NotNull ArticleHeader article);
+
+        boolean isFailed(@NotNull ArticleHeader article);
+    }
+
+    private final ArticleTexts texts;
+    private final SimpleColoredComponent header = new SimpleColoredComponent();
+    private final JBLabel[] previewLabels = new JBLabel[PREVIEW_LINES];
+
+    ArticleCellRenderer(@NotNull ArticleTexts texts) {
+        super(new GridLayout(PREVIEW_LINES + 1, 1));
+        this.texts = texts;
+        setBorder(JBUI.Borders.empty(4, 8));
+        add(header);
+        for (int i = 0; i < PREVIEW_LINES; i++) {
+            previewLabels[i] = new JBLabel();
+            add(previewLabels[i]);
+        }
+    }
+
+    /**
+     * Gets the height of every row in the given list.
+     */
+    int getRowHeight(@NotNull JList<?> list) {
+        FontMetrics metrics = list.getFontMetrics(list.getFont());
+        Insets insets = getInsets();
+        return (PREVIEW_LINES + 1) * (metrics.getHeight() + JBUI.scale(2)) + insets.top + insets.bottom;
+    }
+
+    @Override
+    public Component getListCellRendererComponent(
+        JList<? extends ArticleHeader> list,
+        ArticleHeader article,
+        int index,
+        boolean selected,
+        boolean hasFocus
+    ) {
+        Color foreground = UIUtil.getListForeground(selected, hasFocus);
+        setBackground(UIUtil.getListBackground(selected, hasFocus));
+
+        header.clear();
+        header.setFont(list.getFont());
+        SimpleTextAttributes details = selected
+            ? new SimpleTextAttributes(SimpleTextAttributes.STYLE_PLAIN, foreground)
+            : SimpleTextAttributes.GRAYED_ATTRIBUTES;
+        String from = article.getFrom();
+        header.append(from != null && !from.isEmpty() ? from : "Unknown sender",
+            new SimpleTextAttributes(SimpleTextAttributes.STYLE_BOLD, foreground));
+        header.append("  " + formatDate(article.getCreatedAt()), details);
+        if ("true".equals(article.getInternalNote())) {
+            header.append("  internal", new SimpleTextAttributes(SimpleTextAttributes.STYLE_ITALIC,
+                selected ? foreground : JBColor.ORANGE));
+        }
+        if (article.getType() != null) {
+            header.append("  " + article.getType(), details);
+        }
+
+        // Placeholders until the text is converted in the background
+        ArticleText.Converted text = texts.getText(article);
+        String[] lines;
+        if (text != null) {
+            lines = text.getPreview();
+        } else {
+            lines = new String[] {texts.isFailed(article) ? "Cannot load this article" : "Loading…"};
+        }
+        Color previewForeground = text != null || selected ? foreground : UIUtil.getContextHelpForeground();
+        for (int i = 0; i < PREVIEW_LINES; i++) {
+            previewLabels[i].setFont(list.getFont());
+            previewLabels[i].setForeground(previewForeground);
+            previewLabels[i].setText(i < lines.length ? lines[i] : "");
+        }
+        return this;
+    }
+
+    private static String formatDate(@Nullable String timestamp) {
+        if (timestamp == null) {
+            return "";
+        }
+        try {
+            return DATE_FORMAT.format(Instant.parse(timestamp));
+        } catch (DateTimeParseException e) {
+            return timestamp;
+        }
+    }
+}
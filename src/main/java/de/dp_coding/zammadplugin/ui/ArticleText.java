@@ -0,0 +1,314 @@
+package de.dp_coding.zammadplugin.ui;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Converts article bodies to plain text for the conversation view.
+ * <p>
+ * HTML bodies are reduced to their text in a single pass: scripts, styles and comments are dropped with their
+ * content, block elements become line breaks, entities are decoded and whitespace is collapsed as a browser would.
+ * The result is shown as plain text, so nothing in a body, such as remote images or forms, is ever interpreted.
+ */
+final class ArticleText {
+    // Elements that start on a new line
+    private static final Set<String> BLOCK_TAGS = Set.of(
+        "address", "article", "blockquote", "br", "dd", "div", "dl", "dt", "fieldset", "figure", "footer", "form",
+        "h1", "h2", "h3", "h4", "h5", "h6", "header", "hr", "li", "main", "ol", "p", "pre", "section", "table",
+        "tbody", "td", "tfoot", "th", "thead", "tr", "ul");
+    // Elements that are dropped with everything inside them
+    private static final Set<String> HIDDEN_TAGS = Set.of("head", "script", "style", "template", "title");
+
+    private ArticleText() {
+    }
+
+    /**
+     * Converts a body to plain text and extracts its first lines, for the conversation list.
+     *
+     * @param body The body of the article
+     * @param contentType The content type of the body
+     * @param previewLines The number of lines to extract
+     * @param previewLineLength The length at which the extracted lines are cut
+     */
+    @NotNull
+    static Converted convert(@Nullable String body, @Nullable String contentType, int previewLines,
+                             int previewLineLength) {
+        String text = toPlainText(body, contentType);
+        return new Converted(text, firstLines(text, previewLines, previewLineLength));
+    }
+
+    /**
+     * Converts a body to plain text.
+     *
+     * @param body The body of the article
+     * @param contentType The content type of the body; bodies without one are treated as HTML if they contain tags
+     * @return The text, with single blank lines between paragraphs and without leading or trailing blank lines
+     */
+    @NotNull
+    static String toPlainText(@Nullable String body, @Nullable String contentType) {
+        if (body == null || body.isEmpty()) {
+            return "";
+        }
+        boolean html = contentType != null ? contentType.toLowerCase(Locale.ROOT).contains("html") : body.indexOf('<') >= 0;
+        return normalizeLines(html ? htmlToText(body) : body);
+    }
+
+    /**
+     * Gets the first non-blank lines of a text.
+     *
+     * @param text The text, as returned by {@link #toPlainText}
+     * @param maxLines The maximum number of lines
+     * @param maxLineLength The length at which lines are cut, so that renderers never measure long strings
+     */
+    @NotNull
+    static String[] firstLines(@NotNull String text, int maxLines, int maxLineLength) {
+        String[] lines = new String[maxLines];
+        int count = 0;
+        int start = 0;
+        while (count < maxLines && start < text.length()) {
+            int end = text.indexOf('\n', start);
+            if (end < 0) {
+                end = text.length();
+            }
+            if (end > start) {
+                lines[count++] = end - start > maxLineLength
+                    ? text.substring(start, start + maxLineLength - 1) + "…"
+                    : text.substring(start, end);
+            }
+            start = end + 1;
+        }
+        String[] result = new String[count];
+        System.arraycopy(lines, 0, result, 0, count);
+        return result;
+    }
+
+    private static String htmlToText(String html) {
+        StringBuilder text = new StringBuilder(html.length() / 2);
+        int length = html.length();
+        int preDepth = 0;
+        int i = 0;
+        while (i < length) {
+            char c = html.charAt(i);
+            if (c == '<') {
+                if (html.startsWith("<!--", i)) {
+                    int end = html.indexOf("-->", i + 4);
+                    i = end < 0 ? length : end + 3;
+                    continue;
+                }
+                int end = html.indexOf('>', i + 1);
+                if (end < 0 || !isTagStart(html, i + 1)) {
+                    // Not a tag after all
+                    appendChar(text, html, i, preDepth > 0);
+                    i++;
+                    continue;
+                }
+                boolean closing = i + 1 < end && html.charAt(i + 1) == '/';
+                String name = tagName(html, closing ? i + 2 : i + 1, end);
+                i = end + 1;
+                if (!closing && HIDDEN_TAGS.contains(name)) {
+                    int close = indexOfIgnoreCase(html, "</" + name, i);
+                    if (close < 0) {
+                        // Never closed, so only the tag itself is dropped
+                        continue;
+                    }
+                    int closeEnd = html.indexOf('>', close);
+                    i = closeEnd < 0 ? length : closeEnd + 1;
+                    continue;
+                }
+                if (name.equals("pre")) {
+                    preDepth = Math.max(0, preDepth + (closing ? -1 : 1));
+                }
+                if (name.equals("br")) {
+                    text.append('\n');
+                } else if (name.equals("p") || name.equals("blockquote")) {
+                    endLine(text, 2);
+                } else if (name.equals("td") || name.equals("th")) {
+                    if (!closing) {
+                        text.append('\t');
+                    }
+                } else if (BLOCK_TAGS.contains(name)) {
+                    endLine(text, 1);
+                    if (!closing && name.equals("li")) {
+                        text.append("• ");
+                    }
+                }
+                continue;
+            }
+            if (c == '&') {
+                int end = html.indexOf(';', i + 1);
+                if (end > i + 1 && end - i <= 10) {
+                    int decoded = decodeEntity(html, i + 1, end);
+                    if (decoded >= 0) {
+                        text.appendCodePoint(decoded == 0xA0 ? ' ' : decoded);
+                        i = end + 1;
+                        continue;
+                    }
+                }
+            }
+            appendChar(text, html, i, preDepth > 0);
+            i++;
+        }
+        return text.toString();
+    }
+
+    private static boolean isTagStart(String html, int index) {
+        if (index >= html.length()) {
+            return false;
+        }
+        char c = html.charAt(index);
+        return Character.isLetter(c) || c == '/' || c == '!' || c == '?';
+    }
+
+    /**
+     * Ends the current line, followed by blank lines up to the given number of line breaks.
+     */
+    private static void endLine(StringBuilder text, int lineBreaks) {
+        int existing = 0;
+        while (existing < text.length() && text.charAt(text.length() - 1 - existing) == '\n') {
+            existing++;
+        }
+        if (existing == text.length()) {
+            // Nothing but line breaks so far
+            return;
+        }
+        for (int i = existing; i < lineBreaks; i++) {
+            text.append('\n');
+        }
+    }
+
+    private static void appendChar(StringBuilder text, String html, int index, boolean preformatted) {
+        char c = html.charAt(index);
+        if (preformatted) {
+            if (c != '\r') {
+                text.append(c);
+            } else if (index + 1 >= html.length() || html.charAt(index + 1) != '\n') {
+                // A line break of its own, not the first half of CRLF
+                text.append('\n');
+            }
+        } else if (Character.isWhitespace(c)) {
+            // Whitespace in HTML is a single space, and none at the start of a line
+            int last = text.length() - 1;
+            if (last >= 0 && text.charAt(last) != ' ' && text.charAt(last) != '\n') {
+                text.append(' ');
+            }
+        } else {
+            text.append(c);
+        }
+    }
+
+    private static String tagName(String html, int start, int end) {
+        int nameEnd = start;
+        while (nameEnd < end && Character.isLetterOrDigit(html.charAt(nameEnd))) {
+            nameEnd++;
+        }
+        return html.substring(start, nameEnd).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Decodes the entity between '&' and ';', or returns -1 if it is not one.
+     */
+    private static int decodeEntity(String html, int start, int end) {
+        if (html.charAt(start) == '#') {
+            try {
+                boolean hex = start + 1 < end && (html.charAt(start + 1) == 'x' || html.charAt(start + 1) == 'X');
+                int codePoint = hex
+                    ? Integer.parseInt(html.substring(start + 2, end), 16)
+                    : Integer.parseInt(html.substring(start + 1, end));
+                return Character.isValidCodePoint(codePoint) && codePoint != 0 ? codePoint : -1;
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        return switch (html.substring(start, end)) {
+            case "amp" -> '&';
+            case "lt" -> '<';
+            case "gt" -> '>';
+            case "quot" -> '"';
+            case "apos" -> '\'';
+            case "nbsp" -> 0xA0;
+            case "shy" -> 0xAD;
+            case "ndash" -> 0x2013;
+            case "mdash" -> 0x2014;
+            case "hellip" -> 0x2026;
+            case "euro" -> 0x20AC;
+            case "copy" -> 0xA9;
+            case "auml" -> 0xE4;
+            case "ouml" -> 0xF6;
+            case "uuml" -> 0xFC;
+            case "Auml" -> 0xC4;
+            case "Ouml" -> 0xD6;
+            case "Uuml" -> 0xDC;
+            case "szlig" -> 0xDF;
+            default -> -1;
+        };
+    }
+
+    private static int indexOfIgnoreCase(String text, String part, int from) {
+        for (int i = from; i <= text.length() - part.length(); i++) {
+            if (text.regionMatches(true, i, part, 0, part.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Strips trailing whitespace from every line and collapses runs of blank lines into one.
+     */
+    private static String normalizeLines(String text) {
+        StringBuilder result = new StringBuilder(text.length());
+        int blankLines = 0;
+        int start = 0;
+        int length = text.length();
+        while (start <= length) {
+            int end = text.indexOf('\n', start);
+            if (end < 0) {
+                end = length;
+            }
+            int lineEnd = end;
+            while (lineEnd > start && Character.isWhitespace(text.charAt(lineEnd - 1))) {
+                lineEnd--;
+            }
+            if (lineEnd == start) {
+                blankLines++;
+            } else {
+                if (result.length() > 0) {
+                    result.append(blankLines > 0 ? "\n\n" : "\n");
+                }
+                result.append(text, start, lineEnd);
+                blankLines = 0;
+            }
+            start = end + 1;
+        }
+        return result.toString();
+    }
+
+    /**
+     * The text of an article together with its first lines.
+     */
+    static final class Converted {
+        private final String text;
+        private final String[] preview;
+
+        private Converted(String text, String[] preview) {
+            this.text = text;
+            this.preview = preview;
+        }
+
+        @NotNull
+        String getText() {
+            return text;
+        }
+
+        /**
+         * Gets the first non-blank lines of the text; the array must not be modified.
+         */
+        @NotNull
+        String[] getPreview() {
+            return preview;
+        }
+    }
+}
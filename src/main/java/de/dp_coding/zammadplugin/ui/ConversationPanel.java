@@ -0,0 +1,312 @@
+package de.dp_coding.zammadplugin.ui;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.ui.CollectionListModel;
+import com.intellij.ui.components.JBList;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTextArea;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.ui.JBUI;
+import de.dp_coding.zammadplugin.api.ExpiringCache;
+import de.dp_coding.zammadplugin.api.ZammadService;
+import de.dp_coding.zammadplugin.exception.ErrorHandler;
+import de.dp_coding.zammadplugin.model.ArticleHeader;
+import de.dp_coding.zammadplugin.model.Ticket;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The conversation of the selected ticket: its articles, newest first, above the full text of the selected one.
+ * <p>
+ * The list has a fixed row height, so Swing lays out and paints only the rows in view, however long the
+ * conversation is. The article headers are shown as soon as they arrive. The bodies of the rows in view, and of
+ * one page below them, are then loaded and converted to plain text on a background thread, and the rows are
+ * repainted as their texts come in. Converted texts are cached by article ID and update time, so scrolling back
+ * or reopening a ticket converts nothing again, while an edited article is converted anew.
+ */
+class ConversationPanel implements Disposable {
+    private static final int PREVIEW_LINE_LENGTH = 300;
+    // Rows converted before the list has been laid out, enough to fill a tall tool window
+    private static final int INITIAL_ROWS = 20;
+    private static final int MAX_CONCURRENT_CONVERSIONS = 2;
+    // Upper bound for the converted texts, in characters
+    private static final long TEXT_CACHE_MAX_CHARS = 4L * 1024 * 1024;
+    // Article IDs grow with the creation time
+    private static final Comparator<ArticleHeader> NEWEST_FIRST =
+        Comparator.comparingInt(ArticleHeader::getId).reversed();
+
+    private final CollectionListModel<ArticleHeader> model = new CollectionListModel<>();
+    private final JBList<ArticleHeader> articleList = new JBList<>(model);
+    private final JBScrollPane articleScrollPane = new JBScrollPane(articleList);
+    private final JBTextArea articleTextArea = new JBTextArea();
+    private final JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT);
+
+    private final ExpiringCache<String, ArticleText.Converted> texts = new ExpiringCache<>(
+        "article texts", TEXT_CACHE_MAX_CHARS, Duration.ofMinutes(30), converted -> 64L + converted.getText().length());
+    // Keys of the texts being converted, and of those that could not be loaded for the current ticket
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final Set<String> failed = ConcurrentHashMap.newKeySet();
+    private final ExecutorService conversionExecutor =
+        AppExecutorUtil.createBoundedApplicationPoolExecutor("Zammad Conversation", MAX_CONCURRENT_CONVERSIONS);
+    private final AtomicBoolean repaintScheduled = new AtomicBoolean();
+
+    // Accessed on the EDT only
+    @Nullable
+    private Ticket ticket;
+    private int loadGeneration;
+    @Nullable
+    private String shownTextKey;
+    private volatile boolean disposed;
+
+    ConversationPanel() {
+        ArticleCellRenderer renderer = new ArticleCellRenderer(new ArticleCellRenderer.ArticleTexts() {
+            @Nullable
+            @Override
+            public ArticleText.Converted getText(@NotNull ArticleHeader article) {
+                String key = key(article);
+                ArticleText.Converted text = texts.get(key);
+                if (text == null) {
+                    startLoad(article, key);
+                }
+                return text;
+            }
+
+            @Override
+            public boolean isFailed(@NotNull ArticleHeader article) {
+                return failed.contains(key(article));
+            }
+        });
+        articleList.setCellRenderer(renderer);
+        articleList.setFixedCellHeight(renderer.getRowHeight(articleList));
+        articleList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        articleList.getEmptyText().setText("No ticket selected");
+        articleList.addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                showSelectedText();
+            }
+        });
+        // Rows scrolled into view are converted ahead of time, one page in advance
+        articleScrollPane.getViewport().addChangeListener(e -> loadVisibleTexts());
+
+        articleTextArea.setEditable(false);
+        articleTextArea.setLineWrap(true);
+        articleTextArea.setWrapStyleWord(true);
+        articleTextArea.setBorder(JBUI.Borders.empty(8));
+
+        splitPane.setTopComponent(articleScrollPane);
+        splitPane.setBottomComponent(new JBScrollPane(articleTextArea));
+        splitPane.setResizeWeight(0.5);
+        splitPane.setBorder(null);
+    }
+
+    /**
+     * Gets the component showing the conversation.
+     */
+    JComponent getContent() {
+        return splitPane;
+    }
+
+    /**
+     * Shows the conversation of a ticket. Its articles are loaded in the background; nothing happens if the ticket
+     * is already shown and unchanged.
+     *
+     * @param newTicket The ticket to show, or null to show nothing
+     */
+    void showTicket(@Nullable Ticket newTicket) {
+        Ticket previous = ticket;
+        boolean sameTicket = previous != null && newTicket != null && previous.getId() == newTicket.getId();
+        if (sameTicket && Objects.equals(previous.getUpdated_at(), newTicket.getUpdated_at())) {
+            return;
+        }
+        ticket = newTicket;
+        int generation = ++loadGeneration;
+        failed.clear();
+        if (!sameTicket) {
+            model.removeAll();
+            showText(null, "");
+        }
+        if (newTicket == null) {
+            articleList.setPaintBusy(false);
+            articleList.getEmptyText().setText("No ticket selected");
+            return;
+        }
+
+        ZammadService zammadService = ZammadService.getInstance();
+        if (sameTicket) {
+            // An update of the ticket often means a new article
+            zammadService.invalidateTicketArticles(newTicket.getId());
+        }
+        articleList.getEmptyText().setText("Loading conversation...");
+        articleList.setPaintBusy(true);
+        zammadService.getTicketArticlesAsync(newTicket.getId()).whenComplete((articles, error) -> runOnEdt(() -> {
+            if (generation != loadGeneration) {
+                return;
+            }
+            articleList.setPaintBusy(false);
+            if (error != null) {
+                ErrorHandler.handleExceptionSilently(ErrorHandler.unwrap(error),
+                    "Loading the conversation of ticket " + newTicket.getId());
+                articleList.getEmptyText().setText("Cannot load the conversation");
+                return;
+            }
+            showArticles(articles);
+        }));
+    }
+
+    private void showArticles(List<ArticleHeader> articles) {
+        List<ArticleHeader> newestFirst = new ArrayList<>(articles);
+        newestFirst.sort(NEWEST_FIRST);
+
+        ArticleHeader selected = articleList.getSelectedValue();
+        model.replaceAll(newestFirst);
+        articleList.getEmptyText().setText("No articles");
+        if (newestFirst.isEmpty()) {
+            return;
+        }
+
+        int selectedIndex = -1;
+        if (selected != null) {
+            for (int i = 0; i < newestFirst.size() && selectedIndex < 0; i++) {
+                if (newestFirst.get(i).getId() == selected.getId()) {
+                    selectedIndex = i;
+                }
+            }
+        }
+        if (selectedIndex < 0) {
+            // A newly opened ticket starts at its latest message
+            articleList.setSelectedIndex(0);
+            articleList.ensureIndexIsVisible(0);
+        } else {
+            articleList.setSelectedIndex(selectedIndex);
+        }
+        loadVisibleTexts();
+    }
+
+    /**
+     * Starts converting the texts of the rows in view and of the page below them, the visible ones first.
+     */
+    private void loadVisibleTexts() {
+        int size = model.getSize();
+        if (size == 0) {
+            return;
+        }
+        int first = articleList.getFirstVisibleIndex();
+        int last = articleList.getLastVisibleIndex();
+        if (first < 0 || last < first) {
+            // Not laid out yet
+            first = 0;
+            last = Math.min(size, INITIAL_ROWS) - 1;
+        }
+        int end = Math.min(size - 1, last + (last - first + 1));
+        for (int i = first; i <= end; i++) {
+            load(model.getElementAt(i));
+        }
+    }
+
+    /**
+     * Loads and converts the text of an article in the background, unless it is cached, in flight or failed.
+     */
+    private void load(ArticleHeader article) {
+        String key = key(article);
+        if (texts.get(key) == null) {
+            startLoad(article, key);
+        }
+    }
+
+    private void startLoad(ArticleHeader article, String key) {
+        if (disposed || failed.contains(key) || !pending.add(key)) {
+            return;
+        }
+        ZammadService.getInstance().getArticleBodyAsync(article)
+            .thenApplyAsync(body -> ArticleText.convert(body, article.getContentType(),
+                ArticleCellRenderer.PREVIEW_LINES, PREVIEW_LINE_LENGTH), conversionExecutor)
+            .whenComplete((text, error) -> {
+                pending.remove(key);
+                if (disposed) {
+                    return;
+                }
+                if (error != null) {
+                    ErrorHandler.handleExceptionSilently(ErrorHandler.unwrap(error), "Loading article " + article.getId());
+                    failed.add(key);
+                } else {
+                    texts.put(key, text);
+                }
+                scheduleRepaint();
+            });
+    }
+
+    /**
+     * Repaints the list once for all texts that arrived since the last repaint.
+     */
+    private void scheduleRepaint() {
+        if (repaintScheduled.compareAndSet(false, true)) {
+            runOnEdt(() -> {
+                repaintScheduled.set(false);
+                articleList.repaint();
+                showSelectedText();
+            });
+        }
+    }
+
+    private void showSelectedText() {
+        ArticleHeader article = articleList.getSelectedValue();
+        if (article == null) {
+            showText(null, "");
+            return;
+        }
+        String key = key(article);
+        if (key.equals(shownTextKey)) {
+            return;
+        }
+        ArticleText.Converted text = texts.get(key);
+        if (text != null) {
+            showText(key, text.getText());
+        } else if (failed.contains(key)) {
+            showText(null, "Cannot load this article.");
+        } else {
+            showText(null, "Loading…");
+            startLoad(article, key);
+        }
+    }
+
+    private void showText(@Nullable String key, String text) {
+        shownTextKey = key;
+        articleTextArea.setText(text);
+        articleTextArea.setCaretPosition(0);
+    }
+
+    private static String key(ArticleHeader article) {
+        return article.getId() + "@" + article.getUpdatedAt();
+    }
+
+    /**
+     * Runs the given action on the EDT unless this panel has been disposed in the meantime.
+     */
+    private void runOnEdt(Runnable action) {
+        ApplicationManager.getApplication().invokeLater(() -> {
+            if (!disposed) {
+                action.run();
+            }
+        }, ModalityState.any());
+    }
+
+    @Override
+    public void dispose() {
+        disposed = true;
+        conversionExecutor.shutdownNow();
+        texts.invalidateAll();
+    }
+}
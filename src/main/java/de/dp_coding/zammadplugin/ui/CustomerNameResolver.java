@@ -0,0 +1,158 @@
+package de.dp_coding.zammadplugin.ui;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.diagnostic.Logger;
+import de.dp_coding.zammadplugin.api.ZammadService;
+import de.dp_coding.zammadplugin.exception.ErrorHandler;
+import de.dp_coding.zammadplugin.model.Ticket;
+import de.dp_coding.zammadplugin.model.User;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves customer names for the ticket list without blocking the EDT.
+ * The cell renderer only reads names that are already cached. A cache miss schedules a background
+ * lookup and returns a placeholder; once the user arrives, only the rows showing that customer are repainted.
+ */
+class CustomerNameResolver {
+    private static final Logger LOG = Logger.getInstance(CustomerNameResolver.class);
+
+    static final String PLACEHOLDER = "...";
+
+    private final JList<Ticket> list;
+    // Customer IDs with a lookup in flight
+    private final Set<Integer> pending = ConcurrentHashMap.newKeySet();
+    // Customer IDs whose lookup failed; they are shown by ID until the next refresh
+    private final Set<Integer> failed = ConcurrentHashMap.newKeySet();
+
+    CustomerNameResolver(@NotNull JList<Ticket> list) {
+        this.list = list;
+    }
+
+    /**
+     * Gets the customer label for a ticket without doing any I/O.
+     *
+     * @param ticket The ticket to get the customer label for
+     * @return The customer name, the customer from the expanded ticket, the raw customer ID if it cannot be resolved,
+     * {@link #PLACEHOLDER} while the name is loading, or an empty string if the ticket has no customer
+     */
+    @NotNull
+    String getCustomerLabel(@NotNull Ticket ticket) {
+        String customerId = ticket.getCustomer_id();
+        if (customerId == null || customerId.isEmpty()) {
+            return "";
+        }
+
+        Integer userId = parseCustomerId(ticket);
+        if (userId == null) {
+            // If the customer field is not a numeric ID, just return it as is
+            return customerId;
+        }
+
+        User user = ZammadService.getInstance().getCachedUser(userId);
+        if (user != null) {
+            return user.getFullName();
+        }
+        if (hasExpandedCustomer(ticket)) {
+            // Expanded tickets already name their customer, no request needed
+            return ticket.getCustomer();
+        }
+        if (failed.contains(userId)) {
+            return customerId;
+        }
+
+        resolve(userId);
+        return PLACEHOLDER;
+    }
+
+    /**
+     * Resolves the customers of all given tickets with a single bulk request.
+     * Customers that the bulk request does not return are looked up one by one when their rows are painted.
+     *
+     * @param tickets The tickets whose customers should be resolved
+     */
+    void prefetch(@NotNull Collection<Ticket> tickets) {
+        ZammadService zammadService = ZammadService.getInstance();
+        Set<Integer> userIds = new LinkedHashSet<>();
+        for (Ticket ticket : tickets) {
+            Integer userId = parseCustomerId(ticket);
+            if (userId != null && !hasExpandedCustomer(ticket) && zammadService.getCachedUser(userId) == null
+                    && !failed.contains(userId) && pending.add(userId)) {
+                userIds.add(userId);
+            }
+        }
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        zammadService.getUsersByIdsAsync(userIds).whenComplete((users, error) -> {
+            if (error != null) {
+                ErrorHandler.handleExceptionSilently(ErrorHandler.unwrap(error), "Resolving " + userIds.size() + " customers");
+            }
+            pending.removeAll(userIds);
+            ApplicationManager.getApplication().invokeLater(list::repaint, ModalityState.any());
+        });
+    }
+
+    /**
+     * Forgets failed lookups, so that they are retried the next time the rows are painted.
+     */
+    void clearFailures() {
+        failed.clear();
+    }
+
+    private static boolean hasExpandedCustomer(Ticket ticket) {
+        return ticket.getCustomer() != null && !ticket.getCustomer().isEmpty();
+    }
+
+    @Nullable
+    private static Integer parseCustomerId(Ticket ticket) {
+        String customerId = ticket.getCustomer_id();
+        if (customerId == null || customerId.isEmpty()) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(customerId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void resolve(int userId) {
+        if (!pending.add(userId)) {
+            return;
+        }
+
+        ZammadService.getInstance().getUserByIdAsync(userId).whenComplete((user, error) -> {
+            if (error != null) {
+                // Don't show error dialog for customer name as it's not critical
+                ErrorHandler.handleExceptionSilently(ErrorHandler.unwrap(error), "Resolving customer " + userId);
+                failed.add(userId);
+            }
+            pending.remove(userId);
+            ApplicationManager.getApplication().invokeLater(() -> repaintRowsOfCustomer(userId), ModalityState.any());
+        });
+    }
+
+    private void repaintRowsOfCustomer(int userId) {
+        String customerId = String.valueOf(userId);
+        ListModel<Ticket> model = list.getModel();
+        for (int i = 0; i < model.getSize(); i++) {
+            Ticket ticket = model.getElementAt(i);
+            if (ticket != null && customerId.equals(ticket.getCustomer_id())) {
+                Rectangle bounds = list.getCellBounds(i, i);
+                if (bounds != null) {
+                    list.repaint(bounds);
+                }
+            }
+        }
+    }
+}
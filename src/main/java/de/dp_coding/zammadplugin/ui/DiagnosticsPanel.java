@@ -0,0 +1,308 @@
+package de.dp_coding.zammadplugin.ui;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.actionSystem.ActionManager;
+import com.intellij.openapi.actionSystem.ActionToolbar;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.DefaultActionGroup;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.ide.CopyPasteManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTabbedPane;
+import com.intellij.ui.table.JBTable;
+import de.dp_coding.zammadplugin.api.BlockingCallGuard;
+import de.dp_coding.zammadplugin.api.CallTrace;
+import de.dp_coding.zammadplugin.api.ExpiringCache;
+import de.dp_coding.zammadplugin.api.HttpMetrics;
+import de.dp_coding.zammadplugin.api.ZammadService;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.Timer;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.awt.datatransfer.StringSelection;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Diagnostics tab of the tool window: latency, throughput, errors and cache use of the HTTP calls per endpoint,
+ * the timing breakdown of the most recent calls, calls that blocked the UI, and the statistics of the in-memory caches.
+ * The numbers are updated
+ * every few seconds while the tab is shown, and the selected table can be copied or exported as CSV.
+ * <p>
+ * A mean latency close to the mean server wait means the time is spent by the Zammad instance;
+ * a large difference points to the connection, the transfer or the plugin.
+ */
+public class DiagnosticsPanel implements Disposable {
+    private static final Logger LOG = Logger.getInstance(DiagnosticsPanel.class);
+
+    private static final int REFRESH_INTERVAL_MILLIS = 2000;
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS")
+        .withZone(ZoneId.systemDefault());
+    private static final String[] HTTP_COLUMNS = {
+        "Endpoint", "Requests", "Errors", "Error Rate", "Mean (ms)", "Server Wait (ms)",
+        "p50 (ms)", "p95 (ms)", "p99 (ms)", "Max (ms)", "Bytes Sent", "Bytes Received",
+        "Cache Hits", "Revalidated", "Cache Misses", "Cache Hit Ratio"
+    };
+    private static final String[] CALL_COLUMNS = {
+        "Started", "Endpoint", "Status", "Total (ms)", "DNS (ms)", "Connect (ms)", "TLS (ms)", "Request (ms)",
+        "Server Wait (ms)", "Download (ms)", "Deserialize (ms)", "Bytes Received", "Cache", "Reused Connection",
+        "Failure"
+    };
+    private static final String[] BLOCKING_CALL_COLUMNS = {
+        "Started", "Blocked", "Endpoint", "Call Site", "Duration (ms)"
+    };
+    private static final String[] CACHE_COLUMNS = {
+        "Cache", "Entries", "Weight", "Max Weight", "Hits", "Misses", "Hit Ratio", "Evictions", "Expirations"
+    };
+
+    private final Project project;
+    private final ZammadService service = ZammadService.getInstance();
+    private final JPanel mainPanel = new JPanel(new BorderLayout());
+    private final DefaultTableModel httpModel = createModel(HTTP_COLUMNS);
+    private final DefaultTableModel callModel = createModel(CALL_COLUMNS);
+    private final DefaultTableModel blockingCallModel = createModel(BLOCKING_CALL_COLUMNS);
+    private final DefaultTableModel cacheModel = createModel(CACHE_COLUMNS);
+    private final JBTabbedPane tabs = new JBTabbedPane();
+    private final Timer timer = new Timer(REFRESH_INTERVAL_MILLIS, e -> refreshIfShowing());
+
+    public DiagnosticsPanel(Project project) {
+        this.project = project;
+
+        DefaultActionGroup actionGroup = new DefaultActionGroup();
+        actionGroup.add(new AnAction("Refresh", "Update the numbers", AllIcons.Actions.Refresh) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                refresh();
+            }
+        });
+        actionGroup.add(new AnAction("Reset", "Forget the recorded HTTP calls", AllIcons.Actions.GC) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                service.getHttpMetrics().reset();
+                service.getCallTracer().clear();
+                service.getBlockingCallGuard().clear();
+                refresh();
+            }
+        });
+        actionGroup.add(new AnAction("Copy as CSV", "Copy the shown table to the clipboard", AllIcons.Actions.Copy) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                CopyPasteManager.getInstance().setContents(new StringSelection(selectedTableCsv()));
+            }
+        });
+        actionGroup.add(new AnAction("Export as CSV", "Save the shown table to a file", AllIcons.ToolbarDecorator.Export) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                exportCsv();
+            }
+        });
+        ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar(
+                "ZammadDiagnosticsToolbar", actionGroup, true);
+        toolbar.setTargetComponent(mainPanel);
+
+        tabs.addTab("Endpoints", createTable(httpModel));
+        tabs.addTab("Recent Calls", createTable(callModel));
+        tabs.addTab("Blocking Calls", createTable(blockingCallModel));
+        tabs.addTab("Caches", createTable(cacheModel));
+
+        mainPanel.add(toolbar.getComponent(), BorderLayout.NORTH);
+        mainPanel.add(tabs, BorderLayout.CENTER);
+
+        refresh();
+        timer.start();
+    }
+
+    public JComponent getContent() {
+        return mainPanel;
+    }
+
+    @Override
+    public void dispose() {
+        timer.stop();
+    }
+
+    private void refreshIfShowing() {
+        if (mainPanel.isShowing()) {
+            refresh();
+        }
+    }
+
+    private void refresh() {
+        httpModel.setRowCount(0);
+        for (HttpMetrics.EndpointStats stats : service.getHttpMetrics().snapshot()) {
+            httpModel.addRow(httpRow(stats));
+        }
+        callModel.setRowCount(0);
+        for (CallTrace trace : service.getCallTracer().getRecentCalls()) {
+            callModel.addRow(callRow(trace));
+        }
+        blockingCallModel.setRowCount(0);
+        for (BlockingCallGuard.BlockingCall call : service.getBlockingCallGuard().getRecentCalls()) {
+            blockingCallModel.addRow(new Object[]{
+                TIME_FORMAT.format(call.getStartedAt()), call.getContext(), call.getEndpoint(), call.getCallSite(),
+                round(call.getDurationMillis(), 1)
+            });
+        }
+        cacheModel.setRowCount(0);
+        for (ExpiringCache.Stats stats : service.getCacheStats()) {
+            cacheModel.addRow(new Object[]{
+                stats.getName(), stats.getSize(), stats.getWeight(), stats.getMaxWeight(),
+                stats.getHits(), stats.getMisses(), round(stats.getHitRatio(), 3),
+                stats.getEvictions(), stats.getExpirations()
+            });
+        }
+    }
+
+    private void exportCsv() {
+        String csv = selectedTableCsv();
+        FileSaverDescriptor descriptor = new FileSaverDescriptor(
+            "Export Diagnostics", "Save the shown table as CSV", "csv");
+        VirtualFileWrapper target = FileChooserFactory.getInstance()
+            .createSaveFileDialog(descriptor, project)
+            .save((Path) null, "zammad-" + tabs.getTitleAt(tabs.getSelectedIndex()).toLowerCase(Locale.ROOT)
+                .replace(' ', '-') + ".csv");
+        if (target == null) {
+            return;
+        }
+        try {
+            Files.writeString(target.getFile().toPath(), csv, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            LOG.warn("Failed to export the diagnostics", e);
+            Messages.showErrorDialog(project, "Could not write " + target.getFile() + ": " + e.getMessage(),
+                "Export Failed");
+        }
+    }
+
+    private static Object[] httpRow(HttpMetrics.EndpointStats stats) {
+        return new Object[]{
+            stats.getEndpoint(), stats.getRequests(), stats.getErrors(), round(stats.getErrorRate(), 3),
+            round(stats.getMeanMillis(), 1), round(stats.getMeanServerWaitMillis(), 1),
+            round(stats.getPercentileMillis(50), 1), round(stats.getPercentileMillis(95), 1),
+            round(stats.getPercentileMillis(99), 1), round(stats.getMaxMillis(), 1),
+            stats.getBytesSent(), stats.getBytesReceived(),
+            stats.getCacheHits(), stats.getConditionalCacheHits(), stats.getCacheMisses(),
+            round(stats.getCacheHitRatio(), 3)
+        };
+    }
+
+    private static Object[] callRow(CallTrace trace) {
+        return new Object[]{
+            TIME_FORMAT.format(trace.getStartedAt()), trace.getEndpoint(),
+            trace.getFailure() != null ? "failed" : String.valueOf(trace.getStatusCode()),
+            round(trace.getTotalMillis(), 1), round(trace.getDnsMillis(), 1), round(trace.getConnectMillis(), 1),
+            round(trace.getTlsMillis(), 1), round(trace.getRequestMillis(), 1), round(trace.getServerWaitMillis(), 1),
+            round(trace.getDownloadMillis(), 1), round(trace.getDeserializationMillis(), 1), trace.getBytesReceived(),
+            trace.getCacheOutcome().name().toLowerCase(Locale.ROOT), trace.isConnectionReused(),
+            Objects.requireNonNullElse(trace.getFailure(), "")
+        };
+    }
+
+    /**
+     * Formats the table of the selected tab as CSV. The endpoints come with their latency histogram.
+     */
+    private String selectedTableCsv() {
+        return switch (tabs.getSelectedIndex()) {
+            case 0 -> toCsv(service.getHttpMetrics().snapshot());
+            case 1 -> toCsv(callModel);
+            case 2 -> toCsv(blockingCallModel);
+            default -> toCsv(cacheModel);
+        };
+    }
+
+    private static String toCsv(DefaultTableModel model) {
+        StringBuilder csv = new StringBuilder();
+        Object[] values = new Object[model.getColumnCount()];
+        for (int column = 0; column < values.length; column++) {
+            values[column] = model.getColumnName(column);
+        }
+        appendCsvLine(csv, values);
+        for (int row = 0; row < model.getRowCount(); row++) {
+            for (int column = 0; column < values.length; column++) {
+                values[column] = model.getValueAt(row, column);
+            }
+            appendCsvLine(csv, values);
+        }
+        return csv.toString();
+    }
+
+    /**
+     * Formats the metrics as CSV: the columns of the table, followed by the latency histogram.
+     */
+    private static String toCsv(List<HttpMetrics.EndpointStats> snapshot) {
+        long[] bounds = HttpMetrics.getBucketBoundsMillis();
+        List<String> header = new ArrayList<>(List.of(HTTP_COLUMNS));
+        for (long bound : bounds) {
+            header.add("<= " + bound + " ms");
+        }
+        header.add("> " + bounds[bounds.length - 1] + " ms");
+
+        StringBuilder csv = new StringBuilder();
+        appendCsvLine(csv, header.toArray());
+        for (HttpMetrics.EndpointStats stats : snapshot) {
+            List<Object> values = new ArrayList<>(List.of(httpRow(stats)));
+            for (long count : stats.getBucketCounts()) {
+                values.add(count);
+            }
+            appendCsvLine(csv, values.toArray());
+        }
+        return csv.toString();
+    }
+
+    private static void appendCsvLine(StringBuilder csv, Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                csv.append(',');
+            }
+            String value = String.valueOf(values[i]);
+            if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+                csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                csv.append(value);
+            }
+        }
+        csv.append('\n');
+    }
+
+    private static double round(double value, int decimals) {
+        double factor = Math.pow(10, decimals);
+        return Math.round(value * factor) / factor;
+    }
+
+    private static JComponent createTable(DefaultTableModel model) {
+        JBTable table = new JBTable(model);
+        table.setAutoCreateRowSorter(true);
+        return new JBScrollPane(table);
+    }
+
+    private static DefaultTableModel createModel(String[] columns) {
+        return new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            // Lets the row sorter compare numbers as numbers; all values of a column have the same type
+            @Override
+            public Class<?> getColumnClass(int column) {
+                return getRowCount() > 0 ? getValueAt(0, column).getClass() : Object.class;
+            }
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package de.dp_coding.zammadplugin.ui;
+
+import com.intellij.dvcs.DvcsUtil;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.ui.ValidationInfo;
+import com.intellij.ui.CheckBoxList;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.util.ui.JBUI;
+import de.dp_coding.zammadplugin.git.TicketBranch;
+import git4idea.repo.GitRepository;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Dialog for choosing the repositories to create a ticket branch in.
+ * All repositories are selected, except the ones that already have a local branch for the ticket.
+ */
+public class SelectRepositoriesDialog extends DialogWrapper {
+    private final String branchName;
+    private final List<GitRepository> repositories;
+    private final CheckBoxList<GitRepository> repositoryList = new CheckBoxList<>();
+
+    /**
+     * @param project The project
+     * @param branchName The name of the branch to create
+     * @param repositories The repositories of the project
+     * @param existingBranches The branches that already exist for the ticket
+     */
+    public SelectRepositoriesDialog(Project project, @NotNull String branchName,
+                                    @NotNull List<GitRepository> repositories,
+                                    @NotNull List<TicketBranch> existingBranches) {
+        super(project);
+        this.branchName = branchName;
+        this.repositories = repositories;
+
+        List<GitRepository> withLocalBranch = existingBranches.stream()
+            .filter(branch -> !branch.isRemote())
+            .map(TicketBranch::getRepository)
+            .collect(Collectors.toList());
+        repositoryList.setItems(repositories, repository -> withLocalBranch.contains(repository)
+            ? DvcsUtil.getShortRepositoryName(repository) + " (has a branch for this ticket)"
+            : DvcsUtil.getShortRepositoryName(repository));
+        for (GitRepository repository : repositories) {
+            repositoryList.setItemSelected(repository, !withLocalBranch.contains(repository));
+        }
+
+        setTitle("Create Branch");
+        setOKButtonText("Create");
+        init();
+    }
+
+    @Nullable
+    @Override
+    protected JComponent createCenterPanel() {
+        JPanel panel = new JPanel(new BorderLayout());
+        JBLabel label = new JBLabel("Create and check out branch '" + branchName + "' in:");
+        label.setBorder(JBUI.Borders.empty(0, 0, 5, 0));
+        panel.add(label, BorderLayout.NORTH);
+        panel.add(new JBScrollPane(repositoryList), BorderLayout.CENTER);
+        return panel;
+    }
+
+    @Nullable
+    @Override
+    protected ValidationInfo doValidate() {
+        if (getSelectedRepositories().isEmpty()) {
+            return new ValidationInfo("Select at least one repository", repositoryList);
+        }
+        return null;
+    }
+
+    /**
+     * Gets the repositories the user selected, in the order of the project's repositories.
+     */
+    @NotNull
+    public List<GitRepository> getSelectedRepositories() {
+        return repositories.stream()
+            .filter(repositoryList::isItemSelected)
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,96 @@
+package de.dp_coding.zammadplugin.ui;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.ui.ColoredListCellRenderer;
+import com.intellij.ui.JBColor;
+import com.intellij.ui.SimpleTextAttributes;
+import de.dp_coding.zammadplugin.git.TicketBranch;
+import de.dp_coding.zammadplugin.model.Ticket;
+import de.dp_coding.zammadplugin.timetracking.TimeReport;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Renders a ticket of the ticket list: ID, title, state, customer, branches, accounted time
+ * and whether time is being recorded for it.
+ */
+class TicketCellRenderer extends ColoredListCellRenderer<Ticket> {
+
+    /**
+     * The data shown next to the tickets, besides the ticket itself. Called on the EDT for every painted row,
+     * so implementations must not do any I/O.
+     */
+    interface TicketDecorations {
+        @NotNull
+        String getCustomerLabel(@NotNull Ticket ticket);
+
+        @NotNull
+        List<TicketBranch> getBranches(int ticketId);
+
+        @Nullable
+        TimeReport getTimeReport();
+
+        boolean isRecording(@NotNull Ticket ticket);
+    }
+
+    private final TicketDecorations decorations;
+
+    TicketCellRenderer(@NotNull TicketDecorations decorations) {
+        this.decorations = decorations;
+    }
+
+    @Override
+    protected void customizeCellRenderer(
+        JList<? extends Ticket> list,
+        Ticket value,
+        int index,
+        boolean selected,
+        boolean hasFocus
+    ) {
+        if (value != null) {
+            // Check if this ticket has active time recording
+            boolean isTimeRecordingActive = decorations.isRecording(value);
+
+            // Use different style for tickets with active time recording
+            append("#" + value.getId() + ": ", new SimpleTextAttributes(SimpleTextAttributes.STYLE_BOLD, null));
+            append(value.getTitle(), new SimpleTextAttributes(SimpleTextAttributes.STYLE_BOLD, null));
+            append(" (" + value.getStateDisplayName() + ")", SimpleTextAttributes.GRAYED_ATTRIBUTES);
+
+            // Add customer name if available; unresolved names are loaded in the background
+            String customerInfo = decorations.getCustomerLabel(value);
+            if (!customerInfo.isEmpty()) {
+                append(" - " + customerInfo, SimpleTextAttributes.GRAYED_ATTRIBUTES);
+            }
+
+            // Mark tickets that already have a branch in any repository
+            List<TicketBranch> branches = decorations.getBranches(value.getId());
+            if (!branches.isEmpty()) {
+                setIcon(AllIcons.Vcs.Branch);
+                setToolTipText("Branches: " + branches.stream()
+                    .map(TicketBranch::getName)
+                    .distinct()
+                    .collect(Collectors.joining(", ")));
+            } else {
+                setIcon(null);
+                setToolTipText(null);
+            }
+
+            // Add the time accounted on the ticket
+            TimeReport timeReport = decorations.getTimeReport();
+            if (timeReport != null && timeReport.getTicketMinutes(value.getId()) > 0) {
+                append("  " + TimeReport.formatMinutes(timeReport.getTicketMinutes(value.getId())),
+                    SimpleTextAttributes.GRAYED_BOLD_ATTRIBUTES);
+            }
+
+            if (isTimeRecordingActive) {
+                setBackground(new JBColor(new Color(230, 240, 255), new Color(45, 55, 70)));
+                append(" [RECORDING TIME]", new SimpleTextAttributes(SimpleTextAttributes.STYLE_BOLD, JBColor.BLUE));
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package de.dp_coding.zammadplugin.ui;
+
+import de.dp_coding.zammadplugin.model.Ticket;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.AbstractListModel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * List model for the ticket list that is updated with a diff instead of being rebuilt.
+ * Rows are keyed by ticket ID; a row is only replaced if the ticket's {@code updated_at} or another field changed.
+ * Consecutive rows that are inserted, removed or changed are reported in one range event, so a refresh that
+ * changes three of 2,000 tickets only repaints three rows, and the list keeps its scroll position and selection.
+ * Must only be used on the EDT.
+ */
+class TicketListModel extends AbstractListModel<Ticket> {
+    private final List<Ticket> tickets = new ArrayList<>();
+
+    @Override
+    public int getSize() {
+        return tickets.size();
+    }
+
+    @Override
+    public Ticket getElementAt(int index) {
+        return tickets.get(index);
+    }
+
+    /**
+     * Gets the row of a ticket.
+     *
+     * @param ticketId The ID of the ticket
+     * @return The index of the ticket, or -1 if it is not in the list
+     */
+    int indexOf(int ticketId) {
+        for (int i = 0; i < tickets.size(); i++) {
+            if (tickets.get(i).getId() == ticketId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes all tickets.
+     */
+    void clear() {
+        if (tickets.isEmpty()) {
+            return;
+        }
+        int lastIndex = tickets.size() - 1;
+        tickets.clear();
+        fireIntervalRemoved(this, 0, lastIndex);
+    }
+
+    /**
+     * Updates the list to show the given tickets, in the given order.
+     * Tickets that are no longer present are removed, new tickets are inserted and tickets that changed are
+     * replaced in place. Tickets that changed their position are moved by removing and inserting them again;
+     * the longest run of tickets that kept their relative order stays in place, so only the fewest rows are moved.
+     * Unchanged rows are not touched.
+     *
+     * @param newTickets The tickets to show; ticket IDs must be unique
+     */
+    void setTickets(@NotNull List<Ticket> newTickets) {
+        Map<Integer, Integer> newIndex = new HashMap<>(newTickets.size() * 2);
+        for (int i = 0; i < newTickets.size(); i++) {
+            newIndex.put(newTickets.get(i).getId(), i);
+        }
+
+        // Remove the tickets that are gone and the ones that have to be moved
+        removeRows(findRowsToKeep(newIndex));
+
+        // The remaining rows are in the order of the new list, so only insertions and changes are left
+        EventBatch batch = new EventBatch();
+        for (int i = 0; i < newTickets.size(); i++) {
+            Ticket ticket = newTickets.get(i);
+            Ticket current = i < tickets.size() ? tickets.get(i) : null;
+
+            if (current != null && current.getId() == ticket.getId()) {
+                if (!isSameVersion(current, ticket)) {
+                    tickets.set(i, ticket);
+                    batch.changed(i);
+                }
+            } else {
+                tickets.add(i, ticket);
+                batch.added(i);
+            }
+        }
+        batch.flush();
+    }
+
+    /**
+     * Finds the rows that can stay where they are: the longest subsequence of rows whose positions in the new
+     * list are increasing. Rows whose ticket is not in the new list are never kept.
+     */
+    private boolean[] findRowsToKeep(Map<Integer, Integer> newIndex) {
+        int size = tickets.size();
+        // tails[k] is the row ending the best increasing run of length k + 1, predecessors link the runs
+        int[] tails = new int[size];
+        int[] predecessors = new int[size];
+        int[] positions = new int[size];
+        int length = 0;
+        for (int row = 0; row < size; row++) {
+            Integer position = newIndex.get(tickets.get(row).getId());
+            positions[row] = position != null ? position : -1;
+            if (position == null) {
+                continue;
+            }
+
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (positions[tails[middle]] < position) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            predecessors[row] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = row;
+            if (low == length) {
+                length++;
+            }
+        }
+
+        boolean[] keep = new boolean[size];
+        for (int row = length > 0 ? tails[length - 1] : -1; row >= 0; row = predecessors[row]) {
+            keep[row] = true;
+        }
+        return keep;
+    }
+
+    /**
+     * Removes the rows that are not kept, from the bottom up so that indices stay valid,
+     * with one event per run of consecutive rows.
+     */
+    private void removeRows(boolean[] keep) {
+        int runEnd = -1;
+        for (int i = tickets.size() - 1; i >= 0; i--) {
+            if (!keep[i] && runEnd < 0) {
+                runEnd = i;
+            } else if (keep[i] && runEnd >= 0) {
+                removeRange(i + 1, runEnd);
+                runEnd = -1;
+            }
+        }
+        if (runEnd >= 0) {
+            removeRange(0, runEnd);
+        }
+    }
+
+    private void removeRange(int from, int to) {
+        tickets.subList(from, to + 1).clear();
+        fireIntervalRemoved(this, from, to);
+    }
+
+    private static boolean isSameVersion(Ticket current, Ticket ticket) {
+        return Objects.equals(current.getUpdated_at(), ticket.getUpdated_at()) && current.equals(ticket);
+    }
+
+    /**
+     * Collects consecutive insertions or changes and fires them as one range event.
+     */
+    private class EventBatch {
+        private static final int NONE = 0;
+        private static final int ADDED = 1;
+        private static final int CHANGED = 2;
+
+        private int type = NONE;
+        private int start;
+        private int end;
+
+        void added(int index) {
+            record(ADDED, index);
+        }
+
+        void changed(int index) {
+            record(CHANGED, index);
+        }
+
+        private void record(int eventType, int index) {
+            if (type != eventType || index != end + 1) {
+                flush();
+                type = eventType;
+                start = index;
+            }
+            end = index;
+        }
+
+        void flush() {
+            if (type == ADDED) {
+                fireIntervalAdded(TicketListModel.this, start, end);
+            } else if (type == CHANGED) {
+                fireContentsChanged(TicketListModel.this, start, end);
+            }
+            type = NONE;
+        }
+    }
+}
@@ -2,47 +2,59 @@ package de.dp_coding.zammadplugin.ui;
 
 import com.intellij.icons.AllIcons;
 import com.intellij.openapi.actionSystem.*;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.PathManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
 import com.intellij.ide.BrowserUtil;
-import com.intellij.ui.ColoredListCellRenderer;
 import com.intellij.ui.JBColor;
-import com.intellij.ui.SimpleTextAttributes;
 import com.intellij.ui.components.JBList;
 import com.intellij.ui.components.JBScrollPane;
 import com.intellij.util.ui.JBUI;
+import de.dp_coding.zammadplugin.api.TicketStore;
 import de.dp_coding.zammadplugin.api.ZammadService;
 import de.dp_coding.zammadplugin.exception.ApiException;
 import de.dp_coding.zammadplugin.exception.ConfigurationException;
 import de.dp_coding.zammadplugin.exception.ErrorHandler;
 import de.dp_coding.zammadplugin.exception.FeatureNotEnabledException;
 import de.dp_coding.zammadplugin.exception.ZammadException;
-import de.dp_coding.zammadplugin.model.Article;
+import de.dp_coding.zammadplugin.git.BranchNames;
+import de.dp_coding.zammadplugin.git.CreateTicketBranchTask;
+import de.dp_coding.zammadplugin.git.TicketBranch;
+import de.dp_coding.zammadplugin.git.TicketBranchIndex;
 import de.dp_coding.zammadplugin.model.Ticket;
 import de.dp_coding.zammadplugin.model.TimeAccountingEntry;
+import de.dp_coding.zammadplugin.timetracking.PendingTimeEntry;
+import de.dp_coding.zammadplugin.timetracking.RecordingCheckpoint;
+import de.dp_coding.zammadplugin.timetracking.TimeEntrySender;
+import de.dp_coding.zammadplugin.timetracking.TimeReport;
 import git4idea.GitUtil;
-import git4idea.branch.GitBrancher;
 import git4idea.repo.GitRepository;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import com.intellij.openapi.Disposable;
 
 import javax.swing.*;
-import javax.swing.DefaultListModel;
 import javax.swing.Timer;
-import javax.swing.event.HyperlinkEvent;
-import javax.swing.event.HyperlinkListener;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
 import java.awt.*;
+import java.io.File;
 import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Collections;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
-import java.util.regex.Pattern;
 
 /**
  * View for selecting a Zammad ticket.
@@ -52,65 +64,95 @@ public class TicketSelectionView implements Disposable {
 
     private final JBList<Ticket> ticketList = new JBList<>();
     private final Project project;
-    private final DefaultListModel<Ticket> model = new DefaultListModel<>();
+    private final TicketListModel model = new TicketListModel();
+    private final CustomerNameResolver customerNameResolver = new CustomerNameResolver(ticketList);
     private final JPanel mainPanel = new JPanel(new BorderLayout());
     private Consumer<Ticket> ticketSelectedCallback;
 
-    // Split pane components
-    private final JSplitPane splitPane = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT);
-    private final JPanel ticketDetailsPanel = new JPanel(new BorderLayout());
-    private final JTextPane ticketDetailsTextPane = new JTextPane();
+    // Split pane components: the ticket list above the conversation of the selected ticket
+    private final JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT);
+    private final ConversationPanel conversationPanel = new ConversationPanel();
 
     // Time tracking variables
     private Ticket activeTimeTrackingTicket;
     private Instant timeTrackingStartTime;
+    // The instance the recording is for, which a recovered recording may not share with the current settings
+    private String timeTrackingBaseUrl;
     private AnAction startTimeRecordingAction;
     private AnAction stopTimeRecordingAction;
 
     // Timer components
     private final JLabel timerLabel = new JLabel();
     private Timer timer;
+    // Keeps the active recording on disk, so it can be recovered after a crash
+    private final RecordingCheckpoint recordingCheckpoint;
+
+    // Incremented for every load, so that responses of superseded loads are ignored
+    private int loadGeneration;
+    private CompletableFuture<Integer> currentLoad;
+    private final AtomicBoolean refreshFromStoreScheduled = new AtomicBoolean();
+    private final TicketStore.Listener ticketStoreListener = this::scheduleRefreshFromStore;
+    // Time entries recorded in this view, so that only this view reports their outcome
+    private final Set<String> queuedTimeEntryIds = ConcurrentHashMap.newKeySet();
+    private final TimeEntrySender.Listener timeEntryListener = new TimeEntrySender.Listener() {
+        @Override
+        public void entrySent(@NotNull PendingTimeEntry entry) {
+            if (queuedTimeEntryIds.remove(entry.getId())) {
+                // Refresh the ticket list to show updated time entries
+                runOnEdt(() -> loadTickets());
+            }
+        }
 
+        @Override
+        public void entryRejected(@NotNull PendingTimeEntry entry, @NotNull ZammadException error) {
+            if (queuedTimeEntryIds.remove(entry.getId())) {
+                runOnEdt(() -> handleTimeRecordingError(error));
+            }
+        }
+    };
+    // Branches of the tickets, shown next to each ticket
+    private final TicketBranchIndex branchIndex;
+    private final TicketBranchIndex.Listener branchIndexListener = ticketIds -> runOnEdt(ticketList::repaint);
+    // Time accounted per ticket, shown next to each ticket; null until the time report was first shown
+    private TimeReport timeReport;
+    private CompletableFuture<Map<Integer, List<TimeAccountingEntry>>> timeTotalsLoad;
+    private volatile boolean disposed;
 
     public TicketSelectionView(Project project) {
         this.project = project;
+        this.recordingCheckpoint = new RecordingCheckpoint(
+            new File(PathManager.getSystemPath(), "zammad-plugin/recordings/" + project.getLocationHash() + ".json"));
+        this.branchIndex = TicketBranchIndex.getInstance(project);
 
         // Setup the list
         ticketList.setModel(model);
         ticketList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
 
         // Set custom cell renderer to display ticket information
-        ticketList.setCellRenderer(new ColoredListCellRenderer<Ticket>() {
+        ticketList.setCellRenderer(new TicketCellRenderer(new TicketCellRenderer.TicketDecorations() {
+            @NotNull
             @Override
-            protected void customizeCellRenderer(
-                JList<? extends Ticket> list,
-                Ticket value,
-                int index,
-                boolean selected,
-                boolean hasFocus
-            ) {
-                if (value != null) {
-                    // Check if this ticket has active time recording
-                    boolean isTimeRecordingActive = value.equals(activeTimeTrackingTicket);
-
-                    // Use different style for tickets with active time recording
-                    append("#" + value.getId() + ": ", new SimpleTextAttributes(SimpleTextAttributes.STYLE_BOLD, null));
-                    append(value.getTitle(), new SimpleTextAttributes(SimpleTextAttributes.STYLE_BOLD, null));
-                    append(" (" + value.getState_id() + ")", SimpleTextAttributes.GRAYED_ATTRIBUTES);
-
-                    // Add customer name if available
-                    String customerInfo = getCustomerName(value);
-                    if (customerInfo != null && !customerInfo.isEmpty()) {
-                        append(" - " + customerInfo, SimpleTextAttributes.GRAYED_ATTRIBUTES);
-                    }
+            public String getCustomerLabel(@NotNull Ticket ticket) {
+                return customerNameResolver.getCustomerLabel(ticket);
+            }
 
-                    if (isTimeRecordingActive) {
-                        setBackground(new JBColor(new Color(230, 240, 255), new Color(45, 55, 70)));
-                        append(" [RECORDING TIME]", new SimpleTextAttributes(SimpleTextAttributes.STYLE_BOLD, JBColor.BLUE));
-                    }
-                }
+            @NotNull
+            @Override
+            public List<TicketBranch> getBranches(int ticketId) {
+                return branchIndex.getBranches(ticketId);
             }
-        });
+
+            @Nullable
+            @Override
+            public TimeReport getTimeReport() {
+                return timeReport;
+            }
+
+            @Override
+            public boolean isRecording(@NotNull Ticket ticket) {
+                return ticket.equals(activeTimeTrackingTicket);
+            }
+        }));
 
         // Add mouse listener for double-click
         ticketList.addMouseListener(new java.awt.event.MouseAdapter() {
@@ -231,6 +273,19 @@ public class TicketSelectionView implements Disposable {
             }
         });
 
+        // Add time report action
+        actionGroup.add(new AnAction("Time Report", "Show the time accounted on all listed tickets", AllIcons.Actions.ListFiles) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                showTimeReport();
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(model.getSize() > 0);
+            }
+        });
+
 
         ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar(
                 "ZammadToolbar", actionGroup, true);
@@ -247,38 +302,15 @@ public class TicketSelectionView implements Disposable {
         topPanel.add(toolbar.getComponent(), BorderLayout.CENTER);
         topPanel.add(timerLabel, BorderLayout.EAST);
 
-        // Setup ticket details panel
-        ticketDetailsTextPane.setEditable(false);
-        ticketDetailsTextPane.setContentType("text/html");
-        ticketDetailsTextPane.setBorder(JBUI.Borders.empty(10));
-        ticketDetailsPanel.add(new JBScrollPane(ticketDetailsTextPane), BorderLayout.CENTER);
-
-        // Add hyperlink listener to handle action links
-        ticketDetailsTextPane.addHyperlinkListener(new HyperlinkListener() {
-            @Override
-            public void hyperlinkUpdate(HyperlinkEvent e) {
-                if (e.getEventType() == HyperlinkEvent.EventType.ACTIVATED) {
-                    String url = e.getDescription();
-                    Ticket selectedTicket = ticketList.getSelectedValue();
+        // Setup the split pane with the ticket list and the conversation
+        splitPane.setTopComponent(new JBScrollPane(ticketList));
+        splitPane.setBottomComponent(conversationPanel.getContent());
+        splitPane.setResizeWeight(0.4);
+        splitPane.setBorder(null);
 
-                    if (selectedTicket != null) {
-                        if ("action:open".equals(url)) {
-                            openTicketInBrowser(selectedTicket);
-                        } else if ("action:branch".equals(url)) {
-                            createBranchForTicket(selectedTicket);
-                        } else if ("action:startTime".equals(url)) {
-                            startTimeRecording(selectedTicket);
-                        } else if ("action:stopTime".equals(url)) {
-                            stopTimeRecording();
-                        }
-                    }
-                }
-            }
-        });
-
-        // Setup main panel with just the ticket list (no split pane)
+        // Setup main panel
         mainPanel.add(topPanel, BorderLayout.NORTH);
-        mainPanel.add(new JBScrollPane(ticketList), BorderLayout.CENTER);
+        mainPanel.add(splitPane, BorderLayout.CENTER);
         mainPanel.setBorder(JBUI.Borders.empty(5));
 
         // Add selection listener to update details panel
@@ -292,50 +324,203 @@ public class TicketSelectionView implements Disposable {
             }
         });
 
-        // Load tickets initially
+        // Show the tickets that are already known, then sync them
+        TicketStore ticketStore = ZammadService.getInstance().getTicketStore();
+        ticketStore.addListener(ticketStoreListener);
+        TimeEntrySender.getInstance().addListener(timeEntryListener);
+        branchIndex.addListener(branchIndexListener);
+        if (ticketStore.size() > 0) {
+            refreshFromStore();
+        }
         loadTickets();
+
+        // Offer to recover a recording that was interrupted by a crash, once the tool window is shown
+        ApplicationManager.getApplication().invokeLater(() -> {
+            if (!disposed) {
+                recoverInterruptedRecording();
+            }
+        }, ModalityState.nonModal());
     }
 
     /**
      * Loads tickets from the Zammad service.
+     * The shared ticket store is synced in the background; only tickets changed since the last sync are
+     * fetched, and the list is updated from the store on the EDT whenever pages are merged into it.
+     * If a sync is already in flight (e.g. the refresh button was pressed while the tool window was being
+     * shown), no second one is started; the running one delivers the result.
      */
     public void loadTickets() {
-        model.clear();
+        if (currentLoad != null && !currentLoad.isDone()) {
+            LOG.info("Ticket load already in progress, not starting another one");
+            return;
+        }
 
         ZammadService zammadService = ZammadService.getInstance();
         if (!zammadService.isConfigured()) {
             // Show message in the list instead
+            model.clear();
             return;
         }
 
-        try {
-            LOG.info("Loading tickets from Zammad");
-            List<Ticket> tickets = zammadService.getTicketsForCurrentUser();
-            // Sort tickets by ID in descending order
-            Collections.sort(tickets, (t1, t2) -> Integer.compare(t2.getId(), t1.getId()));
-            for (Ticket ticket : tickets) {
-                model.addElement(ticket);
+        int generation = ++loadGeneration;
+        customerNameResolver.clearFailures();
+        LOG.info("Loading tickets from Zammad");
+        ticketList.setPaintBusy(true);
+        CompletableFuture<Integer> load = zammadService.syncTickets();
+        currentLoad = load;
+        load.whenComplete((received, error) -> runOnEdt(() -> {
+            if (generation != loadGeneration) {
+                return;
+            }
+            currentLoad = null;
+            ticketList.setPaintBusy(false);
+            if (error != null) {
+                if (!(error instanceof CancellationException)) {
+                    handleLoadError(ErrorHandler.unwrap(error));
+                }
+                return;
             }
-            LOG.info("Loaded " + tickets.size() + " tickets");
-            ticketList.setSelectedIndex(tickets.isEmpty() ? -1 : 0);
+            LOG.info("Synced tickets, received " + received + " tickets");
+            // The totals take one request per ticket, so they are only kept up to date once the report was used
+            if (timeReport != null) {
+                loadTimeTotals();
+            }
+        }));
+    }
+
+    /**
+     * Loads the time the current user accounted on every listed ticket in the background and shows it in the list.
+     * Only tickets that changed since the last load are fetched again, but the first load takes one request per
+     * ticket; that is why the totals are only loaded after the time report was shown once.
+     */
+    private void loadTimeTotals() {
+        if (timeTotalsLoad != null && !timeTotalsLoad.isDone()) {
+            return;
+        }
+        TicketStore ticketStore = ZammadService.getInstance().getTicketStore();
+        // The store is synced for the current user, whose time is shown
+        int userId = ticketStore.getUserId();
+        List<Ticket> tickets = ticketStore.getTickets();
+        CompletableFuture<Map<Integer, List<TimeAccountingEntry>>> load =
+            ZammadService.getInstance().getTimeAccountingEntriesAsync(tickets);
+        timeTotalsLoad = load;
+        load.whenComplete((entriesByTicket, error) -> runOnEdt(() -> {
+            if (error != null) {
+                // The totals are optional, e.g. time accounting may not be enabled
+                ErrorHandler.handleExceptionSilently(ErrorHandler.unwrap(error), "Loading time totals");
+                return;
+            }
+            timeReport = TimeReport.create(tickets, entriesByTicket, userId, ZoneId.systemDefault());
+            ticketList.repaint();
+        }));
+    }
+
+    /**
+     * Shows the time the current user accounted on all listed tickets, per week, per day and per ticket.
+     */
+    private void showTimeReport() {
+        TicketStore ticketStore = ZammadService.getInstance().getTicketStore();
+        int userId = ticketStore.getUserId();
+        List<Ticket> tickets = ticketStore.getTickets();
+        if (tickets.isEmpty()) {
+            Messages.showInfoMessage(project, "There are no tickets to report on", "No Tickets");
+            return;
+        }
+
+        LOG.info("Fetching time accounting entries for " + tickets.size() + " tickets");
+        ticketList.setPaintBusy(true);
+        ZammadService.getInstance().getTimeAccountingEntriesAsync(tickets)
+            .whenComplete((entriesByTicket, error) -> runOnEdt(() -> {
+                ticketList.setPaintBusy(currentLoad != null);
+                if (error != null) {
+                    handleTimeEntriesError(ErrorHandler.unwrap(error));
+                    return;
+                }
+                timeReport = TimeReport.create(tickets, entriesByTicket, userId, ZoneId.systemDefault());
+                ticketList.repaint();
+                new TimeReportDialog(project, timeReport).show();
+            }));
+    }
+
+    /**
+     * Schedules a list update after the ticket store changed. Several changes in a row result in one update.
+     */
+    private void scheduleRefreshFromStore() {
+        if (refreshFromStoreScheduled.compareAndSet(false, true)) {
+            runOnEdt(() -> {
+                refreshFromStoreScheduled.set(false);
+                refreshFromStore();
+            });
+        }
+    }
+
+    /**
+     * Updates the list from the ticket store. Only the rows of changed tickets are updated, so the
+     * scroll position and the selection are kept.
+     */
+    private void refreshFromStore() {
+        List<Ticket> tickets = ZammadService.getInstance().getTicketStore().getTickets();
+
+        // Resolve all new customers with one bulk request before the rows are painted
+        customerNameResolver.prefetch(tickets);
+
+        Ticket selected = ticketList.getSelectedValue();
+        // Tickets are sorted by ID in descending order
+        model.setTickets(tickets);
+
+        int selectedIndex = selected != null ? model.indexOf(selected.getId()) : -1;
+        if (selectedIndex >= 0) {
+            if (ticketList.getSelectedIndex() != selectedIndex) {
+                // The selected ticket was moved
+                ticketList.setSelectedIndex(selectedIndex);
+            }
+            Ticket current = model.getElementAt(selectedIndex);
+            if (!current.equals(selected)) {
+                // The selected ticket was updated
+                updateTicketDetails(current);
+            }
+        } else if (!tickets.isEmpty()) {
+            ticketList.setSelectedIndex(0);
 
             // Update details panel for the initially selected ticket
             updateTicketDetails(ticketList.getSelectedValue());
-        } catch (ConfigurationException ex) {
+        }
+    }
+
+    private void cancelCurrentLoad() {
+        if (currentLoad != null) {
+            currentLoad.cancel(false);
+            currentLoad = null;
+        }
+    }
+
+    private void handleLoadError(Throwable ex) {
+        if (ex instanceof ConfigurationException) {
             LOG.warn("Configuration error while loading tickets", ex);
             ErrorHandler.handleException(project, ex, "Configuration Error");
-        } catch (ApiException ex) {
+        } else if (ex instanceof ApiException) {
             LOG.warn("API error while loading tickets", ex);
             ErrorHandler.handleException(project, ex, "API Error");
-        } catch (ZammadException ex) {
+        } else if (ex instanceof ZammadException) {
             LOG.warn("Error while loading tickets", ex);
             ErrorHandler.handleException(project, ex, "Error");
-        } catch (Exception ex) {
+        } else {
             LOG.warn("Unexpected error while loading tickets", ex);
             ErrorHandler.handleException(project, ex, "Unexpected Error");
         }
     }
 
+    /**
+     * Runs the given action on the EDT unless this view has been disposed in the meantime.
+     */
+    private void runOnEdt(Runnable action) {
+        ApplicationManager.getApplication().invokeLater(() -> {
+            if (!disposed) {
+                action.run();
+            }
+        }, ModalityState.any());
+    }
+
     /**
      * Sets the callback to be called when a ticket is selected.
      *
@@ -346,12 +531,12 @@ public class TicketSelectionView implements Disposable {
     }
 
     /**
-     * Handles ticket selection. Since we no longer show ticket details,
-     * this method only calls the callback if set.
+     * Handles ticket selection: shows the conversation of the ticket and calls the callback if set.
      *
      * @param ticket The selected ticket, or null if no ticket is selected
      */
     private void updateTicketDetails(@Nullable Ticket ticket) {
+        conversationPanel.showTicket(ticket);
         if (ticket == null) {
             return;
         }
@@ -373,10 +558,17 @@ public class TicketSelectionView implements Disposable {
 
     /**
      * Disposes of this component. If there's an active time recording, it will be stopped
-     * and the time will be posted to Zammad.
+     * and the time will be queued for Zammad; while the IDE is closing, it is only written to the journal
+     * and sent in the next session.
      */
     @Override
     public void dispose() {
+        disposed = true;
+        ZammadService.getInstance().getTicketStore().removeListener(ticketStoreListener);
+        TimeEntrySender.getInstance().removeListener(timeEntryListener);
+        branchIndex.removeListener(branchIndexListener);
+        cancelCurrentLoad();
+        conversationPanel.dispose();
         if (activeTimeTrackingTicket != null && timeTrackingStartTime != null) {
             // Calculate elapsed time
             Duration elapsed = Duration.between(timeTrackingStartTime, Instant.now());
@@ -393,39 +585,34 @@ public class TicketSelectionView implements Disposable {
                 timer = null;
             }
 
-            // Send the time entry to Zammad
-            ZammadService zammadService = ZammadService.getInstance();
-            try {
-                // Use a default note for automatic time entries
-                String note = "Automatically recorded time when IDE was closed";
-
-                LOG.info("Recording time for ticket ID: " + activeTimeTrackingTicket.getId() + " with time: " + elapsedTimeStr);
-                zammadService.createTimeAccountingEntry(
-                    activeTimeTrackingTicket.getId(),
-                    elapsedTimeStr
-                );
-
-                // Reset the state
-                activeTimeTrackingTicket = null;
-                timeTrackingStartTime = null;
-                LOG.info("Time recording stopped and saved");
-            } catch (ZammadException ex) {
-                // Log the error but don't show a dialog as the IDE might be shutting down
-                LOG.warn("Failed to record time: " + ex.getMessage(), ex);
-                ErrorHandler.handleExceptionSilently(ex, "Time recording on dispose");
+            // Closing the IDE does not wait for the network, and a send started now would be cut off;
+            // if only the project is closed, the entry is sent in the background
+            LOG.info("Recording time for ticket ID: " + activeTimeTrackingTicket.getId() + " with time: " + elapsedTimeStr);
+            TimeEntrySender sender = TimeEntrySender.getInstance();
+            if (ApplicationManager.getApplication().isExitInProgress()) {
+                sender.record(timeTrackingBaseUrl, activeTimeTrackingTicket.getId(), elapsedTimeStr);
+            } else {
+                sender.enqueue(timeTrackingBaseUrl, activeTimeTrackingTicket.getId(), elapsedTimeStr);
             }
+            recordingCheckpoint.clear();
+
+            // Reset the state
+            activeTimeTrackingTicket = null;
+            timeTrackingStartTime = null;
+            timeTrackingBaseUrl = null;
+            LOG.info("Time recording stopped and saved");
         }
     }
 
     /**
-     * Creates a Git branch for the given ticket.
+     * Creates a Git branch for the given ticket, in all or a chosen subset of the project's repositories.
      *
      * @param ticket The ticket to create a branch for
      */
     private void createBranchForTicket(Ticket ticket) {
         // Check if the project has Git enabled
-        GitRepository gitRepository = getGitRepository(project);
-        if (gitRepository == null) {
+        List<GitRepository> repositories = GitUtil.getRepositoryManager(project).getRepositories();
+        if (repositories.isEmpty()) {
             Messages.showErrorDialog(
                 project,
                 "This project is not under Git version control.",
@@ -434,88 +621,17 @@ public class TicketSelectionView implements Disposable {
             return;
         }
 
-        // Create a sanitized branch name from the ticket
-        String sanitizedTitle = Pattern.compile("[^a-zA-Z0-9-]").matcher(ticket.getTitle()).replaceAll("-").toLowerCase();
-        String branchName = ticket.getId() + "-" + sanitizedTitle;
-
-        // Check if we have a current branch
-        if (gitRepository.getCurrentBranch() == null) {
-            Messages.showErrorDialog(
-                project,
-                "Could not determine the current branch.",
-                "Cannot Create Branch"
-            );
-            return;
-        }
-
-        // Create the branch
-        GitBrancher brancher = GitBrancher.getInstance(project);
-        brancher.checkoutNewBranch(branchName, Collections.singletonList(gitRepository));
-
-        Messages.showInfoMessage(
-            project,
-            "Created and checked out branch '" + branchName + "' for ticket #" + ticket.getId() + ": " + ticket.getTitle(),
-            "Branch Created"
-        );
-    }
-
-    /**
-     * Gets the Git repository for the project.
-     *
-     * @param project The project
-     * @return The Git repository, or null if not found
-     */
-    @Nullable
-    private GitRepository getGitRepository(Project project) {
-        List<GitRepository> repositories = GitUtil.getRepositoryManager(project).getRepositories();
-        return repositories.isEmpty() ? null : repositories.get(0);
-    }
-
-    /**
-     * Gets the customer name for a ticket.
-     * 
-     * @param ticket The ticket to get the customer name for
-     * @return The customer name, or the customer ID if the name couldn't be retrieved
-     */
-    private String getCustomerName(Ticket ticket) {
-        String customerId = ticket.getCustomer_id();
-        if (customerId == null || customerId.isEmpty()) {
-            return "";
-        }
-
-        try {
-            // Check if the customer field is a numeric ID
-            int userId = Integer.parseInt(customerId);
-
-            // Get the user information from the API
-            ZammadService zammadService = ZammadService.getInstance();
-            try {
-                LOG.info("Fetching customer name for user ID: " + userId);
-                de.dp_coding.zammadplugin.model.User user = zammadService.getUserById(userId);
-                if (user != null) {
-                    LOG.info("Found customer name: " + user.getFullName());
-                    return user.getFullName();
-                }
-            } catch (ConfigurationException ex) {
-                // If there's an error, just return the customer ID
-                LOG.warn("Configuration error while fetching customer name", ex);
-                // Don't show error dialog for customer name as it's not critical
-            } catch (ApiException ex) {
-                // If there's an error, just return the customer ID
-                LOG.warn("API error while fetching customer name", ex);
-                // Don't show error dialog for customer name as it's not critical
-            } catch (ZammadException ex) {
-                // If there's an error, just return the customer ID
-                LOG.warn("Error while fetching customer name", ex);
-                // Don't show error dialog for customer name as it's not critical
-            }
-        } catch (NumberFormatException e) {
-            // If the customer field is not a numeric ID, just return it as is
-            LOG.info("Customer ID is not a numeric ID: " + customerId);
-            return customerId;
+        // Let the user choose the repositories if there are several
+        if (repositories.size() > 1) {
+            SelectRepositoriesDialog dialog = new SelectRepositoriesDialog(project, BranchNames.forTicket(ticket),
+                repositories, branchIndex.getBranches(ticket.getId()));
+            if (!dialog.showAndGet()) {
+                return;
+            }
+            repositories = dialog.getSelectedRepositories();
         }
 
-        return customerId;
+        new CreateTicketBranchTask(project, ticket, repositories).queue();
     }
 
     /**
@@ -573,6 +689,9 @@ public class TicketSelectionView implements Disposable {
         // Start recording time for the new ticket
         activeTimeTrackingTicket = ticket;
         timeTrackingStartTime = Instant.now();
+        timeTrackingBaseUrl = ZammadService.getInstance().getZammadUrl();
+        recordingCheckpoint.start(timeTrackingBaseUrl, ticket.getId(),
+            Objects.toString(ticket.getTitle(), ""), timeTrackingStartTime);
 
         // Start the timer
         startTimer();
@@ -584,6 +703,59 @@ public class TicketSelectionView implements Disposable {
         );
     }
 
+    /**
+     * Offers to record or resume a recording that was still running when the IDE crashed or was killed.
+     * The recording is only known up to its last checkpoint, so that is the time offered for recording.
+     */
+    private void recoverInterruptedRecording() {
+        RecordingCheckpoint.Recording recording = recordingCheckpoint.load();
+        if (recording == null || activeTimeTrackingTicket != null) {
+            return;
+        }
+
+        Duration recorded = recording.getRecordedDuration();
+        String recordedStr = String.format("%02d:%02d:%02d",
+            recorded.toHours(), recorded.toMinutesPart(), recorded.toSecondsPart());
+        int result = Messages.showYesNoCancelDialog(
+            project,
+            "The time recording for ticket #" + recording.getTicketId() + ": " + recording.getTicketTitle() +
+            " was interrupted because the IDE was not closed properly. It ran for " + recordedStr +
+            " until it was last saved.\n\nDo you want to record this time, or resume the recording?",
+            "Interrupted Time Recording",
+            "Record " + recordedStr,
+            "Resume Recording",
+            "Discard",
+            Messages.getQuestionIcon()
+        );
+
+        if (result == Messages.YES) {
+            LOG.info("Recording recovered time for ticket ID: " + recording.getTicketId() + " with time: " + recordedStr);
+            PendingTimeEntry entry = TimeEntrySender.getInstance()
+                .enqueue(recording.getBaseUrl(), recording.getTicketId(), recordedStr);
+            queuedTimeEntryIds.add(entry.getId());
+            recordingCheckpoint.clear();
+        } else if (result == Messages.NO) {
+            // Continue with the time recorded until the last checkpoint; the time the IDE was not running is dropped
+            ZammadService zammadService = ZammadService.getInstance();
+            // The store holds the tickets of the configured instance only
+            Ticket ticket = recording.getBaseUrl().equals(zammadService.getZammadUrl())
+                ? zammadService.getTicketStore().getTicket(recording.getTicketId())
+                : null;
+            if (ticket == null) {
+                ticket = new Ticket(recording.getTicketId(), recording.getTicketTitle(), null, null, null, null, null, null, null);
+            }
+            activeTimeTrackingTicket = ticket;
+            timeTrackingStartTime = Instant.now().minus(recorded);
+            timeTrackingBaseUrl = recording.getBaseUrl();
+            recordingCheckpoint.start(timeTrackingBaseUrl, ticket.getId(), recording.getTicketTitle(),
+                timeTrackingStartTime);
+            startTimer();
+            ticketList.repaint();
+        } else {
+            recordingCheckpoint.clear();
+        }
+    }
+
     /**
      * Starts the timer to update the elapsed time display.
      */
@@ -659,40 +831,38 @@ public class TicketSelectionView implements Disposable {
 //            Messages.getQuestionIcon()
 //        );
 
-        // Send the time entry to Zammad
-        ZammadService zammadService = ZammadService.getInstance();
-        try {
-            LOG.info("Recording time for ticket ID: " + activeTimeTrackingTicket.getId() + " with time: " + elapsedTimeStr);
-            TimeAccountingEntry entry = zammadService.createTimeAccountingEntry(
-                activeTimeTrackingTicket.getId(),
-                elapsedTimeStr
-            );
+        Ticket ticket = activeTimeTrackingTicket;
+        String baseUrl = timeTrackingBaseUrl;
+        activeTimeTrackingTicket = null;
+        timeTrackingStartTime = null;
+        timeTrackingBaseUrl = null;
 
-            // Show success message
-            LOG.info("Time recording stopped and saved");
-            Messages.showInfoMessage(
-                project,
-                "Recorded " + elapsedTimeStr + " for ticket #" + activeTimeTrackingTicket.getId() + 
-                ": " + activeTimeTrackingTicket.getTitle(),
-                "Time Recording Stopped"
-            );
+        // Only written to the local journal here; the entry is sent to Zammad in the background
+        LOG.info("Recording time for ticket ID: " + ticket.getId() + " with time: " + elapsedTimeStr);
+        PendingTimeEntry entry = TimeEntrySender.getInstance().enqueue(baseUrl, ticket.getId(), elapsedTimeStr);
+        queuedTimeEntryIds.add(entry.getId());
+        recordingCheckpoint.clear();
 
-            // Reset the state
-            activeTimeTrackingTicket = null;
-            timeTrackingStartTime = null;
+        LOG.info("Time recording stopped and saved");
+        Messages.showInfoMessage(
+            project,
+            "Recorded " + elapsedTimeStr + " for ticket #" + ticket.getId() +
+            ": " + ticket.getTitle(),
+            "Time Recording Stopped"
+        );
+    }
 
-            // Refresh the ticket list to show updated time entries
-            loadTickets();
-        } catch (ConfigurationException ex) {
+    private void handleTimeRecordingError(Throwable ex) {
+        if (ex instanceof ConfigurationException) {
             LOG.warn("Configuration error while recording time", ex);
             ErrorHandler.handleException(project, ex, "Configuration Error");
-        } catch (FeatureNotEnabledException ex) {
+        } else if (ex instanceof FeatureNotEnabledException) {
             LOG.warn("Feature not enabled error while recording time", ex);
             ErrorHandler.handleException(project, ex, "Feature Not Enabled");
-        } catch (ApiException ex) {
+        } else if (ex instanceof ApiException) {
             LOG.warn("API error while recording time", ex);
             ErrorHandler.handleException(project, ex, "API Error");
-        } catch (ZammadException ex) {
+        } else {
             LOG.warn("Error while recording time", ex);
             ErrorHandler.handleException(project, ex, "Error");
         }
@@ -709,53 +879,64 @@ public class TicketSelectionView implements Disposable {
         }
 
         ZammadService zammadService = ZammadService.getInstance();
-        try {
-            LOG.info("Fetching time accounting entries for ticket ID: " + selectedTicket.getId());
-            List<TimeAccountingEntry> entries = zammadService.getTimeAccountingEntries(selectedTicket.getId());
-
-            if (entries.isEmpty()) {
-                LOG.info("No time entries found for ticket ID: " + selectedTicket.getId());
-                Messages.showInfoMessage(
-                    project,
-                    "No time entries found for ticket #" + selectedTicket.getId() + ": " + selectedTicket.getTitle(),
-                    "No Time Entries"
-                );
-                return;
-            }
+        LOG.info("Fetching time accounting entries for ticket ID: " + selectedTicket.getId());
+        zammadService.getTimeAccountingEntriesAsync(selectedTicket.getId())
+            .whenComplete((entries, error) -> runOnEdt(() -> {
+                if (error != null) {
+                    handleTimeEntriesError(ErrorHandler.unwrap(error));
+                } else {
+                    showTimeAccountingEntries(selectedTicket, entries);
+                }
+            }));
+    }
 
-            // Build a message with all time entries
-            StringBuilder message = new StringBuilder();
-            message.append("Time entries for ticket #").append(selectedTicket.getId())
-                  .append(": ").append(selectedTicket.getTitle()).append("\n\n");
+    private void showTimeAccountingEntries(Ticket selectedTicket, List<TimeAccountingEntry> entries) {
+        if (entries.isEmpty()) {
+            LOG.info("No time entries found for ticket ID: " + selectedTicket.getId());
+            Messages.showInfoMessage(
+                project,
+                "No time entries found for ticket #" + selectedTicket.getId() + ": " + selectedTicket.getTitle(),
+                "No Time Entries"
+            );
+            return;
+        }
 
-            for (TimeAccountingEntry entry : entries) {
-                message.append("Time: ").append(entry.getTime())
-                      .append(", Created: ").append(entry.getCreatedAt());
+        // Build a message with all time entries
+        StringBuilder message = new StringBuilder();
+        message.append("Time entries for ticket #").append(selectedTicket.getId())
+              .append(": ").append(selectedTicket.getTitle()).append("\n\n");
 
-                if (entry.getNote() != null && !entry.getNote().isEmpty()) {
-                    message.append("\nNote: ").append(entry.getNote());
-                }
+        for (TimeAccountingEntry entry : entries) {
+            message.append("Time: ").append(entry.getTime())
+                  .append(", Created: ").append(entry.getCreatedAt());
 
-                message.append("\n");
+            if (entry.getNote() != null && !entry.getNote().isEmpty()) {
+                message.append("\nNote: ").append(entry.getNote());
             }
 
-            LOG.info("Showing " + entries.size() + " time entries for ticket ID: " + selectedTicket.getId());
-            // Show the time entries
-            Messages.showInfoMessage(
-                project,
-                message.toString(),
-                "Time Entries"
-            );
-        } catch (ConfigurationException ex) {
+            message.append("\n");
+        }
+
+        LOG.info("Showing " + entries.size() + " time entries for ticket ID: " + selectedTicket.getId());
+        // Show the time entries
+        Messages.showInfoMessage(
+            project,
+            message.toString(),
+            "Time Entries"
+        );
+    }
+
+    private void handleTimeEntriesError(Throwable ex) {
+        if (ex instanceof ConfigurationException) {
             LOG.warn("Configuration error while fetching time entries", ex);
             ErrorHandler.handleException(project, ex, "Configuration Error");
-        } catch (FeatureNotEnabledException ex) {
+        } else if (ex instanceof FeatureNotEnabledException) {
             LOG.warn("Feature not enabled error while fetching time entries", ex);
             ErrorHandler.handleException(project, ex, "Feature Not Enabled");
-        } catch (ApiException ex) {
+        } else if (ex instanceof ApiException) {
             LOG.warn("API error while fetching time entries", ex);
             ErrorHandler.handleException(project, ex, "API Error");
-        } catch (ZammadException ex) {
+        } else {
             LOG.warn("Error while fetching time entries", ex);
             ErrorHandler.handleException(project, ex, "Error");
         }
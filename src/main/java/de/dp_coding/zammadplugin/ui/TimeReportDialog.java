@@ -0,0 +1,105 @@
+package de.dp_coding.zammadplugin.ui;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTabbedPane;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.ui.JBUI;
+import de.dp_coding.zammadplugin.timetracking.TimeReport;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.time.temporal.IsoFields;
+import java.util.Map;
+
+/**
+ * Dialog showing the time accounted on the listed tickets, per week, per day and per ticket.
+ */
+public class TimeReportDialog extends DialogWrapper {
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM);
+
+    private final TimeReport report;
+
+    public TimeReportDialog(Project project, @NotNull TimeReport report) {
+        super(project);
+        this.report = report;
+        setTitle("Time Report");
+        init();
+    }
+
+    @Nullable
+    @Override
+    protected JComponent createCenterPanel() {
+        JBTabbedPane tabs = new JBTabbedPane();
+        tabs.addTab("By Week", createTable(new String[]{"Week", "Starting", "Time"}, weekRows()));
+        tabs.addTab("By Day", createTable(new String[]{"Day", "Time"}, dayRows()));
+        tabs.addTab("By Ticket", createTable(new String[]{"Ticket", "Title", "Time"}, ticketRows()));
+
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(tabs, BorderLayout.CENTER);
+        JBLabel totalLabel = new JBLabel("Total: " + TimeReport.formatMinutes(report.getTotalMinutes()) +
+            " on " + report.getTickets().size() + " tickets");
+        totalLabel.setBorder(JBUI.Borders.empty(5, 0, 0, 0));
+        panel.add(totalLabel, BorderLayout.SOUTH);
+        panel.setPreferredSize(new Dimension(600, 400));
+        return panel;
+    }
+
+    @NotNull
+    @Override
+    protected Action[] createActions() {
+        return new Action[]{getOKAction()};
+    }
+
+    private Object[][] weekRows() {
+        // Most recent week first
+        Object[][] rows = new Object[report.getMinutesByWeek().size()][];
+        int row = rows.length - 1;
+        for (Map.Entry<LocalDate, Double> entry : report.getMinutesByWeek().entrySet()) {
+            LocalDate monday = entry.getKey();
+            rows[row--] = new Object[]{
+                monday.get(IsoFields.WEEK_BASED_YEAR) + "-W" + String.format("%02d", monday.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR)),
+                DAY_FORMAT.format(monday),
+                TimeReport.formatMinutes(entry.getValue())
+            };
+        }
+        return rows;
+    }
+
+    private Object[][] dayRows() {
+        // Most recent day first
+        Object[][] rows = new Object[report.getMinutesByDay().size()][];
+        int row = rows.length - 1;
+        for (Map.Entry<LocalDate, Double> entry : report.getMinutesByDay().entrySet()) {
+            rows[row--] = new Object[]{DAY_FORMAT.format(entry.getKey()), TimeReport.formatMinutes(entry.getValue())};
+        }
+        return rows;
+    }
+
+    private Object[][] ticketRows() {
+        return report.getTickets().stream()
+            .filter(ticket -> report.getTicketMinutes(ticket.getId()) > 0)
+            .map(ticket -> new Object[]{"#" + ticket.getId(), ticket.getTitle(),
+                TimeReport.formatMinutes(report.getTicketMinutes(ticket.getId()))})
+            .toArray(Object[][]::new);
+    }
+
+    private static JComponent createTable(String[] columns, Object[][] rows) {
+        DefaultTableModel model = new DefaultTableModel(rows, columns) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JBTable table = new JBTable(model);
+        return new JBScrollPane(table);
+    }
+}
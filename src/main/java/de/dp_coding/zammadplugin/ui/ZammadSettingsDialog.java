@@ -2,10 +2,13 @@ package de.dp_coding.zammadplugin.ui;
 
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.JBIntSpinner;
+import com.intellij.ui.components.JBCheckBox;
 import com.intellij.ui.components.JBLabel;
 import com.intellij.ui.components.JBTextField;
 import com.intellij.util.ui.FormBuilder;
 import de.dp_coding.zammadplugin.api.ZammadService;
+import de.dp_coding.zammadplugin.timetracking.TimeEntrySender;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
@@ -18,11 +21,17 @@ public class ZammadSettingsDialog extends DialogWrapper {
     private final ZammadService zammadService = ZammadService.getInstance();
     private final JBTextField urlField;
     private final JBTextField tokenField;
+    private final JBIntSpinner pageSizeSpinner;
+    private final JBCheckBox preconnectCheckBox;
     
     public ZammadSettingsDialog(Project project) {
         super(project);
         urlField = new JBTextField(zammadService.getZammadUrl(), 30);
         tokenField = new JBTextField(zammadService.getApiToken(), 30);
+        pageSizeSpinner = new JBIntSpinner(zammadService.getTicketPageSize(),
+            ZammadService.MIN_TICKET_PAGE_SIZE, ZammadService.MAX_TICKET_PAGE_SIZE, 10);
+        preconnectCheckBox = new JBCheckBox("Connect in advance when the tool window opens",
+            zammadService.isPreconnectEnabled());
         setTitle("Zammad API Settings");
         init();
     }
@@ -33,6 +42,8 @@ public class ZammadSettingsDialog extends DialogWrapper {
         FormBuilder formBuilder = FormBuilder.createFormBuilder()
             .addLabeledComponent("Zammad URL:", urlField)
             .addLabeledComponent("API Token:", tokenField)
+            .addLabeledComponent("Tickets per request:", pageSizeSpinner)
+            .addComponent(preconnectCheckBox)
             .addComponent(new JBLabel("Enter the URL of your Zammad instance and your API token."))
             .addComponent(new JBLabel("Example URL: https://your-zammad-instance.com/"));
         
@@ -52,7 +63,12 @@ public class ZammadSettingsDialog extends DialogWrapper {
         String normalizedUrl = url.endsWith("/") ? url : url + "/";
         
         // Save settings
+        zammadService.setTicketPageSize(pageSizeSpinner.getNumber());
+        zammadService.setPreconnectEnabled(preconnectCheckBox.isSelected());
         zammadService.initialize(normalizedUrl, token);
+
+        // Pending time entries may have failed because of the old settings
+        TimeEntrySender.getInstance().flushSoon();
         
         super.doOKAction();
     }
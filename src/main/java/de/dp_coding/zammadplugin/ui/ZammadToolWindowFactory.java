@@ -5,6 +5,8 @@ import com.intellij.openapi.wm.ToolWindow;
 import com.intellij.openapi.wm.ToolWindowFactory;
 import com.intellij.ui.content.Content;
 import com.intellij.ui.content.ContentFactory;
+import de.dp_coding.zammadplugin.api.ZammadService;
+import de.dp_coding.zammadplugin.timetracking.TimeEntrySender;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -14,6 +16,12 @@ public class ZammadToolWindowFactory implements ToolWindowFactory {
 
     @Override
     public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+        // Open the connection while the UI is being built
+        ZammadService.getInstance().warmUpConnection();
+
+        // Send time entries left over from the previous session
+        TimeEntrySender.getInstance().flushSoon();
+
         // Create the tool window content
         TicketSelectionView ticketSelectionView = new TicketSelectionView(project);
 
@@ -29,5 +37,14 @@ public class ZammadToolWindowFactory implements ToolWindowFactory {
         // Register the view as a disposable component
         content.setDisposer(ticketSelectionView);
         toolWindow.getContentManager().addContent(content);
+
+        // HTTP and cache metrics, to tell whether slowness comes from the plugin or the server
+        DiagnosticsPanel diagnosticsPanel = new DiagnosticsPanel(project);
+        Content diagnosticsContent = contentFactory.createContent(
+                diagnosticsPanel.getContent(),
+                "Diagnostics",
+                false);
+        diagnosticsContent.setDisposer(diagnosticsPanel);
+        toolWindow.getContentManager().addContent(diagnosticsContent);
     }
 }